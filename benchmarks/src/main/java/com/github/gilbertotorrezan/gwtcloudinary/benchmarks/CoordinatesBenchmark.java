@@ -0,0 +1,94 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryCoordinates;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryRectArray;
+
+/**
+ * Building face coordinates as {@link CloudinaryCoordinates} objects versus packing them in a {@link CloudinaryRectArray}.
+ * 
+ * @author Gilberto Torrezan Filho
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoordinatesBenchmark {
+	
+	@Param({ "1", "12", "48" })
+	public int faces;
+	
+	private int[][] source;
+	
+	@Setup
+	public void setup() {
+		source = new int[faces][];
+		for (int i = 0; i < faces; i++) {
+			source[i] = new int[] { 100 + i * 190, 340 + i % 7, 90 + i % 13, 90 + i % 13 };
+		}
+	}
+	
+	@Benchmark
+	public CloudinaryCoordinates[] objects() {
+		CloudinaryCoordinates[] coordinates = new CloudinaryCoordinates[source.length];
+		for (int i = 0; i < source.length; i++) {
+			int[] r = source[i];
+			CloudinaryCoordinates c = new CloudinaryCoordinates();
+			c.setX(r[0]);
+			c.setY(r[1]);
+			c.setWidth(r[2]);
+			c.setHeight(r[3]);
+			coordinates[i] = c;
+		}
+		return coordinates;
+	}
+	
+	@Benchmark
+	public CloudinaryRectArray packed() {
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder(source.length);
+		for (int[] r : source) {
+			builder.onRect(r[0], r[1], r[2], r[3]);
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the upload result fixtures. Each fixture holds a single realistic upload result, with <code>${n}</code> placeholders
+ * that are replaced by the index of the file when building a batch, so every entry has its own public ID, etag and URLs.
+ * 
+ * @author Gilberto Torrezan Filho
+ */
+public final class Fixtures {
+	
+	/**
+	 * Result with the basic fields only.
+	 */
+	public static final String PLAIN = "upload-result.json";
+	
+	/**
+	 * Result with tags, 12 faces and custom coordinates.
+	 */
+	public static final String FACES_TAGS = "upload-result-faces-tags.json";
+	
+	private Fixtures() {
+	}
+
+	/**
+	 * @return A JSON array with the given number of results, as returned by the Upload Widget.
+	 */
+	public static String batch(String fixture, int count) {
+		String template = load(fixture);
+		StringBuilder builder = new StringBuilder(template.length() * count + 2);
+		builder.append('[');
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(template.replace("${n}", String.valueOf(i + 1)));
+		}
+		builder.append(']');
+		return builder.toString();
+	}
+
+	private static String load(String fixture) {
+		try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + fixture)) {
+			if (in == null) {
+				throw new IllegalArgumentException("Fixture not found: " + fixture);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not read fixture: " + fixture, e);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryCoordinates;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * Baseline decoder that parses the whole result into a JSON tree and then copies each field to a {@link CloudinaryUploadInfo},
+ * like the widget used to do with <code>JSONObject</code>s. Coordinates are copied to {@link CloudinaryCoordinates} objects.
+ * 
+ * @author Gilberto Torrezan Filho
+ */
+public class JsonTreeDecoder {
+	
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	public List<CloudinaryUploadInfo> decode(String json) throws IOException {
+		JsonNode root = mapper.readTree(json);
+		List<CloudinaryUploadInfo> infos = new ArrayList<>(root.size());
+		for (JsonNode object : root) {
+			CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+			info.setPublicId(getSafeString(object.get("public_id")));
+			info.setSecureUrl(getSafeString(object.get("secure_url")));
+			info.setThumbnailUrl(getSafeString(object.get("thumbnail_url")));
+			info.setUrl(getSafeString(object.get("url")));
+			info.setType(getSafeString(object.get("type")));
+			info.setVersion(getSafeString(object.get("version")));
+			info.setWidth(getSafeInteger(object.get("width")));
+			info.setHeight(getSafeInteger(object.get("height")));
+			info.setFormat(getSafeString(object.get("format")));
+			info.setResourceType(getSafeString(object.get("resource_type")));
+			info.setSignature(getSafeString(object.get("signature")));
+			info.setBytes(getSafeInteger(object.get("bytes")));
+			info.setOriginalFilename(getSafeString(object.get("original_filename")));
+			info.setEtag(getSafeString(object.get("etag")));
+			info.setPath(getSafeString(object.get("path")));
+			info.setCreatedAt(getSafeString(object.get("created_at")));
+			
+			JsonNode tagsValue = object.get("tags");
+			if (tagsValue != null && tagsValue.isArray()) {
+				String[] tags = new String[tagsValue.size()];
+				for (int j = 0; j < tags.length; j++) {
+					tags[j] = getSafeString(tagsValue.get(j));
+				}
+				info.setTags(tags);
+			}
+			
+			JsonNode coordinatesValue = object.get("coordinates");
+			if (coordinatesValue != null && coordinatesValue.isObject()) {
+				JsonNode customValue = coordinatesValue.get("custom");
+				if (customValue != null && customValue.isArray()) {
+					info.setCustomCoordinates(toCoordinates(customValue));
+				}
+				JsonNode facesValue = coordinatesValue.get("faces");
+				if (facesValue == null || !facesValue.isArray()) {
+					facesValue = coordinatesValue.get("face");
+				}
+				if (facesValue != null && facesValue.isArray()) {
+					info.setFaceCoordinates(toCoordinates(facesValue));
+				}
+			}
+			infos.add(info);
+		}
+		return infos;
+	}
+
+	private static CloudinaryCoordinates[] toCoordinates(JsonNode array) {
+		CloudinaryCoordinates[] coordinatesArray = new CloudinaryCoordinates[array.size()];
+		for (int j = 0; j < coordinatesArray.length; j++) {
+			JsonNode value = array.get(j);
+			if (value != null && value.isArray() && value.size() >= 4) {
+				coordinatesArray[j] = new CloudinaryCoordinates();
+				coordinatesArray[j].setX(getSafeInteger(value.get(0)));
+				coordinatesArray[j].setY(getSafeInteger(value.get(1)));
+				coordinatesArray[j].setWidth(getSafeInteger(value.get(2)));
+				coordinatesArray[j].setHeight(getSafeInteger(value.get(3)));
+			}
+		}
+		return coordinatesArray;
+	}
+
+	private static String getSafeString(JsonNode value) {
+		if (value == null) {
+			return null;
+		}
+		if (value.isTextual()) {
+			return value.textValue();
+		}
+		if (value.isNumber()) {
+			return value.asText();
+		}
+		return null;
+	}
+
+	private static Integer getSafeInteger(JsonNode value) {
+		if (value == null || !value.isNumber()) {
+			return null;
+		}
+		return value.intValue();
+	}
+}
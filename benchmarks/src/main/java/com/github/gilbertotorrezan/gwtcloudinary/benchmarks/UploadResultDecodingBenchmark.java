@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryUploadInfoDecoder;
+
+/**
+ * Decoding of upload results with 1, 50 and 500 files, with and without faces and tags, into {@link CloudinaryUploadInfo}s.
+ * 
+ * @author Gilberto Torrezan Filho
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UploadResultDecodingBenchmark {
+	
+	@Param({ "1", "50", "500" })
+	public int files;
+	
+	@Param({ Fixtures.PLAIN, Fixtures.FACES_TAGS })
+	public String fixture;
+	
+	private String json;
+	private JsonTreeDecoder treeDecoder;
+	private CloudinaryUploadInfoDecoder streamingDecoder;
+	
+	@Setup
+	public void setup() {
+		json = Fixtures.batch(fixture, files);
+		treeDecoder = new JsonTreeDecoder();
+		streamingDecoder = new CloudinaryUploadInfoDecoder();
+	}
+	
+	@Benchmark
+	public List<CloudinaryUploadInfo> jsonTree() throws IOException {
+		return treeDecoder.decode(json);
+	}
+	
+	@Benchmark
+	public List<CloudinaryUploadInfo> streaming() {
+		return streamingDecoder.decodeList(json);
+	}
+
+}
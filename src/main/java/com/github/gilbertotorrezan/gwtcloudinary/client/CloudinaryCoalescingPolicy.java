@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+/**
+ * Defines how the {@link CloudinaryFileUploadedEvent}s and {@link CloudinaryUploadProgressEvent}s of a {@link CloudinaryUploadWidget}
+ * are grouped. When files are coalesced, a single event carries all the files uploaded since the last one, which avoids one
+ * re-render per file during large uploads.
+ * <p>
+ * Pending files are always delivered before the {@link CloudinaryQueueEvent} of the end of the queue and before the 
+ * {@link CloudinaryUploadFinishedEvent}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadWidget#setCoalescingPolicy(CloudinaryCoalescingPolicy)
+ */
+public final class CloudinaryCoalescingPolicy {
+	
+	enum Trigger {
+		IMMEDIATE, FINALLY, ANIMATION_FRAME, DELAY
+	}
+	
+	private static final CloudinaryCoalescingPolicy IMMEDIATE = new CloudinaryCoalescingPolicy(Trigger.IMMEDIATE, 0, 0);
+	
+	private final Trigger trigger;
+	private final int maxFiles;
+	private final int delayMillis;
+
+	private CloudinaryCoalescingPolicy(Trigger trigger, int maxFiles, int delayMillis) {
+		this.trigger = trigger;
+		this.maxFiles = maxFiles;
+		this.delayMillis = delayMillis;
+	}
+
+	/**
+	 * Each file is delivered in its own event, as soon as it is uploaded. This is the default.
+	 */
+	public static CloudinaryCoalescingPolicy immediate() {
+		return IMMEDIATE;
+	}
+
+	/**
+	 * Files uploaded during the same browser event loop are delivered together, at the end of it.
+	 */
+	public static CloudinaryCoalescingPolicy endOfEventLoop() {
+		return new CloudinaryCoalescingPolicy(Trigger.FINALLY, 0, 0);
+	}
+
+	/**
+	 * Files are delivered at most once per animation frame, right before the browser renders the page.
+	 */
+	public static CloudinaryCoalescingPolicy animationFrame() {
+		return new CloudinaryCoalescingPolicy(Trigger.ANIMATION_FRAME, 0, 0);
+	}
+
+	/**
+	 * Files are delivered when the given number of milliseconds has passed since the first pending file.
+	 */
+	public static CloudinaryCoalescingPolicy delay(int delayMillis) {
+		if (delayMillis <= 0) {
+			throw new IllegalArgumentException("The delay must be positive.");
+		}
+		return new CloudinaryCoalescingPolicy(Trigger.DELAY, 0, delayMillis);
+	}
+
+	/**
+	 * @return A copy of this policy that also delivers the pending files as soon as there are the given number of them. 
+	 */
+	public CloudinaryCoalescingPolicy withMaxFiles(int maxFiles) {
+		if (maxFiles <= 0) {
+			throw new IllegalArgumentException("The max number of files must be positive.");
+		}
+		if (trigger == Trigger.IMMEDIATE) {
+			return this;
+		}
+		return new CloudinaryCoalescingPolicy(trigger, maxFiles, delayMillis);
+	}
+
+	Trigger getTrigger() {
+		return trigger;
+	}
+
+	/**
+	 * @return The max number of pending files, or 0 if unbounded.
+	 */
+	public int getMaxFiles() {
+		return maxFiles;
+	}
+
+	/**
+	 * @return The delay of {@link #delay(int)} policies, or 0 for other policies.
+	 */
+	public int getDelayMillis() {
+		return delayMillis;
+	}
+}
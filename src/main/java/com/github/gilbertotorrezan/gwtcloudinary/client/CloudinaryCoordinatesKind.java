@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+/**
+ * The kinds of coordinates returned inside the <code>coordinates</code> object of an upload result.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryCoordinatesParser
+ */
+public enum CloudinaryCoordinatesKind {
+	
+	/**
+	 * Regions selected by interactive cropping, used by the <code>g_custom</code> gravity.
+	 */
+	CUSTOM("custom", "custom"),
+	
+	/**
+	 * Areas found by face detection, used by the <code>g_faces</code> gravity. Older results use the <code>face</code> key.
+	 */
+	FACES("faces", "faces", "face");
+	
+	private final String gravity;
+	private final String[] keys;
+
+	private CloudinaryCoordinatesKind(String gravity, String... keys) {
+		this.gravity = gravity;
+		this.keys = keys;
+	}
+
+	/**
+	 * @return The gravity value that uses these coordinates on delivery URLs, such as "faces" for <code>g_faces</code>.
+	 */
+	public String getGravity() {
+		return gravity;
+	}
+
+	/**
+	 * @return The keys of the <code>coordinates</code> object that may contain this kind, in order of preference.
+	 */
+	String[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * @return The position of the key in the order of preference of this kind, or -1 if the key doesn't belong to this kind.
+	 */
+	public int getKeyIndex(String key) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The kind stored under the given key of the <code>coordinates</code> object, or <code>null</code> if unknown.
+	 */
+	public static CloudinaryCoordinatesKind fromKey(String key) {
+		for (CloudinaryCoordinatesKind kind : values()) {
+			if (kind.getKeyIndex(key) >= 0) {
+				return kind;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Decodes the coordinates of native upload results, passing each rectangle to a {@link CloudinaryRectVisitor}.
+ * No intermediate wrapper is created, so the rectangles can be drawn or packed directly.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadResultJso#visitCoordinates(CloudinaryCoordinatesKind, CloudinaryRectVisitor)
+ */
+public final class CloudinaryCoordinatesParser {
+	
+	/**
+	 * Source of the <code>packRects(coordinates, keys, rects, masks)</code> function used by the worker of the 
+	 * {@link CloudinaryUploadResultPacker}: the JavaScript twin of {@link #getCoordinatesArray(JavaScriptObject, CloudinaryCoordinatesKind)}
+	 * and {@link #toRects(JavaScriptObject)}, with the same rules. It takes the first key that holds an array, and pushes 4 values 
+	 * and 1 mask per entry, as in {@link CloudinaryRectArray.Builder}. Returns the number of entries, or -1 if no key holds an array.
+	 */
+	static final String PACK_RECTS_SOURCE = 
+			"function packRects(coordinates, keys, rects, masks) {\n" + 
+			"  var toString = Object.prototype.toString, array = null;\n" + 
+			"  for (var k = 0; k < keys.length && array === null; k++) {\n" + 
+			"    var value = coordinates == null ? null : coordinates[keys[k]];\n" + 
+			"    if (toString.call(value) === '[object Array]') {\n" + 
+			"      array = value;\n" + 
+			"    }\n" + 
+			"  }\n" + 
+			"  if (array === null) {\n" + 
+			"    return -1;\n" + 
+			"  }\n" + 
+			"  for (var i = 0, n = array.length; i < n; i++) {\n" + 
+			"    var r = array[i];\n" + 
+			"    if (toString.call(r) !== '[object Array]' || r.length < 4) {\n" + 
+			"      rects.push(0, 0, 0, 0);\n" + 
+			"      masks.push(" + CloudinaryRectArray.INVALID + ");\n" + 
+			"      continue;\n" + 
+			"    }\n" + 
+			"    var mask = 0;\n" + 
+			"    for (var j = 0; j < 4; j++) {\n" + 
+			"      if (typeof r[j] === 'number') {\n" + 
+			"        rects.push(r[j] | 0);\n" + 
+			"      }\n" + 
+			"      else {\n" + 
+			"        rects.push(0);\n" + 
+			"        mask |= 1 << j;\n" + 
+			"      }\n" + 
+			"    }\n" + 
+			"    masks.push(mask);\n" + 
+			"  }\n" + 
+			"  return array.length;\n" + 
+			"}\n";
+	
+	private CloudinaryCoordinatesParser() {
+	}
+
+	/**
+	 * Visits all the valid rectangles of the given kind. Entries that aren't arrays of at least 4 values are skipped.
+	 * 
+	 * @param result The native upload result.
+	 * 
+	 * @return The number of visited rectangles, or -1 if the result has no coordinates of the given kind.
+	 */
+	public static int parse(JavaScriptObject result, CloudinaryCoordinatesKind kind, CloudinaryRectVisitor visitor) {
+		JavaScriptObject array = getCoordinatesArray(result, kind);
+		if (array == null) {
+			return -1;
+		}
+		return visit(array, visitor);
+	}
+
+	/**
+	 * @return The native array of rectangles of the given kind, or <code>null</code> if not present.
+	 */
+	public static JavaScriptObject getCoordinatesArray(JavaScriptObject result, CloudinaryCoordinatesKind kind) {
+		for (String key : kind.getKeys()) {
+			JavaScriptObject array = getArray(result, key);
+			if (array != null) {
+				return array;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Packs a native array returned by {@link #getCoordinatesArray(JavaScriptObject, CloudinaryCoordinatesKind)}, keeping all
+	 * its entries. Entries that aren't arrays of at least 4 values are kept as invalid entries, and values that aren't numbers as
+	 * <code>null</code> values.
+	 */
+	public static CloudinaryRectArray toRects(JavaScriptObject array) {
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder(length(array));
+		pack(array, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Converts a native array returned by {@link #getCoordinatesArray(JavaScriptObject, CloudinaryCoordinatesKind)} to
+	 * {@link CloudinaryCoordinates} of the same length. Entries that aren't arrays of at least 4 values become <code>null</code>, 
+	 * as do values that aren't numbers.
+	 */
+	public static CloudinaryCoordinates[] toCoordinates(JavaScriptObject array) {
+		return toRects(array).toCoordinates();
+	}
+	
+	private static void add(CloudinaryRectArray.Builder builder, double x, double y, double width, double height, int mask) {
+		builder.add((int) x, (int) y, (int) width, (int) height, mask);
+	}
+
+	/*
+	 * Any change to the rules here must be made to PACK_RECTS_SOURCE as well.
+	 */
+	private static native void pack(JavaScriptObject array, CloudinaryRectArray.Builder builder)/*-{
+		var toString = Object.prototype.toString;
+		for (var i = 0, n = array.length; i < n; i++) {
+			var r = array[i];
+			if (toString.call(r) !== '[object Array]' || r.length < 4) {
+				builder.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryRectArray.Builder::addInvalid()();
+				continue;
+			}
+			var mask = 0, v = [0, 0, 0, 0];
+			for (var j = 0; j < 4; j++) {
+				if (typeof r[j] === 'number') {
+					v[j] = r[j];
+				}
+				else {
+					mask |= 1 << j;
+				}
+			}
+			@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryCoordinatesParser::add(Lcom/github/gilbertotorrezan/gwtcloudinary/client/CloudinaryRectArray$Builder;DDDDI)(builder, v[0], v[1], v[2], v[3], mask);
+		}
+	}-*/;
+
+	/**
+	 * @return The number of rectangles in the given native array, including the invalid ones.
+	 */
+	static native int length(JavaScriptObject array)/*-{
+		return array.length;
+	}-*/;
+
+	private static native JavaScriptObject getArray(JavaScriptObject result, String key)/*-{
+		var c = result.coordinates;
+		if (c == null) {
+			return null;
+		}
+		var array = c[key];
+		return Object.prototype.toString.call(array) === '[object Array]' ? array : null;
+	}-*/;
+
+	/**
+	 * Visits the valid rectangles of a native array returned by {@link #getCoordinatesArray(JavaScriptObject, CloudinaryCoordinatesKind)}.
+	 */
+	static native int visit(JavaScriptObject array, CloudinaryRectVisitor visitor)/*-{
+		var toString = Object.prototype.toString;
+		var count = 0;
+		for (var i = 0, n = array.length; i < n; i++) {
+			var r = array[i];
+			if (toString.call(r) !== '[object Array]' || r.length < 4) {
+				continue;
+			}
+			visitor.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryRectVisitor::onRect(IIII)(r[0] | 0, r[1] | 0, r[2] | 0, r[3] | 0);
+			count++;
+		}
+		return count;
+	}-*/;
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Buffers uploaded files according to a {@link CloudinaryCoalescingPolicy}, and delivers them to a {@link Sink}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+class CloudinaryEventCoalescer {
+	
+	interface Sink {
+		
+		/**
+		 * Called with the files uploaded since the last delivery. The array may be empty when only the progress changed.
+		 */
+		void deliver(JsArray<CloudinaryUploadResultJso> results);
+	}
+	
+	private final Sink sink;
+	private CloudinaryCoalescingPolicy policy = CloudinaryCoalescingPolicy.immediate();
+	private JsArray<CloudinaryUploadResultJso> pending;
+	private boolean scheduled;
+	private int generation;
+
+	CloudinaryEventCoalescer(Sink sink) {
+		this.sink = sink;
+	}
+
+	void setPolicy(CloudinaryCoalescingPolicy policy) {
+		flush();
+		this.policy = policy == null ? CloudinaryCoalescingPolicy.immediate() : policy;
+	}
+
+	CloudinaryCoalescingPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Adds an uploaded file, or only signals a progress change if the result is <code>null</code>.
+	 */
+	void add(CloudinaryUploadResultJso result) {
+		if (pending == null) {
+			pending = JavaScriptObject.createArray().cast();
+		}
+		if (result != null) {
+			pending.push(result);
+		}
+		if (policy.getTrigger() == CloudinaryCoalescingPolicy.Trigger.IMMEDIATE 
+				|| (policy.getMaxFiles() > 0 && pending.length() >= policy.getMaxFiles())) {
+			flush();
+		}
+		else if (!scheduled) {
+			schedule();
+		}
+	}
+
+	/**
+	 * Delivers the pending files right away, if any.
+	 */
+	void flush() {
+		scheduled = false;
+		generation++;
+		if (pending == null) {
+			return;
+		}
+		JsArray<CloudinaryUploadResultJso> results = pending;
+		pending = null;
+		sink.deliver(results);
+	}
+
+	private void schedule() {
+		scheduled = true;
+		final int scheduledGeneration = generation;
+		switch (policy.getTrigger()) {
+		case FINALLY:
+			Scheduler.get().scheduleFinally(new ScheduledCommand() {
+				@Override
+				public void execute() {
+					flush(scheduledGeneration);
+				}
+			});
+			break;
+		case ANIMATION_FRAME:
+			AnimationScheduler.get().requestAnimationFrame(new AnimationCallback() {
+				@Override
+				public void execute(double timestamp) {
+					flush(scheduledGeneration);
+				}
+			});
+			break;
+		case DELAY:
+			Scheduler.get().scheduleFixedDelay(new RepeatingCommand() {
+				@Override
+				public boolean execute() {
+					flush(scheduledGeneration);
+					return false;
+				}
+			}, policy.getDelayMillis());
+			break;
+		default:
+			flush();
+			break;
+		}
+	}
+
+	/**
+	 * Flushes only if nothing was flushed since the given generation was scheduled.
+	 */
+	private void flush(int scheduledGeneration) {
+		if (scheduledGeneration == generation) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Overlay type for a native <code>Blob</code> or <code>File</code>, such as the files of an <code>&lt;input type="file"&gt;</code>
+ * or of a drop event.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryFile extends JavaScriptObject {
+
+	protected CloudinaryFile() {
+	}
+	
+	/**
+	 * @return Whether the given object is a native <code>Blob</code> (files are blobs too).
+	 */
+	public static native boolean is(JavaScriptObject object) /*-{
+		return !!object && typeof $wnd.Blob !== 'undefined' && object instanceof $wnd.Blob;
+	}-*/;
+
+	/**
+	 * Creates a new file with the given contents, name and type.
+	 */
+	public static native CloudinaryFile create(JavaScriptObject blob, String name, String type) /*-{
+		try {
+			return new $wnd.File([blob], name, {type: type, lastModified: new Date().getTime()});
+		}
+		catch (e) {
+			// no File constructor: a Blob with a name works the same for uploads
+			var file = new $wnd.Blob([blob], {type: type});
+			file.name = name;
+			return file;
+		}
+	}-*/;
+	
+	/**
+	 * @return The file name, or <code>null</code> for blobs without name.
+	 */
+	public final native String getName() /*-{
+		return typeof this.name === 'string' ? this.name : null;
+	}-*/;
+
+	/**
+	 * @return The size in bytes.
+	 */
+	public final native double getSize() /*-{
+		return this.size;
+	}-*/;
+	
+	/**
+	 * @return The MIME type, such as "image/jpeg", or an empty string if unknown.
+	 */
+	public final native String getType() /*-{
+		return this.type || '';
+	}-*/;
+	
+	/**
+	 * @return The last modification time in milliseconds, or 0 if unknown.
+	 */
+	public final native double getLastModified() /*-{
+		return this.lastModified || 0;
+	}-*/;
+
+	/**
+	 * @return A new blob with the bytes from start (inclusive) to end (exclusive).
+	 */
+	public final native CloudinaryFile slice(double start, double end) /*-{
+		return this.slice(start, end);
+	}-*/;
+}
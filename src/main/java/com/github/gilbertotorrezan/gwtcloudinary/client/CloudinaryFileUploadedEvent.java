@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.List;
+
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Event triggered by the Upload Widget as soon as files finish uploading, before the whole queue is done. Usually each event 
+ * carries a single file.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadFinishedEvent
+ */
+public class CloudinaryFileUploadedEvent extends GwtEvent<CloudinaryFileUploadedHandler> {
+
+	private static Type<CloudinaryFileUploadedHandler> TYPE;
+
+	public static void fireFileUploaded(HasCloudinaryFileUploadedHandlers source, JsArray<CloudinaryUploadResultJso> results) {
+		if (TYPE != null) {
+			CloudinaryFileUploadedEvent event = new CloudinaryFileUploadedEvent(results);
+			source.fireEvent(event);
+		}
+	}
+	
+	public static Type<CloudinaryFileUploadedHandler> getType() {
+		if (TYPE == null) {
+			TYPE = new Type<CloudinaryFileUploadedHandler>();
+		}
+		return TYPE;
+	}
+
+	private final JsArray<CloudinaryUploadResultJso> uploadResults;
+	private List<CloudinaryUploadInfo> uploadInfos;
+
+	protected CloudinaryFileUploadedEvent(JsArray<CloudinaryUploadResultJso> results) {
+		this.uploadResults = results;
+	}
+	
+	/**
+	 * @return The native results of the uploaded files, never <code>null</code>.
+	 */
+	public JsArray<CloudinaryUploadResultJso> getUploadResults() {
+		return uploadResults;
+	}
+	
+	/**
+	 * @return The number of uploaded files carried by this event.
+	 */
+	public int getUploadCount() {
+		return uploadResults.length();
+	}
+
+	/**
+	 * @return The results converted to {@link CloudinaryUploadInfo} objects. Each entry is converted only when first accessed.
+	 */
+	public List<CloudinaryUploadInfo> getUploadInfos() {
+		if (uploadInfos == null) {
+			uploadInfos = new CloudinaryUploadInfoList(uploadResults);
+		}
+		return uploadInfos;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public final Type<CloudinaryFileUploadedHandler> getAssociatedType() {
+		return (Type) TYPE;
+	}
+
+	@Override
+	protected void dispatch(CloudinaryFileUploadedHandler handler) {
+		handler.onFileUploaded(this);
+	}
+
+}
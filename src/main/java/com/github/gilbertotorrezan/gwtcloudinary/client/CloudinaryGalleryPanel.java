@@ -0,0 +1,610 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryTransformation;
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryUrlBuilder;
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
+import com.google.gwt.dom.client.ImageElement;
+import com.google.gwt.dom.client.Style;
+import com.google.gwt.dom.client.Style.Display;
+import com.google.gwt.dom.client.Style.Overflow;
+import com.google.gwt.dom.client.Style.Position;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.logical.shared.HasSelectionHandlers;
+import com.google.gwt.event.logical.shared.ResizeEvent;
+import com.google.gwt.event.logical.shared.ResizeHandler;
+import com.google.gwt.event.logical.shared.SelectionEvent;
+import com.google.gwt.event.logical.shared.SelectionHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.DOM;
+import com.google.gwt.user.client.Event;
+import com.google.gwt.user.client.Window;
+import com.google.gwt.user.client.ui.RequiresResize;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Scrollable grid of uploaded images that stays fast with thousands of entries:
+ * <ul>
+ * <li>Only the rows inside the viewport (plus a few rows of overscan) have DOM nodes. The scroll height is kept by a spacer
+ * element.</li>
+ * <li>The tiles of the rows that leave the viewport are recycled for the rows that enter it, so the DOM size stays constant.</li>
+ * <li>The thumbnails are loaded only when their tiles are about to become visible, via <code>IntersectionObserver</code>. 
+ * Browsers without it load the thumbnails of the rendered tiles directly.</li>
+ * <li>The upload infos are read only for the rendered tiles, so the lazy list of {@link CloudinaryUploadFinishedEvent#getUploadInfos()}
+ * decodes only the entries that are shown.</li>
+ * </ul>
+ * The panel must have a fixed height, set by CSS or by {@link #setHeight(String)}. When a {@link CloudinaryUrlBuilder} is set,
+ * the thumbnails are built with a <code>c_fill</code> transformation of the tile size, otherwise the <code>thumbnailUrl</code>
+ * of the uploads is used. With {@link #setProgressive(boolean)}, a tiny blurred placeholder is shown while each thumbnail loads.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryGalleryPanel gallery = new CloudinaryGalleryPanel();
+ * gallery.setUrlBuilder(new CloudinaryUrlBuilder("demo")).setTileSize(160, 120);
+ * widget.addCloudinaryUploadFinishedHandler(gallery);
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryGalleryPanel extends Widget implements RequiresResize, CloudinaryUploadFinishedHandler, 
+HasSelectionHandlers<CloudinaryUploadInfo> {
+	
+	public static final String STYLE_NAME = "cloudinary-gallery";
+	public static final String TILE_STYLE_NAME = "cloudinary-gallery-tile";
+	
+	private static final String INDEX_ATTRIBUTE = "data-index";
+	private static final String SRC_ATTRIBUTE = "data-src";
+	private static final String PLACEHOLDER_ATTRIBUTE = "data-placeholder";
+	
+	private final Element spacer;
+	
+	private final List<List<CloudinaryUploadInfo>> chunks = new ArrayList<>();
+	/** The index of the first upload of each chunk, so an upload is found by a binary search instead of a walk over the chunks. */
+	private final List<Integer> chunkOffsets = new ArrayList<>();
+	private int size;
+	
+	private final Map<Integer, Element> boundTiles = new HashMap<>();
+	private final List<Element> freeTiles = new ArrayList<>();
+	private int renderedColumns;
+	
+	private int tileWidth = 150;
+	private int tileHeight = 150;
+	private int gap = 4;
+	private int overscanRows = 2;
+	
+	private CloudinaryUrlBuilder urlBuilder;
+	private CloudinaryTransformation tileTransformation;
+	private boolean progressive;
+	private CloudinaryTransformation placeholderTransformation;
+	
+	private JavaScriptObject observer;
+	private HandlerRegistration resizeRegistration;
+	private boolean renderScheduled;
+	
+	private final AnimationCallback renderCallback = new AnimationCallback() {
+		@Override
+		public void execute(double timestamp) {
+			renderScheduled = false;
+			render();
+		}
+	};
+
+	public CloudinaryGalleryPanel() {
+		Element element = Document.get().createDivElement();
+		element.getStyle().setOverflowY(Overflow.AUTO);
+		element.getStyle().setOverflowX(Overflow.HIDDEN);
+		element.getStyle().setPosition(Position.RELATIVE);
+		
+		spacer = Document.get().createDivElement();
+		spacer.getStyle().setPosition(Position.RELATIVE);
+		element.appendChild(spacer);
+		
+		setElement(element);
+		setStyleName(STYLE_NAME);
+		sinkEvents(Event.ONSCROLL | Event.ONCLICK);
+	}
+	
+	/**
+	 * Creates a panel showing the given uploads. The list is not copied.
+	 */
+	public CloudinaryGalleryPanel(List<CloudinaryUploadInfo> uploadInfos) {
+		this();
+		addUploadInfos(uploadInfos);
+	}
+	
+	/**
+	 * Creates a panel showing the uploads of the given event.
+	 */
+	public CloudinaryGalleryPanel(CloudinaryUploadFinishedEvent event) {
+		this();
+		addUploadInfos(event);
+	}
+
+	/**
+	 * Replaces the uploads shown by the panel. The list is not copied, and must not be changed while it is shown.
+	 */
+	public void setUploadInfos(List<CloudinaryUploadInfo> uploadInfos) {
+		chunks.clear();
+		chunkOffsets.clear();
+		size = 0;
+		releaseAll();
+		addUploadInfos(uploadInfos);
+	}
+	
+	/**
+	 * Adds uploads at the end of the panel. The list is not copied, and must not be changed while it is shown.
+	 */
+	public void addUploadInfos(List<CloudinaryUploadInfo> uploadInfos) {
+		if (uploadInfos != null && !uploadInfos.isEmpty()) {
+			chunks.add(uploadInfos);
+			chunkOffsets.add(size);
+			size += uploadInfos.size();
+		}
+		scheduleRender();
+	}
+	
+	/**
+	 * Adds the uploads of the given event at the end of the panel. The entries are decoded only when their tiles are rendered.
+	 */
+	public void addUploadInfos(CloudinaryUploadFinishedEvent event) {
+		if (event.getUploadCount() > 0) {
+			addUploadInfos(event.getUploadInfos());
+		}
+	}
+
+	/**
+	 * Adds the uploads of the event at the end of the panel, so the panel can be added directly as a handler of the 
+	 * {@link CloudinaryUploadWidget} or the {@link CloudinaryUploadButton}.
+	 */
+	@Override
+	public void onUploadFinished(CloudinaryUploadFinishedEvent event) {
+		addUploadInfos(event);
+	}
+	
+	/**
+	 * Removes all the uploads.
+	 */
+	public void clear() {
+		setUploadInfos(null);
+	}
+	
+	public int getUploadCount() {
+		return size;
+	}
+	
+	public CloudinaryUploadInfo getUploadInfo(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		// finds the last chunk starting at or before the index
+		int low = 0;
+		int high = chunkOffsets.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (chunkOffsets.get(middle) <= index) {
+				low = middle;
+			}
+			else {
+				high = middle - 1;
+			}
+		}
+		List<CloudinaryUploadInfo> chunk = chunks.get(low);
+		int offset = index - chunkOffsets.get(low);
+		if (offset >= chunk.size()) {
+			throw new IllegalStateException("The lists of uploads were changed while shown.");
+		}
+		return chunk.get(offset);
+	}
+	
+	/**
+	 * Sets the size of the tiles, in pixels. Default: 150x150
+	 */
+	public CloudinaryGalleryPanel setTileSize(int tileWidth, int tileHeight) {
+		if (tileWidth <= 0 || tileHeight <= 0) {
+			throw new IllegalArgumentException("The tile size must be positive.");
+		}
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.tileTransformation = null;
+		// releases the bound tiles first, so they are resized with the others before being reused
+		releaseAll();
+		for (Element tile : freeTiles) {
+			setTileSize(tile);
+		}
+		scheduleRender();
+		return this;
+	}
+	
+	public int getTileWidth() {
+		return tileWidth;
+	}
+	
+	public int getTileHeight() {
+		return tileHeight;
+	}
+	
+	/**
+	 * Sets the space between the tiles, in pixels. Default: 4
+	 */
+	public CloudinaryGalleryPanel setGap(int gap) {
+		this.gap = Math.max(0, gap);
+		renderedColumns = 0;
+		scheduleRender();
+		return this;
+	}
+	
+	public int getGap() {
+		return gap;
+	}
+	
+	/**
+	 * Sets the number of rows rendered above and below the viewport, so fast scrolling doesn't show empty areas. Default: 2
+	 */
+	public CloudinaryGalleryPanel setOverscanRows(int overscanRows) {
+		this.overscanRows = Math.max(0, overscanRows);
+		scheduleRender();
+		return this;
+	}
+	
+	public int getOverscanRows() {
+		return overscanRows;
+	}
+	
+	/**
+	 * Sets the builder of the thumbnail URLs. When <code>null</code> (the default), the <code>thumbnailUrl</code> of the 
+	 * uploads is used.
+	 */
+	public CloudinaryGalleryPanel setUrlBuilder(CloudinaryUrlBuilder urlBuilder) {
+		this.urlBuilder = urlBuilder;
+		releaseAll();
+		scheduleRender();
+		return this;
+	}
+	
+	public CloudinaryUrlBuilder getUrlBuilder() {
+		return urlBuilder;
+	}
+	
+	/**
+	 * Sets whether the thumbnails are loaded progressively: a tiny blurred placeholder is shown first, and replaced by the 
+	 * thumbnail once it is decoded. Needs a {@link #setUrlBuilder(CloudinaryUrlBuilder) URL builder}. Default: false
+	 * 
+	 * @see CloudinaryProgressiveLoader
+	 */
+	public CloudinaryGalleryPanel setProgressive(boolean progressive) {
+		this.progressive = progressive;
+		releaseAll();
+		scheduleRender();
+		return this;
+	}
+	
+	public boolean isProgressive() {
+		return progressive;
+	}
+
+	/**
+	 * @return The URL of the placeholder of the given upload, or <code>null</code> if the thumbnail is loaded directly.
+	 */
+	protected String getPlaceholderUrl(CloudinaryUploadInfo info) {
+		if (!progressive || urlBuilder == null || info.getPublicId() == null) {
+			return null;
+		}
+		if (placeholderTransformation == null) {
+			placeholderTransformation = CloudinaryProgressiveLoader.createPlaceholderTransformation();
+		}
+		return urlBuilder.build(info, placeholderTransformation);
+	}
+
+	/**
+	 * @return The URL of the thumbnail of the given upload.
+	 */
+	protected String getThumbnailUrl(CloudinaryUploadInfo info) {
+		if (urlBuilder != null && info.getPublicId() != null) {
+			if (tileTransformation == null) {
+				tileTransformation = new CloudinaryTransformation().setWidth(tileWidth).setHeight(tileHeight).setCrop("fill")
+						.setAutoFormat(true).setAutoQuality(true);
+				double dpr = getDevicePixelRatio();
+				if (dpr > 1) {
+					tileTransformation.setDpr(dpr);
+				}
+			}
+			return urlBuilder.build(info, tileTransformation);
+		}
+		return info.getThumbnailUrl() != null ? info.getThumbnailUrl() : info.getSecureUrl();
+	}
+	
+	private static native double getDevicePixelRatio() /*-{
+		return $wnd.devicePixelRatio || 1;
+	}-*/;
+
+	@Override
+	public HandlerRegistration addSelectionHandler(SelectionHandler<CloudinaryUploadInfo> handler) {
+		return addHandler(handler, SelectionEvent.getType());
+	}
+	
+	@Override
+	public void onResize() {
+		scheduleRender();
+	}
+	
+	@Override
+	protected void onLoad() {
+		super.onLoad();
+		observer = createObserver(getElement());
+		resizeRegistration = Window.addResizeHandler(new ResizeHandler() {
+			@Override
+			public void onResize(ResizeEvent event) {
+				scheduleRender();
+			}
+		});
+		scheduleRender();
+	}
+	
+	@Override
+	protected void onUnload() {
+		if (resizeRegistration != null) {
+			resizeRegistration.removeHandler();
+			resizeRegistration = null;
+		}
+		releaseAll();
+		if (observer != null) {
+			disconnect(observer);
+			observer = null;
+		}
+		super.onUnload();
+	}
+	
+	@Override
+	public void onBrowserEvent(Event event) {
+		switch (DOM.eventGetType(event)) {
+		case Event.ONSCROLL:
+			scheduleRender();
+			break;
+		case Event.ONCLICK:
+			Element tile = findTile(event.getEventTarget());
+			if (tile != null) {
+				SelectionEvent.fire(this, getUploadInfo(Integer.parseInt(tile.getAttribute(INDEX_ATTRIBUTE))));
+			}
+			break;
+		}
+		super.onBrowserEvent(event);
+	}
+	
+	private Element findTile(EventTarget target) {
+		if (!Element.is(target)) {
+			return null;
+		}
+		Element element = Element.as(target);
+		while (element != null && element != getElement()) {
+			if (element.getParentElement() == spacer) {
+				return element.hasAttribute(INDEX_ATTRIBUTE) ? element : null;
+			}
+			element = element.getParentElement();
+		}
+		return null;
+	}
+	
+	/**
+	 * Renders the visible rows on the next animation frame. Multiple calls in the same frame render only once.
+	 */
+	protected void scheduleRender() {
+		if (!renderScheduled && isAttached()) {
+			renderScheduled = true;
+			AnimationScheduler.get().requestAnimationFrame(renderCallback, getElement());
+		}
+	}
+	
+	private void render() {
+		if (!isAttached()) {
+			return;
+		}
+		Element element = getElement();
+		int columns = Math.max(1, (element.getClientWidth() + gap) / (tileWidth + gap));
+		int rowHeight = tileHeight + gap;
+		int rows = (size + columns - 1) / columns;
+		spacer.getStyle().setHeight(Math.max(0, rows * rowHeight - gap), Unit.PX);
+		
+		int scrollTop = element.getScrollTop();
+		int firstRow = Math.max(0, scrollTop / rowHeight - overscanRows);
+		int lastRow = Math.min(rows - 1, (scrollTop + element.getClientHeight()) / rowHeight + overscanRows);
+		int first = firstRow * columns;
+		int last = Math.min(size - 1, (lastRow + 1) * columns - 1);
+		
+		boolean reposition = columns != renderedColumns;
+		renderedColumns = columns;
+		
+		Iterator<Map.Entry<Integer, Element>> it = boundTiles.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer, Element> entry = it.next();
+			int index = entry.getKey();
+			if (index < first || index > last) {
+				release(entry.getValue());
+				it.remove();
+			}
+			else if (reposition) {
+				position(entry.getValue(), index, columns);
+			}
+		}
+		
+		for (int i = first; i <= last; i++) {
+			if (!boundTiles.containsKey(i)) {
+				Element tile = acquire();
+				bind(tile, i);
+				position(tile, i, columns);
+				boundTiles.put(i, tile);
+			}
+		}
+	}
+	
+	private void position(Element tile, int index, int columns) {
+		int x = (index % columns) * (tileWidth + gap);
+		int y = (index / columns) * (tileHeight + gap);
+		tile.getStyle().setProperty("transform", "translate(" + x + "px," + y + "px)");
+	}
+	
+	private Element acquire() {
+		if (!freeTiles.isEmpty()) {
+			return freeTiles.remove(freeTiles.size() - 1);
+		}
+		Element tile = Document.get().createDivElement();
+		tile.setClassName(TILE_STYLE_NAME);
+		Style style = tile.getStyle();
+		style.setPosition(Position.ABSOLUTE);
+		style.setLeft(0, Unit.PX);
+		style.setTop(0, Unit.PX);
+		style.setOverflow(Overflow.HIDDEN);
+		setTileSize(tile);
+		
+		ImageElement img = Document.get().createImageElement();
+		img.getStyle().setDisplay(Display.BLOCK);
+		img.getStyle().setWidth(100, Unit.PCT);
+		img.getStyle().setHeight(100, Unit.PCT);
+		img.getStyle().setProperty("objectFit", "cover");
+		tile.appendChild(img);
+		
+		spacer.appendChild(tile);
+		return tile;
+	}
+	
+	private void setTileSize(Element tile) {
+		tile.getStyle().setWidth(tileWidth, Unit.PX);
+		tile.getStyle().setHeight(tileHeight, Unit.PX);
+	}
+
+	/**
+	 * Shows the upload at the given index in the tile. The thumbnail is loaded when the tile becomes visible.
+	 */
+	protected void bind(Element tile, int index) {
+		CloudinaryUploadInfo info = getUploadInfo(index);
+		ImageElement img = tile.getFirstChildElement().cast();
+		String filename = info.getOriginalFilename();
+		img.setAlt(filename == null ? "" : filename);
+		tile.setAttribute(INDEX_ATTRIBUTE, String.valueOf(index));
+		tile.getStyle().clearDisplay();
+		
+		String url = getThumbnailUrl(info);
+		if (url == null) {
+			return;
+		}
+		String placeholderUrl = getPlaceholderUrl(info);
+		if (observer != null) {
+			tile.setAttribute(SRC_ATTRIBUTE, url);
+			if (placeholderUrl != null) {
+				tile.setAttribute(PLACEHOLDER_ATTRIBUTE, placeholderUrl);
+			}
+			observe(observer, tile);
+		}
+		else {
+			CloudinaryProgressiveLoader.load(img, url, placeholderUrl);
+		}
+	}
+
+	/**
+	 * Clears the tile and puts it back in the pool. The tile stays in the DOM, hidden, until it is used again.
+	 */
+	protected void release(Element tile) {
+		if (observer != null) {
+			unobserve(observer, tile);
+		}
+		ImageElement img = tile.getFirstChildElement().cast();
+		CloudinaryProgressiveLoader.cancel(img);
+		img.removeAttribute("src");
+		tile.removeAttribute(SRC_ATTRIBUTE);
+		tile.removeAttribute(PLACEHOLDER_ATTRIBUTE);
+		tile.removeAttribute(INDEX_ATTRIBUTE);
+		tile.getStyle().setDisplay(Display.NONE);
+		freeTiles.add(tile);
+	}
+	
+	private void releaseAll() {
+		for (Element tile : boundTiles.values()) {
+			release(tile);
+		}
+		boundTiles.clear();
+		renderedColumns = 0;
+	}
+	
+	/**
+	 * Called by the observer when the tile is about to become visible.
+	 */
+	private void onTileVisible(Element tile) {
+		if (observer == null) {
+			return;
+		}
+		unobserve(observer, tile);
+		String url = tile.getAttribute(SRC_ATTRIBUTE);
+		if (!url.isEmpty()) {
+			String placeholderUrl = tile.getAttribute(PLACEHOLDER_ATTRIBUTE);
+			tile.removeAttribute(SRC_ATTRIBUTE);
+			tile.removeAttribute(PLACEHOLDER_ATTRIBUTE);
+			CloudinaryProgressiveLoader.load(tile.getFirstChildElement().<ImageElement>cast(), url, 
+					placeholderUrl.isEmpty() ? null : placeholderUrl);
+		}
+	}
+	
+	/**
+	 * @return A new observer with the panel as root, or <code>null</code> if the browser doesn't support it.
+	 */
+	private native JavaScriptObject createObserver(Element root) /*-{
+		if (!$wnd.IntersectionObserver) {
+			return null;
+		}
+		var self = this;
+		return new $wnd.IntersectionObserver($entry(function(entries) {
+			for (var i = 0; i < entries.length; i++) {
+				var entry = entries[i];
+				if (entry.isIntersecting || entry.intersectionRatio > 0) {
+					self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryGalleryPanel::onTileVisible(Lcom/google/gwt/dom/client/Element;)(entry.target);
+				}
+			}
+		}), {root: root, rootMargin: '50% 0px'});
+	}-*/;
+	
+	private static native void observe(JavaScriptObject observer, Element element) /*-{
+		observer.observe(element);
+	}-*/;
+	
+	private static native void unobserve(JavaScriptObject observer, Element element) /*-{
+		observer.unobserve(element);
+	}-*/;
+	
+	private static native void disconnect(JavaScriptObject observer) /*-{
+		observer.disconnect();
+	}-*/;
+}
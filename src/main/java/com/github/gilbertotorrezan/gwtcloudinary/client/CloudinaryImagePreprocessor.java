@@ -0,0 +1,358 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Downscales and re-encodes images on the client before they are uploaded, so oversized camera photos don't go over the wire
+ * in full. Images larger than the max dimensions are decoded, resized and encoded again (as JPEG or WebP) in a Web Worker with
+ * an <code>OffscreenCanvas</code>, off the main thread. Browsers without <code>OffscreenCanvas</code> do the same on the main 
+ * thread, and browsers without <code>createImageBitmap</code> upload the files unchanged.
+ * <p>
+ * Files that are not images, animated formats (GIF), vector images (SVG), images within the max dimensions and images that 
+ * would not get smaller are passed through unchanged.
+ * <p>
+ * The hosted Upload Widget picks and sends its own files, so the preprocessor can't run inside it. It is used by the direct
+ * uploads of the {@link CloudinaryUploader#setPreprocessor(CloudinaryImagePreprocessor)}, and can be used by any code that
+ * has the files at hand.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryImagePreprocessor preprocessor = new CloudinaryImagePreprocessor().setMaxWidth(2048).setMaxHeight(2048)
+ *     .setMimeType(CloudinaryImagePreprocessor.WEBP).setQuality(0.8);
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryImagePreprocessor {
+	
+	public static final String JPEG = "image/jpeg";
+	public static final String WEBP = "image/webp";
+	
+	private static final String WORKER_SOURCE = 
+			"self.onmessage = function(e) {\n" + 
+			"  var d = e.data;\n" + 
+			"  createImageBitmap(d.file, {imageOrientation: 'from-image'}).then(function(bitmap) {\n" + 
+			"    var scale = Math.min(1, d.maxWidth > 0 ? d.maxWidth / bitmap.width : 1, d.maxHeight > 0 ? d.maxHeight / bitmap.height : 1);\n" + 
+			"    if (scale >= 1) {\n" + 
+			"      bitmap.close();\n" + 
+			"      self.postMessage({id: d.id});\n" + 
+			"      return;\n" + 
+			"    }\n" + 
+			"    var width = Math.max(1, Math.round(bitmap.width * scale));\n" + 
+			"    var height = Math.max(1, Math.round(bitmap.height * scale));\n" + 
+			"    var canvas = new OffscreenCanvas(width, height);\n" + 
+			"    var context = canvas.getContext('2d');\n" + 
+			"    context.imageSmoothingQuality = 'high';\n" + 
+			"    context.drawImage(bitmap, 0, 0, width, height);\n" + 
+			"    bitmap.close();\n" + 
+			"    return canvas.convertToBlob({type: d.type, quality: d.quality}).then(function(blob) {\n" + 
+			"      self.postMessage({id: d.id, blob: blob});\n" + 
+			"    });\n" + 
+			"  })['catch'](function(error) {\n" + 
+			"    self.postMessage({id: d.id, error: String(error && error.message || error)});\n" + 
+			"  });\n" + 
+			"};\n";
+	
+	private int maxWidth;
+	private int maxHeight;
+	private String mimeType = JPEG;
+	private double quality = 0.85;
+	private double minFileSize;
+	
+	private JavaScriptObject worker;
+	private boolean workerUnavailable;
+	private int nextId;
+	private final Map<Integer, Request> pending = new HashMap<>();
+	
+	private static class Request {
+		final CloudinaryFile file;
+		final Callback<CloudinaryFile, Exception> callback;
+		
+		Request(CloudinaryFile file, Callback<CloudinaryFile, Exception> callback) {
+			this.file = file;
+			this.callback = callback;
+		}
+	}
+
+	/**
+	 * @return A new preprocessor with the <code>max_image_width</code> and <code>max_image_height</code> of the config as 
+	 * max dimensions.
+	 */
+	public static CloudinaryImagePreprocessor fromConfig(CloudinaryWidgetConfig config) {
+		CloudinaryImagePreprocessor preprocessor = new CloudinaryImagePreprocessor();
+		Double maxWidth = config.getNumber("max_image_width");
+		Double maxHeight = config.getNumber("max_image_height");
+		if (maxWidth != null) {
+			preprocessor.setMaxWidth(maxWidth.intValue());
+		}
+		if (maxHeight != null) {
+			preprocessor.setMaxHeight(maxHeight.intValue());
+		}
+		return preprocessor;
+	}
+	
+	/**
+	 * @param maxWidth The max width of the images, in pixels. 0 for no limit. Default: 0
+	 */
+	public CloudinaryImagePreprocessor setMaxWidth(int maxWidth) {
+		this.maxWidth = Math.max(0, maxWidth);
+		return this;
+	}
+	
+	public int getMaxWidth() {
+		return maxWidth;
+	}
+	
+	/**
+	 * @param maxHeight The max height of the images, in pixels. 0 for no limit. Default: 0
+	 */
+	public CloudinaryImagePreprocessor setMaxHeight(int maxHeight) {
+		this.maxHeight = Math.max(0, maxHeight);
+		return this;
+	}
+	
+	public int getMaxHeight() {
+		return maxHeight;
+	}
+	
+	/**
+	 * @param mimeType The format of the re-encoded images, {@link #JPEG} or {@link #WEBP}. Browsers that can't encode WebP 
+	 * encode PNG instead, which is discarded if it is not smaller than the original. Default: {@link #JPEG}
+	 */
+	public CloudinaryImagePreprocessor setMimeType(String mimeType) {
+		this.mimeType = mimeType == null ? JPEG : mimeType;
+		return this;
+	}
+	
+	public String getMimeType() {
+		return mimeType;
+	}
+	
+	/**
+	 * @param quality The quality of the re-encoded images, from 0 to 1. Default: 0.85
+	 */
+	public CloudinaryImagePreprocessor setQuality(double quality) {
+		this.quality = Math.max(0, Math.min(1, quality));
+		return this;
+	}
+	
+	public double getQuality() {
+		return quality;
+	}
+	
+	/**
+	 * @param minFileSize The size in bytes below which files are passed through without being decoded. Default: 0
+	 */
+	public CloudinaryImagePreprocessor setMinFileSize(double minFileSize) {
+		this.minFileSize = minFileSize;
+		return this;
+	}
+	
+	public double getMinFileSize() {
+		return minFileSize;
+	}
+
+	/**
+	 * @return Whether the file is decoded at all. Files that are not processed are passed through unchanged.
+	 */
+	protected boolean isProcessable(CloudinaryFile file) {
+		if (maxWidth <= 0 && maxHeight <= 0) {
+			return false;
+		}
+		if (file.getSize() < minFileSize) {
+			return false;
+		}
+		String type = file.getType();
+		return type.startsWith("image/") && !type.equals("image/gif") && !type.startsWith("image/svg");
+	}
+
+	/**
+	 * Processes the file. The callback gets the resized file, or the original file if it didn't need to change. Files that
+	 * can't be decoded by the browser, such as HEIC on most browsers, are reported with {@link Callback#onFailure(Object)}, 
+	 * and the caller may upload the original file instead.
+	 */
+	public void process(CloudinaryFile file, Callback<CloudinaryFile, Exception> callback) {
+		if (!isProcessable(file) || !isSupported()) {
+			callback.onSuccess(file);
+			return;
+		}
+		int id = nextId++;
+		pending.put(id, new Request(file, callback));
+		if (worker == null && !workerUnavailable) {
+			worker = createWorker();
+			workerUnavailable = worker == null;
+		}
+		if (worker != null) {
+			postToWorker(worker, id, file, maxWidth, maxHeight, mimeType, quality);
+		}
+		else {
+			processOnMainThread(id, file, maxWidth, maxHeight, mimeType, quality);
+		}
+	}
+
+	/**
+	 * Stops the worker. Pending files are passed through unchanged. The preprocessor can still be used, and starts a new 
+	 * worker when needed.
+	 */
+	public void dispose() {
+		if (worker != null) {
+			CloudinaryWorkers.terminate(worker);
+			worker = null;
+		}
+		for (Request request : pending.values()) {
+			request.callback.onSuccess(request.file);
+		}
+		pending.clear();
+	}
+	
+	private JavaScriptObject createWorker() {
+		if (!isOffscreenCanvasSupported()) {
+			return null;
+		}
+		JavaScriptObject worker = CloudinaryWorkers.create(WORKER_SOURCE);
+		if (worker != null) {
+			listen(worker);
+		}
+		return worker;
+	}
+
+	/**
+	 * Called when the worker can't run, such as when the page's Content Security Policy blocks <code>blob:</code> workers. 
+	 * The pending files are processed again on the main thread.
+	 */
+	private void onWorkerError() {
+		if (worker != null) {
+			CloudinaryWorkers.terminate(worker);
+			worker = null;
+		}
+		workerUnavailable = true;
+		for (Map.Entry<Integer, Request> entry : pending.entrySet()) {
+			processOnMainThread(entry.getKey(), entry.getValue().file, maxWidth, maxHeight, mimeType, quality);
+		}
+	}
+	
+	private void onResult(int id, JavaScriptObject blob, String error) {
+		Request request = pending.remove(id);
+		if (request == null) {
+			return;
+		}
+		if (error != null) {
+			request.callback.onFailure(new Exception("Could not process " + request.file.getName() + ": " + error));
+			return;
+		}
+		CloudinaryFile resized = blob == null ? null : blob.<CloudinaryFile>cast();
+		if (resized == null || resized.getSize() >= request.file.getSize()) {
+			request.callback.onSuccess(request.file);
+			return;
+		}
+		request.callback.onSuccess(CloudinaryFile.create(resized, getFileName(request.file, resized.getType()), resized.getType()));
+	}
+	
+	/**
+	 * @return The name of the file with the extension of the new type.
+	 */
+	private static String getFileName(CloudinaryFile file, String type) {
+		String name = file.getName();
+		if (name == null) {
+			name = "image";
+		}
+		int dot = name.lastIndexOf('.');
+		String base = dot > 0 ? name.substring(0, dot) : name;
+		switch (type) {
+		case JPEG:
+			return base + ".jpg";
+		case WEBP:
+			return base + ".webp";
+		case "image/png":
+			return base + ".png";
+		default:
+			return name;
+		}
+	}
+	
+	private static native boolean isSupported() /*-{
+		return typeof $wnd.createImageBitmap === 'function';
+	}-*/;
+	
+	private static native boolean isOffscreenCanvasSupported() /*-{
+		return typeof $wnd.OffscreenCanvas !== 'undefined' && !!$wnd.OffscreenCanvas.prototype.convertToBlob;
+	}-*/;
+	
+	private native void listen(JavaScriptObject worker) /*-{
+		var self = this;
+		worker.onmessage = $entry(function(e) {
+			var d = e.data;
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryImagePreprocessor::onResult(ILcom/google/gwt/core/client/JavaScriptObject;Ljava/lang/String;)(d.id, d.blob || null, d.error || null);
+		});
+		worker.onerror = $entry(function(e) {
+			e.preventDefault();
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryImagePreprocessor::onWorkerError()();
+		});
+	}-*/;
+	
+	private static native void postToWorker(JavaScriptObject worker, int id, CloudinaryFile file, int maxWidth, int maxHeight, 
+			String type, double quality) /*-{
+		worker.postMessage({id: id, file: file, maxWidth: maxWidth, maxHeight: maxHeight, type: type, quality: quality});
+	}-*/;
+	
+	private native void processOnMainThread(int id, CloudinaryFile file, int maxWidth, int maxHeight, String type, double quality) /*-{
+		var self = this;
+		var done = $entry(function(blob, error) {
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryImagePreprocessor::onResult(ILcom/google/gwt/core/client/JavaScriptObject;Ljava/lang/String;)(id, blob, error);
+		});
+		$wnd.createImageBitmap(file, {imageOrientation: 'from-image'}).then(function(bitmap) {
+			var scale = Math.min(1, maxWidth > 0 ? maxWidth / bitmap.width : 1, maxHeight > 0 ? maxHeight / bitmap.height : 1);
+			if (scale >= 1) {
+				if (bitmap.close) {
+					bitmap.close();
+				}
+				done(null, null);
+				return;
+			}
+			var canvas = $doc.createElement('canvas');
+			canvas.width = Math.max(1, Math.round(bitmap.width * scale));
+			canvas.height = Math.max(1, Math.round(bitmap.height * scale));
+			var context = canvas.getContext('2d');
+			context.imageSmoothingQuality = 'high';
+			context.drawImage(bitmap, 0, 0, canvas.width, canvas.height);
+			if (bitmap.close) {
+				bitmap.close();
+			}
+			canvas.toBlob(function(blob) {
+				done(blob, blob ? null : 'encoding failed');
+			}, type, quality);
+		})['catch'](function(error) {
+			done(null, String(error && error.message || error));
+		});
+	}-*/;
+}
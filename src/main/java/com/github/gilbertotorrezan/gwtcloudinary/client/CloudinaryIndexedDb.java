@@ -0,0 +1,174 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Minimal access to the IndexedDB database of the library. All the object stores use the <code>key</code> property of the 
+ * values as key. The database is opened on first use and kept open.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+final class CloudinaryIndexedDb {
+	
+	static final String DATABASE_NAME = "gwt-cloudinary";
+	
+	/**
+	 * Must be incremented whenever a store is added, so the missing stores are created on upgrade.
+	 */
+	static final int VERSION = 3;
+	
+	static final String UPLOADS = "uploads";
+	static final String UPLOAD_BLOBS = "upload-blobs";
+	static final String UPLOAD_HASHES = "upload-hashes";
+	static final String UPLOAD_QUEUE = "upload-queue";
+	
+	private static final String[] STORES = {UPLOADS, UPLOAD_BLOBS, UPLOAD_HASHES, UPLOAD_QUEUE};
+	
+	/**
+	 * The Promise of the open database.
+	 */
+	private static JavaScriptObject database;
+	
+	private CloudinaryIndexedDb() {
+	}
+	
+	static native boolean isSupported() /*-{
+		return !!$wnd.indexedDB && typeof $wnd.Promise !== 'undefined';
+	}-*/;
+
+	/**
+	 * Gets the value with the given key. The callback gets <code>null</code> if there is no such value.
+	 */
+	static void get(String store, String key, Callback<JavaScriptObject, Exception> callback) {
+		execute(store, "readonly", "get", key, callback);
+	}
+	
+	/**
+	 * Gets all the values of the store, as a native array.
+	 */
+	static void getAll(String store, Callback<JavaScriptObject, Exception> callback) {
+		execute(store, "readonly", "getAll", null, callback);
+	}
+	
+	/**
+	 * Adds or replaces the value. The key is the <code>key</code> property of the value.
+	 */
+	static void put(String store, JavaScriptObject value, Callback<JavaScriptObject, Exception> callback) {
+		execute(store, "readwrite", "put", value, callback);
+	}
+	
+	static void delete(String store, String key, Callback<JavaScriptObject, Exception> callback) {
+		execute(store, "readwrite", "delete", key, callback);
+	}
+	
+	/**
+	 * Removes all the values of the store.
+	 */
+	static void clear(String store, Callback<JavaScriptObject, Exception> callback) {
+		execute(store, "readwrite", "clear", null, callback);
+	}
+	
+	private static void succeed(Callback<JavaScriptObject, Exception> callback, JavaScriptObject result) {
+		if (callback != null) {
+			callback.onSuccess(result);
+		}
+	}
+	
+	private static void fail(Callback<JavaScriptObject, Exception> callback, String message) {
+		if (callback != null) {
+			callback.onFailure(new Exception(message));
+		}
+	}
+	
+	private static native JavaScriptObject open() /*-{
+		var database = @com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::database;
+		if (database) {
+			return database;
+		}
+		var stores = @com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::STORES;
+		database = new $wnd.Promise(function(resolve, reject) {
+			var request = $wnd.indexedDB.open(@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::DATABASE_NAME, 
+					@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::VERSION);
+			request.onupgradeneeded = function() {
+				var db = request.result;
+				for (var i = 0; i < stores.length; i++) {
+					if (!db.objectStoreNames.contains(stores[i])) {
+						db.createObjectStore(stores[i], {keyPath: 'key'});
+					}
+				}
+			};
+			request.onsuccess = function() {
+				var db = request.result;
+				// lets other tabs upgrade the database
+				db.onversionchange = function() {
+					db.close();
+					@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::database = null;
+				};
+				resolve(db);
+			};
+			request.onerror = function() {
+				@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::database = null;
+				reject(request.error);
+			};
+		});
+		@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::database = database;
+		return database;
+	}-*/;
+	
+	private static native void execute(String storeName, String mode, String method, Object argument, 
+			Callback<JavaScriptObject, Exception> callback) /*-{
+		var fail = $entry(function(error) {
+			@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::fail(Lcom/google/gwt/core/client/Callback;Ljava/lang/String;)(callback, String(error && error.message || error));
+		});
+		if (!@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::isSupported()()) {
+			fail('IndexedDB is not supported');
+			return;
+		}
+		@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::open()().then(function(db) {
+			var request;
+			try {
+				request = db.transaction(storeName, mode).objectStore(storeName)[method](argument);
+			}
+			catch (e) {
+				fail(e);
+				return;
+			}
+			request.onsuccess = $entry(function() {
+				var result = request.result === undefined ? null : request.result;
+				@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryIndexedDb::succeed(Lcom/google/gwt/core/client/Callback;Lcom/google/gwt/core/client/JavaScriptObject;)(callback, result);
+			});
+			request.onerror = function(e) {
+				// handled here, so the transaction error doesn't reach window.onerror
+				e.preventDefault();
+				fail(request.error);
+			};
+		}, fail);
+	}-*/;
+}
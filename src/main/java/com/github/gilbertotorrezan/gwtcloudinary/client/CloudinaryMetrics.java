@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Listener of the timing points of the {@link CloudinaryUploadWidget}, to feed real user monitoring dashboards. The methods 
+ * are called on the main thread, in order, and should return quickly.
+ * <p>
+ * Extend {@link CloudinaryNoOpMetrics} to listen to some of the points only, or use {@link CloudinaryPerformanceMetrics} to 
+ * record them with the User Timing API (<code>performance.mark</code> and <code>performance.measure</code>).
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadWidget#setMetrics(CloudinaryMetrics)
+ */
+public interface CloudinaryMetrics {
+
+	/**
+	 * Called when the user clicks the button, before the Cloudinary's javascript is loaded if needed.
+	 */
+	void onClick();
+	
+	/**
+	 * Called when the native Upload Widget is opened. The time since {@link #onClick()} includes the loading of the 
+	 * Cloudinary's javascript and of the widget code.
+	 */
+	void onOpen();
+	
+	/**
+	 * Called when a file is added to the upload queue by the user, not when its transfer starts: the time until 
+	 * {@link #onFileFinished(CloudinaryUploadResultJso)} includes the wait in the queue. Reported only by versions of the 
+	 * Upload Widget that report each event.
+	 * 
+	 * @param file The native info of the file, as given by the Upload Widget.
+	 */
+	void onFileStarted(JavaScriptObject file);
+	
+	/**
+	 * Called when a file is uploaded. The uploaded bytes are given by {@link CloudinaryUploadResultJso#getBytes()}.
+	 */
+	void onFileFinished(CloudinaryUploadResultJso result);
+	
+	/**
+	 * Called when the results of a batch are decoded before the {@link CloudinaryUploadFinishedEvent} is fired, such as by
+	 * {@link CloudinaryUploadWidget#setWorkerDecoding(boolean) worker decoding}. Results decoded lazily by the handlers are 
+	 * accounted in the {@link #onDispatched(GwtEvent, double) dispatch} of the event instead.
+	 * 
+	 * @param resultCount The number of decoded results.
+	 * @param millis The time from the start of the decoding until the results were ready.
+	 */
+	void onDecoded(int resultCount, double millis);
+	
+	/**
+	 * Called after an event of the widget is dispatched to all the handlers.
+	 * 
+	 * @param millis The time spent by the handlers.
+	 */
+	void onDispatched(GwtEvent<?> event, double millis);
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * {@link CloudinaryMetrics} that ignores all the points. It is the default of the widgets, and can be extended to listen to
+ * some of the points only.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryNoOpMetrics implements CloudinaryMetrics {
+	
+	/**
+	 * Shared instance, used by default.
+	 */
+	public static final CloudinaryNoOpMetrics INSTANCE = new CloudinaryNoOpMetrics();
+
+	@Override
+	public void onClick() {
+	}
+
+	@Override
+	public void onOpen() {
+	}
+
+	@Override
+	public void onFileStarted(JavaScriptObject file) {
+	}
+
+	@Override
+	public void onFileFinished(CloudinaryUploadResultJso result) {
+	}
+
+	@Override
+	public void onDecoded(int resultCount, double millis) {
+	}
+
+	@Override
+	public void onDispatched(GwtEvent<?> event, double millis) {
+	}
+}
@@ -0,0 +1,295 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Compact, read-only view of a batch of upload results, packed by a Web Worker. All the strings of the batch are kept in a 
+ * single table without duplicates, and the other values in a few <code>Int32Array</code>s transferred from the worker, so 
+ * reading the results doesn't parse or allocate anything besides the returned strings.
+ * <p>
+ * The accessors take the index of the result in the batch, and follow the conventions of the {@link CloudinaryUploadResultJso}:
+ * missing strings are returned as <code>null</code>, and missing numbers as <code>0</code>.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadFinishedEvent#getPackedResults()
+ * @see CloudinaryUploadWidget#setWorkerDecoding(boolean)
+ */
+public final class CloudinaryPackedUploadResults {
+	
+	/*
+	 * Layout of the fields of each result, used to generate the source of the CloudinaryUploadResultPacker: the indexes of the
+	 * string fields in the table (-1 for null), the numbers, the flags of the present numbers, and the offsets and counts of
+	 * the tags and of the rectangles of each CloudinaryCoordinatesKind, in ordinal order (-1 counts for missing arrays). The
+	 * rectangles are packed by CloudinaryCoordinatesParser.PACK_RECTS_SOURCE.
+	 */
+	static final int PUBLIC_ID = 0;
+	static final int URL = 1;
+	static final int SECURE_URL = 2;
+	static final int THUMBNAIL_URL = 3;
+	static final int TYPE = 4;
+	static final int VERSION = 5;
+	static final int FORMAT = 6;
+	static final int RESOURCE_TYPE = 7;
+	static final int SIGNATURE = 8;
+	static final int ETAG = 9;
+	static final int ORIGINAL_FILENAME = 10;
+	static final int PATH = 11;
+	static final int CREATED_AT = 12;
+	static final int WIDTH = 13;
+	static final int HEIGHT = 14;
+	static final int BYTES = 15;
+	static final int FLAGS = 16;
+	static final int TAGS = 17;
+	static final int RECTS = 19;
+	static final int STRIDE = RECTS + 2 * CloudinaryCoordinatesKind.values().length;
+	
+	/**
+	 * The keys of the string fields of the native results, in the order of their indexes, from {@link #PUBLIC_ID} on.
+	 */
+	static final String[] STRING_KEYS = {"public_id", "url", "secure_url", "thumbnail_url", "type", "version", "format", 
+			"resource_type", "signature", "etag", "original_filename", "path", "created_at"};
+	
+	/**
+	 * The keys of the number fields of the native results, in the order of their indexes, from {@link #WIDTH} on.
+	 */
+	static final String[] NUMBER_KEYS = {"width", "height", "bytes"};
+	
+	private final int size;
+	private final String strings;
+	private final JavaScriptObject offsets;
+	private final JavaScriptObject fields;
+	private final JavaScriptObject tags;
+	private final JavaScriptObject rects;
+	private final JavaScriptObject masks;
+
+	/**
+	 * @param packed The object posted by the worker.
+	 */
+	CloudinaryPackedUploadResults(JavaScriptObject packed) {
+		size = getInt(packed, "count");
+		strings = getStrings(packed);
+		offsets = getArray(packed, "offsets");
+		fields = getArray(packed, "fields");
+		tags = getArray(packed, "tags");
+		rects = getArray(packed, "rects");
+		masks = getArray(packed, "masks");
+	}
+	
+	/**
+	 * @return The number of results.
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public String getPublicId(int index) {
+		return getString(index, PUBLIC_ID);
+	}
+	
+	public String getUrl(int index) {
+		return getString(index, URL);
+	}
+	
+	public String getSecureUrl(int index) {
+		return getString(index, SECURE_URL);
+	}
+	
+	public String getThumbnailUrl(int index) {
+		return getString(index, THUMBNAIL_URL);
+	}
+	
+	public String getType(int index) {
+		return getString(index, TYPE);
+	}
+	
+	public String getVersion(int index) {
+		return getString(index, VERSION);
+	}
+	
+	public String getFormat(int index) {
+		return getString(index, FORMAT);
+	}
+	
+	public String getResourceType(int index) {
+		return getString(index, RESOURCE_TYPE);
+	}
+	
+	public String getSignature(int index) {
+		return getString(index, SIGNATURE);
+	}
+	
+	public String getEtag(int index) {
+		return getString(index, ETAG);
+	}
+	
+	public String getOriginalFilename(int index) {
+		return getString(index, ORIGINAL_FILENAME);
+	}
+	
+	public String getPath(int index) {
+		return getString(index, PATH);
+	}
+	
+	public String getCreatedAt(int index) {
+		return getString(index, CREATED_AT);
+	}
+	
+	public int getWidth(int index) {
+		return getField(index, WIDTH);
+	}
+	
+	public int getHeight(int index) {
+		return getField(index, HEIGHT);
+	}
+	
+	public int getBytes(int index) {
+		return getField(index, BYTES);
+	}
+	
+	/**
+	 * @return The tags of the result, or <code>null</code> if the result has no tags.
+	 */
+	public String[] getTags(int index) {
+		int count = getField(index, TAGS + 1);
+		if (count < 0) {
+			return null;
+		}
+		int offset = getField(index, TAGS);
+		String[] result = new String[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = getTableString(get(tags, offset + i));
+		}
+		return result;
+	}
+	
+	/**
+	 * @return The custom coordinates in packed form, with all their entries, or <code>null</code> if not present.
+	 * 
+	 * @see CloudinaryCoordinatesParser#toRects(JavaScriptObject)
+	 */
+	public CloudinaryRectArray getCustomRects(int index) {
+		return getRects(index, CloudinaryCoordinatesKind.CUSTOM);
+	}
+	
+	/**
+	 * @return The face coordinates in packed form, with all their entries, or <code>null</code> if not present.
+	 * 
+	 * @see CloudinaryCoordinatesParser#toRects(JavaScriptObject)
+	 */
+	public CloudinaryRectArray getFaceRects(int index) {
+		return getRects(index, CloudinaryCoordinatesKind.FACES);
+	}
+	
+	/**
+	 * @return The coordinates of the given kind in packed form, with all their entries, or <code>null</code> if not present.
+	 * 
+	 * @see CloudinaryUploadResultJso#getRects(CloudinaryCoordinatesKind)
+	 */
+	public CloudinaryRectArray getRects(int index, CloudinaryCoordinatesKind kind) {
+		int field = RECTS + 2 * kind.ordinal();
+		int count = getField(index, field + 1);
+		if (count < 0) {
+			return null;
+		}
+		int offset = getField(index, field);
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder(count);
+		for (int i = offset; i < offset + count; i++) {
+			builder.add(get(rects, i * 4), get(rects, i * 4 + 1), get(rects, i * 4 + 2), get(rects, i * 4 + 3), get(masks, i));
+		}
+		return builder.build();
+	}
+	
+	/**
+	 * Copies the fields of the result at the given index to a new {@link CloudinaryUploadInfo}, the same way as 
+	 * {@link CloudinaryUploadResultJso#toUploadInfo()}.
+	 */
+	public CloudinaryUploadInfo toUploadInfo(int index) {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setPublicId(getPublicId(index));
+		info.setSecureUrl(getSecureUrl(index));
+		info.setThumbnailUrl(getThumbnailUrl(index));
+		info.setUrl(getUrl(index));
+		info.setType(getType(index));
+		info.setVersion(getVersion(index));
+		info.setWidth(getSafeInteger(index, WIDTH));
+		info.setHeight(getSafeInteger(index, HEIGHT));
+		info.setFormat(getFormat(index));
+		info.setResourceType(getResourceType(index));
+		info.setSignature(getSignature(index));
+		info.setBytes(getSafeInteger(index, BYTES));
+		info.setOriginalFilename(getOriginalFilename(index));
+		info.setEtag(getEtag(index));
+		info.setPath(getPath(index));
+		info.setCreatedAt(getCreatedAt(index));
+		info.setTags(getTags(index));
+		info.setCustomRects(getCustomRects(index));
+		info.setFaceRects(getFaceRects(index));
+		return info;
+	}
+	
+	private Integer getSafeInteger(int index, int field) {
+		int flag = 1 << (field - WIDTH);
+		return (getField(index, FLAGS) & flag) != 0 ? Integer.valueOf(getField(index, field)) : null;
+	}
+	
+	private String getString(int index, int field) {
+		return getTableString(getField(index, field));
+	}
+	
+	private String getTableString(int stringIndex) {
+		if (stringIndex < 0) {
+			return null;
+		}
+		return strings.substring(get(offsets, stringIndex), get(offsets, stringIndex + 1));
+	}
+	
+	private int getField(int index, int field) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return get(fields, index * STRIDE + field);
+	}
+	
+	private static native int get(JavaScriptObject array, int index) /*-{
+		return array[index];
+	}-*/;
+	
+	private static native int getInt(JavaScriptObject packed, String key) /*-{
+		return packed[key] | 0;
+	}-*/;
+	
+	private static native String getStrings(JavaScriptObject packed) /*-{
+		return packed.strings;
+	}-*/;
+	
+	private static native JavaScriptObject getArray(JavaScriptObject packed, String key) /*-{
+		return packed[key];
+	}-*/;
+}
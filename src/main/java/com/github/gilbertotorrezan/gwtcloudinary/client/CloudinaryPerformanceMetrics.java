@@ -0,0 +1,229 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * {@link CloudinaryMetrics} that records the points with the User Timing API, so they show up in the performance panel of
+ * the browser's developer tools and can be collected by real user monitoring scripts with a <code>PerformanceObserver</code>.
+ * Browsers without the API ignore the calls.
+ * <p>
+ * The entries are named with the given prefix ("cloudinary" by default):
+ * <ul>
+ * <li><code>cloudinary:click</code> and <code>cloudinary:open</code> marks, and a <code>cloudinary:click-to-open</code> 
+ * measure between them;</li>
+ * <li>a <code>cloudinary:file-added</code> mark for each file added to the queue, and a <code>cloudinary:file-uploaded</code>
+ * mark for each file uploaded, with the <code>publicId</code> and <code>bytes</code> as detail;</li>
+ * <li>a <code>cloudinary:added-to-uploaded</code> measure from the first file added to each file uploaded in the batch, with
+ * the <code>bytes</code> of the file and the total <code>batchBytes</code> as detail. The files are added when they are
+ * queued, so the measure includes the time waiting in the queue, not only the transfer;</li>
+ * <li>a <code>cloudinary:decode</code> measure for each decoded batch, with the number of <code>results</code> as detail;</li>
+ * <li>a <code>cloudinary:dispatch:&lt;event&gt;</code> measure for each dispatched event, such as 
+ * <code>cloudinary:dispatch:upload-finished</code>.</li>
+ * </ul>
+ * The measures with details and explicit durations require the Level 3 of the User Timing API, and are skipped on older 
+ * browsers.
+ * <p>
+ * The marks are cleared from the performance timeline once they are no longer needed: the click and open marks after the 
+ * <code>click-to-open</code> measure, and the file marks when the batch finishes. <code>PerformanceObserver</code>s still get 
+ * all of them. The measures are left in the timeline, to be cleared by the application with 
+ * <code>performance.clearMeasures</code> if needed.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryPerformanceMetrics implements CloudinaryMetrics {
+	
+	public static final String DEFAULT_PREFIX = "cloudinary";
+	
+	private final String prefix;
+	private boolean clicked;
+	private double batchStart = -1;
+	private double batchBytes;
+	
+	public CloudinaryPerformanceMetrics() {
+		this(DEFAULT_PREFIX);
+	}
+	
+	/**
+	 * @param prefix The prefix of the names of the entries, such as to tell apart several widgets on the same page.
+	 */
+	public CloudinaryPerformanceMetrics(String prefix) {
+		this.prefix = prefix == null ? DEFAULT_PREFIX : prefix;
+	}
+	
+	public String getPrefix() {
+		return prefix;
+	}
+
+	@Override
+	public void onClick() {
+		clicked = true;
+		mark(prefix + ":click", null);
+	}
+
+	@Override
+	public void onOpen() {
+		mark(prefix + ":open", null);
+		if (clicked) {
+			clicked = false;
+			measureBetween(prefix + ":click-to-open", prefix + ":click", prefix + ":open");
+		}
+		clearMarks(prefix + ":click");
+		clearMarks(prefix + ":open");
+	}
+
+	@Override
+	public void onFileStarted(JavaScriptObject file) {
+		double now = now();
+		if (batchStart < 0) {
+			batchStart = now;
+			batchBytes = 0;
+		}
+		mark(prefix + ":file-added", null);
+	}
+
+	@Override
+	public void onFileFinished(CloudinaryUploadResultJso result) {
+		double now = now();
+		int bytes = result.getBytes();
+		batchBytes += bytes;
+		mark(prefix + ":file-uploaded", createFileDetail(result.getPublicId(), bytes));
+		if (batchStart >= 0) {
+			measure(prefix + ":added-to-uploaded", batchStart, now - batchStart, createUploadDetail(bytes, batchBytes));
+		}
+	}
+
+	@Override
+	public void onDecoded(int resultCount, double millis) {
+		measure(prefix + ":decode", now() - millis, millis, createDecodeDetail(resultCount));
+	}
+
+	@Override
+	public void onDispatched(GwtEvent<?> event, double millis) {
+		measure(prefix + ":dispatch:" + getEventName(event), now() - millis, millis, null);
+		if (event instanceof CloudinaryUploadFinishedEvent) {
+			// the next file starts a new batch
+			batchStart = -1;
+			clearMarks(prefix + ":file-added");
+			clearMarks(prefix + ":file-uploaded");
+		}
+	}
+	
+	/**
+	 * @return The name of the event in the names of the entries.
+	 */
+	protected String getEventName(GwtEvent<?> event) {
+		if (event instanceof CloudinaryUploadFinishedEvent) {
+			return "upload-finished";
+		}
+		if (event instanceof CloudinaryFileUploadedEvent) {
+			return "file-uploaded";
+		}
+		if (event instanceof CloudinaryUploadProgressEvent) {
+			return "upload-progress";
+		}
+		if (event instanceof CloudinaryQueueEvent) {
+			return "queue";
+		}
+		return "other";
+	}
+	
+	/**
+	 * @return The current time of the performance timeline, in milliseconds.
+	 */
+	protected static native double now() /*-{
+		var performance = $wnd.performance;
+		return performance && performance.now ? performance.now() : new Date().getTime();
+	}-*/;
+	
+	private static native JavaScriptObject createFileDetail(String publicId, int bytes) /*-{
+		return {publicId: publicId, bytes: bytes};
+	}-*/;
+	
+	private static native JavaScriptObject createUploadDetail(int bytes, double batchBytes) /*-{
+		return {bytes: bytes, batchBytes: batchBytes};
+	}-*/;
+	
+	private static native JavaScriptObject createDecodeDetail(int results) /*-{
+		return {results: results};
+	}-*/;
+	
+	private static native void mark(String name, JavaScriptObject detail) /*-{
+		var performance = $wnd.performance;
+		if (!performance || !performance.mark) {
+			return;
+		}
+		try {
+			if (detail) {
+				performance.mark(name, {detail: detail});
+			}
+			else {
+				performance.mark(name);
+			}
+		}
+		catch (e) {
+		}
+	}-*/;
+	
+	private static native void clearMarks(String name) /*-{
+		var performance = $wnd.performance;
+		if (performance && performance.clearMarks) {
+			performance.clearMarks(name);
+		}
+	}-*/;
+	
+	private static native void measureBetween(String name, String startMark, String endMark) /*-{
+		var performance = $wnd.performance;
+		if (!performance || !performance.measure) {
+			return;
+		}
+		try {
+			performance.measure(name, startMark, endMark);
+		}
+		catch (e) {
+		}
+	}-*/;
+	
+	private static native void measure(String name, double start, double duration, JavaScriptObject detail) /*-{
+		var performance = $wnd.performance;
+		if (!performance || !performance.measure) {
+			return;
+		}
+		try {
+			var options = {start: start, duration: duration};
+			if (detail) {
+				options.detail = detail;
+			}
+			performance.measure(name, options);
+		}
+		catch (e) {
+			// Level 2 only: options are not supported
+		}
+	}-*/;
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryTransformation;
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryUrlBuilder;
+import com.google.gwt.dom.client.ImageElement;
+import com.google.gwt.user.client.ui.Image;
+
+/**
+ * {@link Image} that shows an upload progressively: a tiny blurred placeholder derived from the public id is shown first,
+ * and replaced by the full rendition once it is decoded. The dimensions of the original image are set on the element, so
+ * the layout doesn't shift when the images load.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryProgressiveImage image = new CloudinaryProgressiveImage(new CloudinaryUrlBuilder("demo"));
+ * image.setTransformation(new CloudinaryTransformation().setWidth(800).setCrop("limit").setAutoFormat(true).setAutoQuality(true));
+ * image.setWidth("100%");
+ * image.setUploadInfo(info);
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryProgressiveLoader
+ */
+public class CloudinaryProgressiveImage extends Image {
+	
+	private final CloudinaryUrlBuilder urlBuilder;
+	private CloudinaryTransformation transformation;
+	private CloudinaryTransformation placeholderTransformation = CloudinaryProgressiveLoader.createPlaceholderTransformation();
+	private CloudinaryUploadInfo uploadInfo;
+
+	public CloudinaryProgressiveImage(CloudinaryUrlBuilder urlBuilder) {
+		if (urlBuilder == null) {
+			throw new NullPointerException("urlBuilder");
+		}
+		this.urlBuilder = urlBuilder;
+	}
+
+	public CloudinaryProgressiveImage(CloudinaryUrlBuilder urlBuilder, CloudinaryUploadInfo uploadInfo) {
+		this(urlBuilder);
+		setUploadInfo(uploadInfo);
+	}
+	
+	public CloudinaryUrlBuilder getUrlBuilder() {
+		return urlBuilder;
+	}
+	
+	/**
+	 * Sets the transformation of the full rendition. Takes effect on the next {@link #setUploadInfo(CloudinaryUploadInfo)}.
+	 * 
+	 * @param transformation The transformation, or <code>null</code> (the default) for the original image.
+	 */
+	public CloudinaryProgressiveImage setTransformation(CloudinaryTransformation transformation) {
+		this.transformation = transformation;
+		return this;
+	}
+	
+	public CloudinaryTransformation getTransformation() {
+		return transformation;
+	}
+	
+	/**
+	 * Sets the transformation of the placeholder. Takes effect on the next {@link #setUploadInfo(CloudinaryUploadInfo)}.
+	 * 
+	 * @param placeholderTransformation The transformation, or <code>null</code> to show the full rendition directly.
+	 * Default: {@link CloudinaryProgressiveLoader#createPlaceholderTransformation()}
+	 */
+	public CloudinaryProgressiveImage setPlaceholderTransformation(CloudinaryTransformation placeholderTransformation) {
+		this.placeholderTransformation = placeholderTransformation;
+		return this;
+	}
+	
+	public CloudinaryTransformation getPlaceholderTransformation() {
+		return placeholderTransformation;
+	}
+	
+	/**
+	 * Shows the given upload: the placeholder first, and the full rendition once it is decoded.
+	 */
+	public CloudinaryProgressiveImage setUploadInfo(CloudinaryUploadInfo uploadInfo) {
+		this.uploadInfo = uploadInfo;
+		ImageElement img = getElement().cast();
+		if (uploadInfo == null) {
+			CloudinaryProgressiveLoader.cancel(img);
+			CloudinaryResponsiveImage.clearLayout(img);
+			return this;
+		}
+		CloudinaryResponsiveImage.reserveLayout(img, uploadInfo);
+		if (uploadInfo.getPublicId() == null) {
+			CloudinaryProgressiveLoader.load(img, uploadInfo.getSecureUrl(), null);
+		}
+		else {
+			String placeholderUrl = placeholderTransformation == null ? null : urlBuilder.build(uploadInfo, placeholderTransformation);
+			CloudinaryProgressiveLoader.load(img, urlBuilder.build(uploadInfo, transformation), placeholderUrl);
+		}
+		return this;
+	}
+	
+	public CloudinaryUploadInfo getUploadInfo() {
+		return uploadInfo;
+	}
+}
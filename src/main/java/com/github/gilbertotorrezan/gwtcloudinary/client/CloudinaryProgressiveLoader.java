@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryTransformation;
+import com.google.gwt.dom.client.ImageElement;
+
+/**
+ * Blur-up loading of images: a tiny, blurred and heavily compressed placeholder is shown first, while the full rendition
+ * is downloaded and decoded off the main thread via <code>img.decode()</code>. The full rendition replaces the placeholder
+ * only when it is ready to be painted, so the swap doesn't block rendering. Browsers without <code>decode()</code> swap
+ * on the <code>load</code> event.
+ * <p>
+ * While the placeholder is shown the image has the {@link #PLACEHOLDER_STYLE_NAME} style name, which can be used for 
+ * transitions.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryProgressiveImage
+ * @see CloudinaryGalleryPanel#setProgressive(boolean)
+ */
+public final class CloudinaryProgressiveLoader {
+	
+	public static final String PLACEHOLDER_STYLE_NAME = "cloudinary-placeholder";
+	
+	private CloudinaryProgressiveLoader() {
+	}
+
+	/**
+	 * @return A new <code>e_blur:1000,f_auto,q_auto:low,w_32</code> transformation, the default for placeholders.
+	 */
+	public static CloudinaryTransformation createPlaceholderTransformation() {
+		return new CloudinaryTransformation().setWidth(32).setEffect("blur:1000").setQuality("auto:low").setAutoFormat(true);
+	}
+
+	/**
+	 * Shows the placeholder on the image, and swaps it with the full rendition once it is decoded. Any pending load of the 
+	 * same image is canceled.
+	 * 
+	 * @param placeholderUrl The URL of the placeholder, or <code>null</code> to set the full rendition directly.
+	 */
+	public static void load(ImageElement img, String url, String placeholderUrl) {
+		cancel(img);
+		if (placeholderUrl == null || placeholderUrl.equals(url)) {
+			img.setSrc(url);
+			return;
+		}
+		img.addClassName(PLACEHOLDER_STYLE_NAME);
+		img.setSrc(placeholderUrl);
+		decodeAndSwap(img, url);
+	}
+
+	/**
+	 * Cancels the pending swap of the image, if any. The image keeps its current source.
+	 */
+	public static void cancel(ImageElement img) {
+		img.removeClassName(PLACEHOLDER_STYLE_NAME);
+		clearPending(img);
+	}
+	
+	private static native void clearPending(ImageElement img) /*-{
+		img.__cloudinaryPending = null;
+	}-*/;
+	
+	private static native void decodeAndSwap(ImageElement img, String url) /*-{
+		var full = new Image();
+		img.__cloudinaryPending = full;
+		var swap = $entry(function() {
+			if (img.__cloudinaryPending !== full) {
+				return;
+			}
+			img.__cloudinaryPending = null;
+			img.src = url;
+			@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryProgressiveLoader::removePlaceholderStyle(Lcom/google/gwt/dom/client/ImageElement;)(img);
+		});
+		full.src = url;
+		if (full.decode) {
+			// a rejected decode means a broken image, which is swapped anyway so the error is visible
+			full.decode().then(swap, swap);
+		}
+		else {
+			full.onload = swap;
+			full.onerror = swap;
+		}
+	}-*/;
+	
+	private static void removePlaceholderStyle(ImageElement img) {
+		img.removeClassName(PLACEHOLDER_STYLE_NAME);
+	}
+}
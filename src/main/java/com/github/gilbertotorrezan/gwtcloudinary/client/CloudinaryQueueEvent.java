@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Event triggered by the Upload Widget when the state of the upload queue changes.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryQueueEvent extends GwtEvent<CloudinaryQueueHandler> {
+	
+	/**
+	 * The changes of the upload queue.
+	 */
+	public enum Kind {
+		/** The upload of the queued files started. */
+		STARTED,
+		/** A file was added to the queue. */
+		FILE_ADDED,
+		/** All the files in the queue were processed. */
+		ENDED,
+		/** The upload was aborted or the batch was cancelled by the user. */
+		CANCELLED,
+		/** The Upload Widget was closed. */
+		CLOSED;
+	}
+
+	private static Type<CloudinaryQueueHandler> TYPE;
+
+	public static void fireQueueEvent(HasCloudinaryQueueHandlers source, Kind kind, JavaScriptObject nativeInfo) {
+		if (TYPE != null) {
+			CloudinaryQueueEvent event = new CloudinaryQueueEvent(kind, nativeInfo);
+			source.fireEvent(event);
+		}
+	}
+	
+	public static Type<CloudinaryQueueHandler> getType() {
+		if (TYPE == null) {
+			TYPE = new Type<CloudinaryQueueHandler>();
+		}
+		return TYPE;
+	}
+
+	private final Kind kind;
+	private final JavaScriptObject nativeInfo;
+
+	protected CloudinaryQueueEvent(Kind kind, JavaScriptObject nativeInfo) {
+		this.kind = kind;
+		this.nativeInfo = nativeInfo;
+	}
+	
+	public Kind getKind() {
+		return kind;
+	}
+	
+	/**
+	 * @return The native info object sent by the Upload Widget with this event, if any.
+	 */
+	public JavaScriptObject getNativeInfo() {
+		return nativeInfo;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public final Type<CloudinaryQueueHandler> getAssociatedType() {
+		return (Type) TYPE;
+	}
+
+	@Override
+	protected void dispatch(CloudinaryQueueHandler handler) {
+		handler.onQueueEvent(this);
+	}
+
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.io.Serializable;
+
+/**
+ * Packed array of rectangles, such as face detection areas and custom cropping regions. All the values are 
+ * stored in a single <code>int[]</code>, as <code>[x0, y0, width0, height0, x1, y1, ...]</code>, so no object is 
+ * allocated per rectangle.
+ * <p>
+ * Every entry of the original coordinates is kept, in the same order. Entries that aren't arrays of at least 4 values are kept
+ * as invalid entries (see {@link #isValid(int)}), and values that aren't numbers as <code>null</code> values 
+ * (see {@link #isNull(int, int)}), both stored as 0. The masks with those flags are allocated only when some entry needs them.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadInfo#getFaceRects()
+ * @see CloudinaryUploadInfo#getCustomRects()
+ */
+public class CloudinaryRectArray implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The mask bit of an entry that isn't an array of at least 4 values. The bits 0 to 3 mark the <code>null</code> x, y, width 
+	 * and height values.
+	 */
+	public static final int INVALID = 1 << 4;
+	
+	public static final int X = 0;
+	public static final int Y = 1;
+	public static final int WIDTH = 2;
+	public static final int HEIGHT = 3;
+	
+	private static final int STRIDE = 4;
+	
+	private int[] values;
+	private int[] masks;
+	
+	protected CloudinaryRectArray() {
+	}
+
+	/**
+	 * Creates a new array of valid rectangles backed by the given values, which are used directly, not copied.
+	 * 
+	 * @param values The packed values, 4 per rectangle: x, y, width and height.
+	 */
+	public CloudinaryRectArray(int[] values) {
+		this(values, null);
+	}
+
+	/**
+	 * Creates a new array backed by the given values and masks, which are used directly, not copied.
+	 * 
+	 * @param values The packed values, 4 per rectangle: x, y, width and height.
+	 * @param masks The mask of each rectangle, or <code>null</code> if all the rectangles are valid and have all their values.
+	 */
+	public CloudinaryRectArray(int[] values, int[] masks) {
+		if (values == null || values.length % STRIDE != 0) {
+			throw new IllegalArgumentException("The values must contain 4 ints per rectangle.");
+		}
+		if (masks != null && masks.length * STRIDE != values.length) {
+			throw new IllegalArgumentException("The masks must contain 1 int per rectangle.");
+		}
+		this.values = values;
+		this.masks = masks;
+	}
+
+	/**
+	 * Creates a new packed array from the given coordinates, keeping the <code>null</code> entries and values.
+	 */
+	public static CloudinaryRectArray fromCoordinates(CloudinaryCoordinates[] coordinates) {
+		if (coordinates == null) {
+			return null;
+		}
+		Builder builder = new Builder(coordinates.length);
+		for (CloudinaryCoordinates c : coordinates) {
+			if (c == null) {
+				builder.addInvalid();
+				continue;
+			}
+			Integer[] values = {c.getX(), c.getY(), c.getWidth(), c.getHeight()};
+			int mask = 0;
+			for (int i = 0; i < STRIDE; i++) {
+				if (values[i] == null) {
+					mask |= 1 << i;
+				}
+			}
+			builder.add(intValue(values[X]), intValue(values[Y]), intValue(values[WIDTH]), intValue(values[HEIGHT]), mask);
+		}
+		return builder.build();
+	}
+
+	private static int intValue(Integer value) {
+		return value == null ? 0 : value.intValue();
+	}
+
+	/**
+	 * Growable builder of {@link CloudinaryRectArray}s. It can be passed directly to the {@link CloudinaryCoordinatesParser}.
+	 */
+	public static class Builder implements CloudinaryRectVisitor {
+		
+		private int[] values;
+		private int[] masks;
+		private int size;
+		
+		public Builder() {
+			this(4);
+		}
+		
+		/**
+		 * @param capacity The expected number of rectangles.
+		 */
+		public Builder(int capacity) {
+			values = new int[Math.max(capacity, 1) * STRIDE];
+		}
+
+		/**
+		 * Adds a valid rectangle with all its values.
+		 */
+		@Override
+		public void onRect(int x, int y, int width, int height) {
+			add(x, y, width, height, 0);
+		}
+		
+		/**
+		 * Adds an entry that isn't an array of at least 4 values.
+		 */
+		public void addInvalid() {
+			add(0, 0, 0, 0, INVALID);
+		}
+		
+		/**
+		 * Adds a rectangle with the given mask of {@link CloudinaryRectArray#INVALID} and <code>null</code> value bits. The masked
+		 * values should be 0.
+		 */
+		public void add(int x, int y, int width, int height, int mask) {
+			int rect = size / STRIDE;
+			if (size + STRIDE > values.length) {
+				values = copyOf(values, values.length * 2);
+			}
+			if (mask != 0 && masks == null) {
+				masks = new int[values.length / STRIDE];
+			}
+			if (masks != null) {
+				if (rect >= masks.length) {
+					masks = copyOf(masks, values.length / STRIDE);
+				}
+				masks[rect] = mask;
+			}
+			values[size++] = x;
+			values[size++] = y;
+			values[size++] = width;
+			values[size++] = height;
+		}
+		
+		public CloudinaryRectArray build() {
+			int count = size / STRIDE;
+			return new CloudinaryRectArray(size == values.length ? values : copyOf(values, size), 
+					masks == null ? null : masks.length == count ? masks : copyOf(masks, count));
+		}
+		
+		private static int[] copyOf(int[] array, int length) {
+			int[] copy = new int[length];
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+			return copy;
+		}
+	}
+
+	/**
+	 * @return The number of entries in the array, including the invalid ones.
+	 */
+	public int length() {
+		return values.length / STRIDE;
+	}
+
+	public int x(int index) {
+		return values[index * STRIDE];
+	}
+
+	public int y(int index) {
+		return values[index * STRIDE + 1];
+	}
+
+	public int width(int index) {
+		return values[index * STRIDE + 2];
+	}
+
+	public int height(int index) {
+		return values[index * STRIDE + 3];
+	}
+	
+	/**
+	 * @return The mask of the entry: {@link #INVALID} for invalid entries, and the bits 0 to 3 for the <code>null</code> values.
+	 */
+	public int mask(int index) {
+		if (masks == null) {
+			if (index < 0 || index >= length()) {
+				throw new ArrayIndexOutOfBoundsException(index);
+			}
+			return 0;
+		}
+		return masks[index];
+	}
+	
+	/**
+	 * @return <code>false</code> if the entry wasn't an array of at least 4 values.
+	 */
+	public boolean isValid(int index) {
+		return (mask(index) & INVALID) == 0;
+	}
+	
+	/**
+	 * @param value {@link #X}, {@link #Y}, {@link #WIDTH} or {@link #HEIGHT}.
+	 * 
+	 * @return <code>true</code> if the value wasn't a number. Such values are stored as 0.
+	 */
+	public boolean isNull(int index, int value) {
+		return (mask(index) & (1 << value)) != 0;
+	}
+
+	/**
+	 * Passes each valid rectangle to the visitor, in order. <code>null</code> values are passed as 0.
+	 * 
+	 * @return The number of visited rectangles.
+	 */
+	public int visit(CloudinaryRectVisitor visitor) {
+		int count = 0;
+		for (int i = 0, n = length(); i < n; i++) {
+			if (masks == null || (masks[i] & INVALID) == 0) {
+				visitor.onRect(x(i), y(i), width(i), height(i));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return The backing array, with 4 values per entry, including the invalid ones. Changes to it are reflected in this object.
+	 */
+	public int[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @return The backing array of masks, or <code>null</code> if all the entries are valid and have all their values.
+	 */
+	public int[] getMasks() {
+		return masks;
+	}
+
+	/**
+	 * @return A new {@link CloudinaryCoordinates} object with the values of the rectangle at the given index, or <code>null</code>
+	 * for an invalid entry.
+	 */
+	public CloudinaryCoordinates get(int index) {
+		int mask = mask(index);
+		if ((mask & INVALID) != 0) {
+			return null;
+		}
+		CloudinaryCoordinates c = new CloudinaryCoordinates();
+		c.setX(getValue(index, X, mask));
+		c.setY(getValue(index, Y, mask));
+		c.setWidth(getValue(index, WIDTH, mask));
+		c.setHeight(getValue(index, HEIGHT, mask));
+		return c;
+	}
+	
+	private Integer getValue(int index, int value, int mask) {
+		return (mask & (1 << value)) != 0 ? null : Integer.valueOf(values[index * STRIDE + value]);
+	}
+
+	/**
+	 * @return A new array with one {@link CloudinaryCoordinates} object per entry, <code>null</code> for the invalid ones.
+	 */
+	public CloudinaryCoordinates[] toCoordinates() {
+		CloudinaryCoordinates[] coordinates = new CloudinaryCoordinates[length()];
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = get(i);
+		}
+		return coordinates;
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinarySrcsetBuilder;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style;
+import com.google.gwt.user.client.ui.Image;
+
+/**
+ * {@link Image} that shows an upload with the <code>srcset</code> and <code>sizes</code> attributes built by a 
+ * {@link CloudinarySrcsetBuilder}, so the browser downloads the smallest rendition that fits the layout. The dimensions
+ * of the original image are set on the element, so the layout is reserved before the image loads.
+ * <p>
+ * Existing images can be changed the same way with {@link #apply(Image, CloudinarySrcsetBuilder, CloudinaryUploadInfo)}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryResponsiveImage extends Image {
+	
+	private final CloudinarySrcsetBuilder srcsetBuilder;
+	private CloudinaryUploadInfo uploadInfo;
+
+	public CloudinaryResponsiveImage(CloudinarySrcsetBuilder srcsetBuilder) {
+		if (srcsetBuilder == null) {
+			throw new NullPointerException("srcsetBuilder");
+		}
+		this.srcsetBuilder = srcsetBuilder;
+	}
+
+	public CloudinaryResponsiveImage(CloudinarySrcsetBuilder srcsetBuilder, CloudinaryUploadInfo uploadInfo) {
+		this(srcsetBuilder);
+		setUploadInfo(uploadInfo);
+	}
+	
+	public CloudinarySrcsetBuilder getSrcsetBuilder() {
+		return srcsetBuilder;
+	}
+	
+	/**
+	 * Shows the given upload.
+	 */
+	public CloudinaryResponsiveImage setUploadInfo(CloudinaryUploadInfo uploadInfo) {
+		this.uploadInfo = uploadInfo;
+		apply(this, srcsetBuilder, uploadInfo);
+		return this;
+	}
+	
+	public CloudinaryUploadInfo getUploadInfo() {
+		return uploadInfo;
+	}
+
+	/**
+	 * Sets the <code>srcset</code>, <code>sizes</code> and <code>src</code> of the image for the given upload. The 
+	 * <code>srcset</code> is set before the <code>src</code>, so the browser doesn't start downloading the fallback rendition.
+	 * 
+	 * @param uploadInfo The upload, or <code>null</code> to remove the responsive attributes.
+	 */
+	public static void apply(Image image, CloudinarySrcsetBuilder srcsetBuilder, CloudinaryUploadInfo uploadInfo) {
+		Element element = image.getElement();
+		if (uploadInfo == null) {
+			element.removeAttribute("srcset");
+			element.removeAttribute("sizes");
+			clearLayout(element);
+			return;
+		}
+		
+		String sizes = srcsetBuilder.getSizes();
+		if (sizes == null) {
+			element.removeAttribute("sizes");
+		}
+		else {
+			element.setAttribute("sizes", sizes);
+		}
+		element.setAttribute("srcset", srcsetBuilder.buildSrcset(uploadInfo));
+		reserveLayout(element, uploadInfo);
+		image.setUrl(srcsetBuilder.buildSrc(uploadInfo));
+	}
+
+	/**
+	 * Sets the <code>width</code> and <code>height</code> attributes of the element to the dimensions of the original image, if
+	 * they are known, so the browser reserves the space of the image before it loads. The CSS <code>aspect-ratio</code> is set
+	 * too, and the CSS height is set to <code>auto</code> when it isn't set, so an image scaled by a CSS width keeps its ratio
+	 * instead of taking the height of the attribute.
+	 */
+	static void reserveLayout(Element element, CloudinaryUploadInfo uploadInfo) {
+		Integer width = uploadInfo.getWidth();
+		Integer height = uploadInfo.getHeight();
+		if (width == null || height == null || width <= 0 || height <= 0) {
+			clearLayout(element);
+			return;
+		}
+		element.setAttribute("width", String.valueOf(width));
+		element.setAttribute("height", String.valueOf(height));
+		Style style = element.getStyle();
+		style.setProperty("aspectRatio", width + " / " + height);
+		if (style.getHeight().isEmpty()) {
+			style.setProperty("height", "auto");
+		}
+	}
+
+	/**
+	 * Removes the dimensions set by {@link #reserveLayout(Element, CloudinaryUploadInfo)}.
+	 */
+	static void clearLayout(Element element) {
+		element.removeAttribute("width");
+		element.removeAttribute("height");
+		element.getStyle().clearProperty("aspectRatio");
+	}
+}
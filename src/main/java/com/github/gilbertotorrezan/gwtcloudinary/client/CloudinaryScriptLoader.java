@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.ScriptInjector;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.LinkElement;
+
+/**
+ * Loads the Cloudinary's javascript on demand, so the hosting page doesn't need to include it. The {@link CloudinaryUploadWidget} 
+ * starts loading the script when the mouse is over the button or when it gets the focus, and clicks made before the script is 
+ * ready are queued until it loads.
+ * <p>
+ * If the script is already included in the hosting page, nothing is loaded.
+ * <p>
+ * The {@link #DEFAULT_SCRIPT_URL} loads the legacy Upload Widget, which calls back only once, with the results of all files,
+ * when the upload ends. With it, the {@link CloudinaryFileUploadedEvent}, {@link CloudinaryUploadProgressEvent} and 
+ * {@link CloudinaryQueueEvent} are all fired together at the end, and the coalescing policy of the widget has no effect. To get
+ * them while the upload runs, load the Upload Widget that reports each event before any widget is used:
+ * <pre>
+ * CloudinaryScriptLoader.setScriptUrl(CloudinaryScriptLoader.PER_EVENT_SCRIPT_URL);
+ * </pre>
+ * That version ignores some of the legacy options, such as {@link CloudinaryUploadWidget#setTheme(String)} and 
+ * {@link CloudinaryUploadWidget#setStylesheet(String)}, which is why it is not the default.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public final class CloudinaryScriptLoader {
+	
+	/**
+	 * The default URL of the Cloudinary's javascript.
+	 */
+	public static final String DEFAULT_SCRIPT_URL = "//widget.cloudinary.com/global/all.js";
+	
+	/**
+	 * The URL of the Upload Widget that reports each event, such as each uploaded file, as it happens.
+	 */
+	public static final String PER_EVENT_SCRIPT_URL = "//upload-widget.cloudinary.com/global/all.js";
+	
+	private static String scriptUrl = DEFAULT_SCRIPT_URL;
+	private static boolean preloadHints;
+	private static boolean preloaded;
+	private static List<Callback<Void, Exception>> pendingCallbacks;
+	
+	private CloudinaryScriptLoader() {
+	}
+
+	/**
+	 * Sets the URL used to load the Cloudinary's javascript, such as a local stub for tests. Must be called before the 
+	 * script starts loading.
+	 * 
+	 * @param scriptUrl Default: {@value #DEFAULT_SCRIPT_URL}
+	 */
+	public static void setScriptUrl(String scriptUrl) {
+		CloudinaryScriptLoader.scriptUrl = scriptUrl == null ? DEFAULT_SCRIPT_URL : scriptUrl;
+	}
+
+	public static String getScriptUrl() {
+		return scriptUrl;
+	}
+
+	/**
+	 * Whether {@link CloudinaryUploadWidget}s should add a <code>&lt;link rel="preload"&gt;</code> hint for the script when they 
+	 * are attached, so the browser fetches it at low cost before the first interaction.
+	 * 
+	 * @param preloadHints Default: false
+	 */
+	public static void setPreloadHints(boolean preloadHints) {
+		CloudinaryScriptLoader.preloadHints = preloadHints;
+	}
+
+	public static boolean isPreloadHints() {
+		return preloadHints;
+	}
+
+	/**
+	 * @return <code>true</code> if the Cloudinary's javascript is available in the hosting page.
+	 */
+	public static native boolean isLoaded()/*-{
+		return !!$wnd.cloudinary;
+	}-*/;
+
+	/**
+	 * @return <code>true</code> if the script is being loaded.
+	 */
+	public static boolean isLoading() {
+		return pendingCallbacks != null;
+	}
+
+	/**
+	 * Adds a <code>&lt;link rel="preload"&gt;</code> hint for the script to the hosting page, if not added yet and if the script is not loaded.
+	 */
+	public static void preload() {
+		if (preloaded || isLoaded()) {
+			return;
+		}
+		preloaded = true;
+		LinkElement link = Document.get().createLinkElement();
+		link.setRel("preload");
+		link.setAttribute("as", "script");
+		link.setHref(scriptUrl);
+		Document.get().getHead().appendChild(link);
+	}
+
+	/**
+	 * Starts loading the script, if not loaded yet.
+	 */
+	public static void load() {
+		load(null);
+	}
+
+	/**
+	 * Loads the script if needed, and calls the callback when it is ready. If the script is already loaded the callback is called
+	 * immediately. If the loading fails, or if the loaded script doesn't define <code>cloudinary</code> (such as an error page
+	 * of a proxy or a wrong {@link #setScriptUrl(String)}), the callback gets {@link Callback#onFailure(Object)}, and the loading
+	 * is retried on the next call.
+	 */
+	public static void load(Callback<Void, Exception> callback) {
+		if (isLoaded()) {
+			if (callback != null) {
+				callback.onSuccess(null);
+			}
+			return;
+		}
+		boolean loading = isLoading();
+		if (!loading) {
+			pendingCallbacks = new ArrayList<>();
+		}
+		if (callback != null) {
+			pendingCallbacks.add(callback);
+		}
+		if (loading) {
+			return;
+		}
+		ScriptInjector.fromUrl(scriptUrl)
+			.setWindow(ScriptInjector.TOP_WINDOW)
+			.setRemoveTag(false)
+			.setCallback(new Callback<Void, Exception>() {
+				@Override
+				public void onSuccess(Void result) {
+					if (!isLoaded()) {
+						// reporting success would make the callers load the script again right away, forever
+						onFailure(new Exception("The script at " + scriptUrl + " did not define cloudinary"));
+						return;
+					}
+					for (Callback<Void, Exception> callback : takePendingCallbacks()) {
+						callback.onSuccess(result);
+					}
+				}
+				
+				@Override
+				public void onFailure(Exception reason) {
+					for (Callback<Void, Exception> callback : takePendingCallbacks()) {
+						callback.onFailure(reason);
+					}
+				}
+			})
+			.inject();
+	}
+
+	private static List<Callback<Void, Exception>> takePendingCallbacks() {
+		List<Callback<Void, Exception>> callbacks = pendingCallbacks;
+		pendingCallbacks = null;
+		return callbacks;
+	}
+}
@@ -0,0 +1,315 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.FocusEvent;
+import com.google.gwt.event.dom.client.FocusHandler;
+import com.google.gwt.event.dom.client.MouseOverEvent;
+import com.google.gwt.event.dom.client.MouseOverHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.safehtml.client.HasSafeHtml;
+import com.google.gwt.safehtml.shared.SafeHtml;
+import com.google.gwt.user.client.ui.Button;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.HasEnabled;
+import com.google.gwt.user.client.ui.HasHTML;
+import com.google.gwt.user.client.ui.HasText;
+
+/**
+ * Lightweight placeholder for the {@link CloudinaryUploadWidget}. The widget code, including the options handling and the result decoding,
+ * is loaded in a separate code fragment via {@link GWT#runAsync(Class, RunAsyncCallback)} only on the first click, so it doesn't
+ * add to the initial download of the application.
+ * <p>
+ * The options are given as a {@link CloudinaryWidgetConfig}, built with {@link CloudinaryWidgetConfig#builder()}, and the events 
+ * fired by the widget are fired again by this button. Any reference to the {@link CloudinaryUploadWidget} outside of this class, 
+ * such as building the config with <code>new CloudinaryUploadWidget().getConfig()</code>, brings the widget code back to the 
+ * initial download.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadButton extends Composite implements HasCloudinaryUploadFinishedHandlers, 
+HasCloudinaryFileUploadedHandlers, HasCloudinaryUploadProgressHandlers, HasCloudinaryQueueHandlers, HasText, HasHTML, HasSafeHtml, HasEnabled {
+	
+	protected Button button;
+	
+	private CloudinaryWidgetConfig config;
+	private boolean pooled;
+	private CloudinaryCoalescingPolicy coalescingPolicy;
+	private CloudinaryMetrics metrics = CloudinaryNoOpMetrics.INSTANCE;
+	private CloudinaryUploadWidget widget;
+	private boolean loading;
+	
+	public CloudinaryUploadButton() {
+		button = new Button();
+		initialize();
+	}
+	
+	public CloudinaryUploadButton(String html) {
+		button = new Button(html);
+		initialize();
+	}
+	
+	public CloudinaryUploadButton(SafeHtml html) {
+		button = new Button(html);
+		initialize();
+	}
+	
+	public CloudinaryUploadButton(String html, CloudinaryWidgetConfig config) {
+		this(html);
+		this.config = config;
+	}
+	
+	// executed after any constructor
+	protected void initialize(){
+		initWidget(button);
+		button.addClickHandler(new ClickHandler() {
+			@Override
+			public void onClick(ClickEvent event) {
+				metrics.onClick();
+				open();
+			}
+		});
+		button.addMouseOverHandler(new MouseOverHandler() {
+			@Override
+			public void onMouseOver(MouseOverEvent event) {
+				CloudinaryScriptLoader.load();
+			}
+		});
+		button.addFocusHandler(new FocusHandler() {
+			@Override
+			public void onFocus(FocusEvent event) {
+				CloudinaryScriptLoader.load();
+			}
+		});
+	}
+	
+	@Override
+	protected void onLoad() {
+		super.onLoad();
+		if (CloudinaryScriptLoader.isPreloadHints()){
+			CloudinaryScriptLoader.preload();
+		}
+	}
+	
+	/**
+	 * The widget created by this button is never attached, so it is released from the {@link CloudinaryWidgetPool} here.
+	 */
+	@Override
+	protected void onUnload() {
+		if (widget != null){
+			CloudinaryWidgetPool.release(widget);
+		}
+		super.onUnload();
+	}
+	
+	/**
+	 * Loads the widget code if needed and opens the Upload Widget. This method is called automatically by the click handler on the button.
+	 */
+	public void open() {
+		if (widget != null){
+			widget.open();
+			return;
+		}
+		if (loading){
+			return;
+		}
+		loading = true;
+		GWT.runAsync(CloudinaryUploadButton.class, new RunAsyncCallback() {
+			@Override
+			public void onSuccess() {
+				loading = false;
+				createWidget();
+				widget.open();
+			}
+			
+			@Override
+			public void onFailure(Throwable reason) {
+				loading = false;
+				CloudinaryUploadFinishedEvent.fireUploadFinished(CloudinaryUploadButton.this, 
+						"Could not load the upload widget: " + reason.getMessage(), null, null);
+			}
+		});
+	}
+	
+	/**
+	 * Creates the actual widget. Called inside the split point, so the widget code is not referenced by the initial fragment.
+	 */
+	private void createWidget() {
+		widget = new CloudinaryUploadWidget();
+		widget.setPooled(pooled);
+		widget.setCoalescingPolicy(coalescingPolicy);
+		widget.setMetrics(metrics);
+		if (config != null){
+			widget.setConfig(config);
+		}
+		widget.addCloudinaryUploadFinishedHandler(new CloudinaryUploadFinishedHandler() {
+			@Override
+			public void onUploadFinished(CloudinaryUploadFinishedEvent event) {
+				fireEvent(event);
+			}
+		});
+		widget.addCloudinaryFileUploadedHandler(new CloudinaryFileUploadedHandler() {
+			@Override
+			public void onFileUploaded(CloudinaryFileUploadedEvent event) {
+				fireEvent(event);
+			}
+		});
+		widget.addCloudinaryUploadProgressHandler(new CloudinaryUploadProgressHandler() {
+			@Override
+			public void onUploadProgress(CloudinaryUploadProgressEvent event) {
+				fireEvent(event);
+			}
+		});
+		widget.addCloudinaryQueueHandler(new CloudinaryQueueHandler() {
+			@Override
+			public void onQueueEvent(CloudinaryQueueEvent event) {
+				fireEvent(event);
+			}
+		});
+	}
+
+	/**
+	 * The options of the Upload Widget. Changes take effect on the next click.
+	 */
+	public CloudinaryUploadButton setConfig(CloudinaryWidgetConfig config) {
+		this.config = config;
+		if (widget != null){
+			widget.setConfig(config);
+		}
+		return this;
+	}
+
+	public CloudinaryWidgetConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * @see CloudinaryUploadWidget#setPooled(boolean)
+	 */
+	public CloudinaryUploadButton setPooled(boolean pooled) {
+		this.pooled = pooled;
+		if (widget != null){
+			widget.setPooled(pooled);
+		}
+		return this;
+	}
+
+	public boolean isPooled() {
+		return pooled;
+	}
+	
+	/**
+	 * The click is reported by this button, and the other points by the widget.
+	 * 
+	 * @see CloudinaryUploadWidget#setMetrics(CloudinaryMetrics)
+	 */
+	public CloudinaryUploadButton setMetrics(CloudinaryMetrics metrics) {
+		this.metrics = metrics == null ? CloudinaryNoOpMetrics.INSTANCE : metrics;
+		if (widget != null){
+			widget.setMetrics(this.metrics);
+		}
+		return this;
+	}
+	
+	public CloudinaryMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @see CloudinaryUploadWidget#setCoalescingPolicy(CloudinaryCoalescingPolicy)
+	 */
+	public CloudinaryUploadButton setCoalescingPolicy(CloudinaryCoalescingPolicy coalescingPolicy) {
+		this.coalescingPolicy = coalescingPolicy;
+		if (widget != null){
+			widget.setCoalescingPolicy(coalescingPolicy);
+		}
+		return this;
+	}
+
+	public CloudinaryCoalescingPolicy getCoalescingPolicy() {
+		return coalescingPolicy == null ? CloudinaryCoalescingPolicy.immediate() : coalescingPolicy;
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryUploadFinishedHandler(CloudinaryUploadFinishedHandler handler) {
+		return addHandler(handler, CloudinaryUploadFinishedEvent.getType());
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryFileUploadedHandler(CloudinaryFileUploadedHandler handler) {
+		return addHandler(handler, CloudinaryFileUploadedEvent.getType());
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryUploadProgressHandler(CloudinaryUploadProgressHandler handler) {
+		return addHandler(handler, CloudinaryUploadProgressEvent.getType());
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryQueueHandler(CloudinaryQueueHandler handler) {
+		return addHandler(handler, CloudinaryQueueEvent.getType());
+	}
+
+	@Override
+	public String getHTML() {
+		return button.getHTML();
+	}
+
+	@Override
+	public void setHTML(String html) {
+		button.setHTML(html);
+	}
+
+	@Override
+	public void setText(String text) {
+		button.setText(text);
+	}
+	
+	@Override
+	public String getText() {
+		return button.getText();
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return button.isEnabled();
+	}
+
+	@Override
+	public void setEnabled(boolean enabled) {
+		button.setEnabled(enabled);
+	}
+
+	@Override
+	public void setHTML(SafeHtml html) {
+		button.setHTML(html);
+	}
+}
@@ -0,0 +1,385 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Detects files that were already uploaded from this browser, so they are not transferred and stored again. Each file is 
+ * hashed with SHA-256 in a Web Worker, reading the file in slices so large files are never loaded in memory at once, and the
+ * hash is looked up in a local IndexedDB index of the results of previous uploads. Browsers that can't run the worker hash
+ * the files on the main thread.
+ * <p>
+ * The index is local to the browser and is not synchronized with the cloud: assets deleted from Cloudinary are still
+ * reported as uploaded until the entries expire after the {@link #setMaxAge(double) max age}, or {@link #clear()} is called.
+ * <p>
+ * Used by the direct uploads of the {@link CloudinaryUploader#setDeduplicator(CloudinaryUploadDeduplicator)}, which report
+ * the known files with the results of their previous uploads.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryUploader uploader = new CloudinaryUploader(config).setDeduplicator(new CloudinaryUploadDeduplicator());
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadDeduplicator {
+	
+	/**
+	 * The default size of the slices read from the files: 4 MB.
+	 */
+	public static final double DEFAULT_READ_SIZE = 4 * 1024 * 1024;
+	
+	/**
+	 * The default max age of the entries of the index: 30 days, in milliseconds.
+	 */
+	public static final double DEFAULT_MAX_AGE = 30d * 24 * 60 * 60 * 1000;
+	
+	private static final String WORKER_SOURCE = 
+			"var K = [\n" + 
+			"  0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,\n" + 
+			"  0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,\n" + 
+			"  0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,\n" + 
+			"  0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,\n" + 
+			"  0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,\n" + 
+			"  0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,\n" + 
+			"  0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,\n" + 
+			"  0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2\n" + 
+			"];\n" + 
+			"function Sha256() {\n" + 
+			"  this.h = [0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19];\n" + 
+			"  this.w = new Int32Array(64);\n" + 
+			"  this.buffer = new Uint8Array(64);\n" + 
+			"  this.buffered = 0;\n" + 
+			"  this.length = 0;\n" + 
+			"}\n" + 
+			"Sha256.prototype.block = function(bytes, offset) {\n" + 
+			"  var w = this.w, h = this.h, i;\n" + 
+			"  for (i = 0; i < 16; i++, offset += 4) {\n" + 
+			"    w[i] = (bytes[offset] << 24) | (bytes[offset + 1] << 16) | (bytes[offset + 2] << 8) | bytes[offset + 3];\n" + 
+			"  }\n" + 
+			"  for (i = 16; i < 64; i++) {\n" + 
+			"    var x = w[i - 15], y = w[i - 2];\n" + 
+			"    var s0 = ((x >>> 7) | (x << 25)) ^ ((x >>> 18) | (x << 14)) ^ (x >>> 3);\n" + 
+			"    var s1 = ((y >>> 17) | (y << 15)) ^ ((y >>> 19) | (y << 13)) ^ (y >>> 10);\n" + 
+			"    w[i] = (w[i - 16] + s0 + w[i - 7] + s1) | 0;\n" + 
+			"  }\n" + 
+			"  var a = h[0], b = h[1], c = h[2], d = h[3], e = h[4], f = h[5], g = h[6], k = h[7];\n" + 
+			"  for (i = 0; i < 64; i++) {\n" + 
+			"    var t1 = (k + (((e >>> 6) | (e << 26)) ^ ((e >>> 11) | (e << 21)) ^ ((e >>> 25) | (e << 7))) + ((e & f) ^ (~e & g)) + K[i] + w[i]) | 0;\n" + 
+			"    var t2 = ((((a >>> 2) | (a << 30)) ^ ((a >>> 13) | (a << 19)) ^ ((a >>> 22) | (a << 10))) + ((a & b) ^ (a & c) ^ (b & c))) | 0;\n" + 
+			"    k = g; g = f; f = e; e = (d + t1) | 0; d = c; c = b; b = a; a = (t1 + t2) | 0;\n" + 
+			"  }\n" + 
+			"  h[0] = (h[0] + a) | 0; h[1] = (h[1] + b) | 0; h[2] = (h[2] + c) | 0; h[3] = (h[3] + d) | 0;\n" + 
+			"  h[4] = (h[4] + e) | 0; h[5] = (h[5] + f) | 0; h[6] = (h[6] + g) | 0; h[7] = (h[7] + k) | 0;\n" + 
+			"};\n" + 
+			"Sha256.prototype.update = function(bytes) {\n" + 
+			"  var i = 0, n = bytes.length;\n" + 
+			"  this.length += n;\n" + 
+			"  if (this.buffered > 0) {\n" + 
+			"    while (this.buffered < 64 && i < n) {\n" + 
+			"      this.buffer[this.buffered++] = bytes[i++];\n" + 
+			"    }\n" + 
+			"    if (this.buffered < 64) {\n" + 
+			"      return;\n" + 
+			"    }\n" + 
+			"    this.block(this.buffer, 0);\n" + 
+			"    this.buffered = 0;\n" + 
+			"  }\n" + 
+			"  for (; i + 64 <= n; i += 64) {\n" + 
+			"    this.block(bytes, i);\n" + 
+			"  }\n" + 
+			"  while (i < n) {\n" + 
+			"    this.buffer[this.buffered++] = bytes[i++];\n" + 
+			"  }\n" + 
+			"};\n" + 
+			"Sha256.prototype.digest = function() {\n" + 
+			"  var bits = this.length * 8;\n" + 
+			"  var padding = new Uint8Array((this.buffered < 56 ? 64 : 128) - this.buffered);\n" + 
+			"  padding[0] = 0x80;\n" + 
+			"  var high = Math.floor(bits / 0x100000000), low = bits >>> 0, n = padding.length;\n" + 
+			"  padding[n - 8] = high >>> 24; padding[n - 7] = high >>> 16; padding[n - 6] = high >>> 8; padding[n - 5] = high;\n" + 
+			"  padding[n - 4] = low >>> 24; padding[n - 3] = low >>> 16; padding[n - 2] = low >>> 8; padding[n - 1] = low;\n" + 
+			"  this.update(padding);\n" + 
+			"  var hex = '';\n" + 
+			"  for (var i = 0; i < 8; i++) {\n" + 
+			"    hex += ('0000000' + (this.h[i] >>> 0).toString(16)).slice(-8);\n" + 
+			"  }\n" + 
+			"  return hex;\n" + 
+			"};\n" + 
+			"function read(blob) {\n" + 
+			"  if (blob.arrayBuffer) {\n" + 
+			"    return blob.arrayBuffer();\n" + 
+			"  }\n" + 
+			"  return new Promise(function(resolve, reject) {\n" + 
+			"    var reader = new FileReader();\n" + 
+			"    reader.onload = function() { resolve(reader.result); };\n" + 
+			"    reader.onerror = function() { reject(reader.error); };\n" + 
+			"    reader.readAsArrayBuffer(blob);\n" + 
+			"  });\n" + 
+			"}\n" + 
+			"self.onmessage = function(e) {\n" + 
+			"  var d = e.data, sha = new Sha256(), offset = 0;\n" + 
+			"  var next = function() {\n" + 
+			"    if (offset >= d.file.size) {\n" + 
+			"      self.postMessage({id: d.id, hash: sha.digest()});\n" + 
+			"      return;\n" + 
+			"    }\n" + 
+			"    var end = Math.min(d.file.size, offset + d.chunkSize);\n" + 
+			"    read(d.file.slice(offset, end)).then(function(buffer) {\n" + 
+			"      sha.update(new Uint8Array(buffer));\n" + 
+			"      offset = end;\n" + 
+			"      next();\n" + 
+			"    })['catch'](function(error) {\n" + 
+			"      self.postMessage({id: d.id, error: String(error && error.message || error)});\n" + 
+			"    });\n" + 
+			"  };\n" + 
+			"  next();\n" + 
+			"};\n";
+	
+	private double readSize = DEFAULT_READ_SIZE;
+	private double maxAge = DEFAULT_MAX_AGE;
+	
+	private JavaScriptObject worker;
+	private boolean workerUnavailable;
+	private int nextId;
+	private final Map<Integer, Request> pending = new HashMap<>();
+	
+	private static class Request {
+		final CloudinaryFile file;
+		final Callback<String, Exception> callback;
+		
+		Request(CloudinaryFile file, Callback<String, Exception> callback) {
+			this.file = file;
+			this.callback = callback;
+		}
+	}
+	
+	/**
+	 * @param readSize The size in bytes of the slices read from the files while hashing. Default: 4 MB
+	 */
+	public CloudinaryUploadDeduplicator setReadSize(double readSize) {
+		if (readSize <= 0) {
+			throw new IllegalArgumentException("The read size must be positive.");
+		}
+		this.readSize = readSize;
+		return this;
+	}
+	
+	public double getReadSize() {
+		return readSize;
+	}
+	
+	/**
+	 * @param maxAge The time in milliseconds after which the entries of the index are ignored, and the files are uploaded 
+	 * again. Default: 30 days
+	 */
+	public CloudinaryUploadDeduplicator setMaxAge(double maxAge) {
+		this.maxAge = maxAge;
+		return this;
+	}
+	
+	public double getMaxAge() {
+		return maxAge;
+	}
+	
+	/**
+	 * @return Whether the browser can keep the index.
+	 */
+	public static boolean isSupported() {
+		return CloudinaryIndexedDb.isSupported();
+	}
+
+	/**
+	 * Computes the SHA-256 of the contents of the file. The callback gets the hash as a lowercase hex string.
+	 */
+	public void hash(CloudinaryFile file, Callback<String, Exception> callback) {
+		int id = nextId++;
+		pending.put(id, new Request(file, callback));
+		if (worker == null && !workerUnavailable) {
+			worker = CloudinaryWorkers.create(WORKER_SOURCE);
+			workerUnavailable = worker == null;
+			if (worker != null) {
+				listen(worker);
+			}
+		}
+		if (worker != null) {
+			postToWorker(worker, id, file, readSize);
+		}
+		else {
+			hashOnMainThread(id, file, readSize);
+		}
+	}
+	
+	/**
+	 * Looks for the result of a previous upload of a file with the given hash, within the given scope. The callback gets 
+	 * <code>null</code> if the file is unknown or the entry is older than the max age.
+	 * 
+	 * @param scope Identifies where the file was uploaded to, such as the upload URL and the options that change the result.
+	 */
+	public void find(String hash, String scope, final Callback<CloudinaryUploadResultJso, Exception> callback) {
+		CloudinaryIndexedDb.get(CloudinaryIndexedDb.UPLOAD_HASHES, getKey(hash, scope), new Callback<JavaScriptObject, Exception>() {
+			@Override
+			public void onSuccess(JavaScriptObject record) {
+				if (record == null || now() - getUpdated(record) > maxAge) {
+					callback.onSuccess(null);
+					return;
+				}
+				callback.onSuccess(getResult(record));
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				callback.onFailure(reason);
+			}
+		});
+	}
+	
+	/**
+	 * Adds the result of the upload of a file with the given hash to the index. Failures are ignored.
+	 */
+	public void remember(String hash, String scope, CloudinaryUploadResultJso result) {
+		CloudinaryIndexedDb.put(CloudinaryIndexedDb.UPLOAD_HASHES, createRecord(getKey(hash, scope), result, now()), null);
+	}
+	
+	/**
+	 * Removes the file with the given hash from the index, so it is uploaded again.
+	 */
+	public void forget(String hash, String scope) {
+		CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOAD_HASHES, getKey(hash, scope), null);
+	}
+	
+	/**
+	 * Removes all the entries of the index, such as after assets are deleted from the cloud.
+	 */
+	public void clear() {
+		CloudinaryIndexedDb.clear(CloudinaryIndexedDb.UPLOAD_HASHES, null);
+	}
+	
+	/**
+	 * Stops the worker. Pending files are reported with {@link Callback#onFailure(Object)}. The deduplicator can still be 
+	 * used, and starts a new worker when needed.
+	 */
+	public void dispose() {
+		if (worker != null) {
+			CloudinaryWorkers.terminate(worker);
+			worker = null;
+		}
+		Map<Integer, Request> disposed = new HashMap<>(pending);
+		pending.clear();
+		for (Request request : disposed.values()) {
+			request.callback.onFailure(new Exception("Hashing cancelled"));
+		}
+	}
+	
+	private static String getKey(String hash, String scope) {
+		return hash + "|" + scope;
+	}
+
+	/**
+	 * Called when the worker can't run, such as when the page's Content Security Policy blocks <code>blob:</code> workers. 
+	 * The pending files are hashed again on the main thread.
+	 */
+	private void onWorkerError() {
+		if (worker != null) {
+			CloudinaryWorkers.terminate(worker);
+			worker = null;
+		}
+		workerUnavailable = true;
+		for (Map.Entry<Integer, Request> entry : pending.entrySet()) {
+			hashOnMainThread(entry.getKey(), entry.getValue().file, readSize);
+		}
+	}
+	
+	private void onResult(int id, String hash, String error) {
+		Request request = pending.remove(id);
+		if (request == null) {
+			return;
+		}
+		if (hash == null) {
+			request.callback.onFailure(new Exception("Could not hash " + request.file.getName() + ": " + error));
+			return;
+		}
+		request.callback.onSuccess(hash);
+	}
+	
+	private static native double now() /*-{
+		return new Date().getTime();
+	}-*/;
+	
+	private static native JavaScriptObject createRecord(String key, CloudinaryUploadResultJso result, double updated) /*-{
+		return {key: key, result: result, updated: updated};
+	}-*/;
+	
+	private static native double getUpdated(JavaScriptObject record) /*-{
+		return record.updated || 0;
+	}-*/;
+	
+	private static native CloudinaryUploadResultJso getResult(JavaScriptObject record) /*-{
+		return record.result || null;
+	}-*/;
+	
+	private native void listen(JavaScriptObject worker) /*-{
+		var self = this;
+		worker.onmessage = $entry(function(e) {
+			var d = e.data;
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadDeduplicator::onResult(ILjava/lang/String;Ljava/lang/String;)(d.id, d.hash || null, d.error || null);
+		});
+		worker.onerror = $entry(function(e) {
+			e.preventDefault();
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadDeduplicator::onWorkerError()();
+		});
+	}-*/;
+	
+	private static native void postToWorker(JavaScriptObject worker, int id, CloudinaryFile file, double readSize) /*-{
+		worker.postMessage({id: id, file: file, chunkSize: readSize});
+	}-*/;
+
+	/**
+	 * Runs the source of the worker on the main thread, with a fake global scope.
+	 */
+	private native void hashOnMainThread(int id, CloudinaryFile file, double readSize) /*-{
+		var self = this;
+		var scope = {
+			postMessage: $entry(function(d) {
+				self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadDeduplicator::onResult(ILjava/lang/String;Ljava/lang/String;)(d.id, d.hash || null, d.error || null);
+			})
+		};
+		try {
+			new $wnd.Function('self', @com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadDeduplicator::WORKER_SOURCE)(scope);
+		}
+		catch (e) {
+			// no eval allowed by the page
+			scope.postMessage({id: id, error: String(e && e.message || e)});
+			return;
+		}
+		scope.onmessage({data: {id: id, file: file, chunkSize: readSize}});
+	}-*/;
+}
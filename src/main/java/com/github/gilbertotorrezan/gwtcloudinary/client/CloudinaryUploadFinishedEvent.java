@@ -27,6 +27,7 @@ package com.github.gilbertotorrezan.gwtcloudinary.client;
 import java.util.List;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.event.shared.GwtEvent;
 
 /**
@@ -48,6 +49,31 @@ public class CloudinaryUploadFinishedEvent extends GwtEvent<CloudinaryUploadFini
 		}
 	}
 	
+	/**
+	 * Fires the event using the native result directly. The {@link CloudinaryUploadInfo} list is only built when requested
+	 * by {@link #getUploadInfos()}.
+	 */
+	public static void fireUploadFinished(HasCloudinaryUploadFinishedHandlers source, String errorMessage, 
+			JavaScriptObject nativeResult, JavaScriptObject nativeError) {
+		if (TYPE != null) {
+			CloudinaryUploadFinishedEvent event = new CloudinaryUploadFinishedEvent(null, errorMessage, nativeResult, nativeError);
+			source.fireEvent(event);
+		}
+	}
+	
+	/**
+	 * Fires the event using the native result and its packed form, decoded by a Web Worker. The {@link CloudinaryUploadInfo} 
+	 * list is built from the packed form, only when requested by {@link #getUploadInfos()}.
+	 */
+	public static void fireUploadFinished(HasCloudinaryUploadFinishedHandlers source, String errorMessage, 
+			JavaScriptObject nativeResult, JavaScriptObject nativeError, CloudinaryPackedUploadResults packedResults) {
+		if (TYPE != null) {
+			CloudinaryUploadFinishedEvent event = new CloudinaryUploadFinishedEvent(null, errorMessage, nativeResult, nativeError);
+			event.packedResults = packedResults;
+			source.fireEvent(event);
+		}
+	}
+	
 	public static Type<CloudinaryUploadFinishedHandler> getType() {
 		if (TYPE == null) {
 			TYPE = new Type<CloudinaryUploadFinishedHandler>();
@@ -57,9 +83,10 @@ public class CloudinaryUploadFinishedEvent extends GwtEvent<CloudinaryUploadFini
 
 	private final boolean error;
 	private final String errorMessage;
-	private final List<CloudinaryUploadInfo> uploadInfos;
+	private List<CloudinaryUploadInfo> uploadInfos;
 	private final JavaScriptObject nativeResult;
 	private final JavaScriptObject nativeError;
+	private CloudinaryPackedUploadResults packedResults;
 
 	protected CloudinaryUploadFinishedEvent(List<CloudinaryUploadInfo> infos, String errorMessage, JavaScriptObject nativeResult, JavaScriptObject nativeError) {
 		this.error = errorMessage != null;
@@ -85,7 +112,44 @@ public class CloudinaryUploadFinishedEvent extends GwtEvent<CloudinaryUploadFini
 		return errorMessage;
 	}
 
+	/**
+	 * @return The native results as overlay types, never <code>null</code>. Reading from them doesn't copy any data.
+	 */
+	public JsArray<CloudinaryUploadResultJso> getUploadResults() {
+		if (nativeResult == null) {
+			return JavaScriptObject.createArray().cast();
+		}
+		return nativeResult.cast();
+	}
+
+	/**
+	 * @return The results packed by a Web Worker, or <code>null</code> if the results were not decoded in a worker.
+	 * 
+	 * @see CloudinaryUploadWidget#setWorkerDecoding(boolean)
+	 */
+	public CloudinaryPackedUploadResults getPackedResults() {
+		return packedResults;
+	}
+
+	/**
+	 * @return The number of uploaded files. It doesn't convert any of the results.
+	 */
+	public int getUploadCount() {
+		if (uploadInfos != null) {
+			return uploadInfos.size();
+		}
+		return nativeResult == null ? 0 : getUploadResults().length();
+	}
+
+	/**
+	 * @return The results converted to {@link CloudinaryUploadInfo} objects. When the event was created from the native result,
+	 * the returned list is fixed-size and each entry is converted only when first accessed.
+	 */
 	public List<CloudinaryUploadInfo> getUploadInfos() {
+		if (uploadInfos == null) {
+			uploadInfos = packedResults != null ? new CloudinaryUploadInfoList(packedResults) 
+					: new CloudinaryUploadInfoList(getUploadResults());
+		}
 		return uploadInfos;
 	}
 
@@ -56,8 +56,10 @@ public class CloudinaryUploadInfo implements Serializable {
 	private String path;
 	private String createdAt;
 	private String[] tags;
-	private CloudinaryCoordinates[] customCoordinates;
-	private CloudinaryCoordinates[] faceCoordinates;
+	private CloudinaryRectArray customRects;
+	private CloudinaryRectArray faceRects;
+	private transient CloudinaryCoordinates[] customCoordinates;
+	private transient CloudinaryCoordinates[] faceCoordinates;
 	
 	public String getThumbnailUrl() {
 		return thumbnailUrl;
@@ -195,19 +197,87 @@ public class CloudinaryUploadInfo implements Serializable {
 		return tags;
 	}
 
+	/**
+	 * The coordinates are stored in packed form, and the {@link CloudinaryCoordinates} objects are created on the first call and
+	 * kept until the coordinates are set again.
+	 * 
+	 * @return The custom coordinates, with <code>null</code> entries for the invalid ones, or <code>null</code> if there are no
+	 * custom coordinates.
+	 */
 	public CloudinaryCoordinates[] getCustomCoordinates() {
+		if (customCoordinates == null && customRects != null) {
+			customCoordinates = customRects.toCoordinates();
+		}
 		return customCoordinates;
 	}
 
+	/**
+	 * Sets the custom coordinates, which are packed right away: changes made to the coordinate objects afterwards are not
+	 * reflected in {@link #getCustomRects()}.
+	 */
 	public void setCustomCoordinates(CloudinaryCoordinates[] customCoordinates) {
+		this.customRects = CloudinaryRectArray.fromCoordinates(customCoordinates);
 		this.customCoordinates = customCoordinates;
 	}
 
+	/**
+	 * The coordinates are stored in packed form, and the {@link CloudinaryCoordinates} objects are created on the first call and
+	 * kept until the coordinates are set again.
+	 * 
+	 * @return The face coordinates, with <code>null</code> entries for the invalid ones, or <code>null</code> if there are no
+	 * face coordinates.
+	 */
 	public CloudinaryCoordinates[] getFaceCoordinates() {
+		if (faceCoordinates == null && faceRects != null) {
+			faceCoordinates = faceRects.toCoordinates();
+		}
 		return faceCoordinates;
 	}
 
+	/**
+	 * Sets the face coordinates, which are packed right away: changes made to the coordinate objects afterwards are not
+	 * reflected in {@link #getFaceRects()}.
+	 */
 	public void setFaceCoordinates(CloudinaryCoordinates[] faceCoordinates) {
+		this.faceRects = CloudinaryRectArray.fromCoordinates(faceCoordinates);
 		this.faceCoordinates = faceCoordinates;
 	}
+
+	/**
+	 * @return The custom coordinates in packed form, as stored, or <code>null</code> if there are no custom coordinates.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryRectArray getCustomRects() {
+		return customRects;
+	}
+
+	/**
+	 * Sets the custom coordinates in packed form, which is used directly, not copied.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public void setCustomRects(CloudinaryRectArray customRects) {
+		this.customRects = customRects;
+		this.customCoordinates = null;
+	}
+
+	/**
+	 * @return The face coordinates in packed form, as stored, or <code>null</code> if there are no face coordinates.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryRectArray getFaceRects() {
+		return faceRects;
+	}
+
+	/**
+	 * Sets the face coordinates in packed form, which is used directly, not copied.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public void setFaceRects(CloudinaryRectArray faceRects) {
+		this.faceRects = faceRects;
+		this.faceCoordinates = null;
+	}
 }
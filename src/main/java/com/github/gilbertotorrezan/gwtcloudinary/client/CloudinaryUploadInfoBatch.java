@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializable container for a batch of {@link CloudinaryUploadInfo}s, meant to be sent over GWT-RPC. Its custom field serializer
+ * writes the entries inline, without a type header per entry, and writes each distinct URL prefix (protocol, cloud name, 
+ * resource type and delivery type) once per batch. Sending a batch is considerably smaller than sending a 
+ * <code>List&lt;CloudinaryUploadInfo&gt;</code> with the same entries.
+ * <p>
+ * Example:
+ * <pre>
+ * widget.addUploadFinishedHandler(new CloudinaryUploadFinishedHandler() {
+ *     public void onUploadFinished(CloudinaryUploadFinishedEvent event) {
+ *         myService.save(new CloudinaryUploadInfoBatch(event.getUploadInfos()), callback);
+ *     }
+ * });
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadInfo_CustomFieldSerializer
+ */
+public class CloudinaryUploadInfoBatch implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	private ArrayList<CloudinaryUploadInfo> uploadInfos;
+	
+	protected CloudinaryUploadInfoBatch() {
+		this.uploadInfos = new ArrayList<>();
+	}
+
+	/**
+	 * Creates a new batch with a copy of the given list.
+	 */
+	public CloudinaryUploadInfoBatch(List<CloudinaryUploadInfo> uploadInfos) {
+		this.uploadInfos = new ArrayList<>(uploadInfos);
+	}
+	
+	/**
+	 * @return The entries of the batch. The list is mutable.
+	 */
+	public List<CloudinaryUploadInfo> getUploadInfos() {
+		return uploadInfos;
+	}
+	
+	public int size() {
+		return uploadInfos.size();
+	}
+	
+	public CloudinaryUploadInfo get(int index) {
+		return uploadInfos.get(index);
+	}
+}
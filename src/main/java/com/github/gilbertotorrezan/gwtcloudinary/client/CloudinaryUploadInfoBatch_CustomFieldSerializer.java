@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * GWT-RPC serializer for {@link CloudinaryUploadInfoBatch}. The batch is written as the table of distinct URL prefixes, 
+ * followed by the entries in the format of {@link CloudinaryUploadInfo_CustomFieldSerializer}, referencing the table by index.
+ * <code>null</code> entries are kept.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public final class CloudinaryUploadInfoBatch_CustomFieldSerializer extends CustomFieldSerializer<CloudinaryUploadInfoBatch> {
+
+	public static void serialize(SerializationStreamWriter writer, CloudinaryUploadInfoBatch batch) throws SerializationException {
+		List<CloudinaryUploadInfo> infos = batch.getUploadInfos();
+		
+		Map<String, Integer> prefixIndexes = new HashMap<>();
+		List<String> prefixes = new ArrayList<>();
+		for (CloudinaryUploadInfo info : infos) {
+			String prefix = info == null ? null : CloudinaryUploadInfo_CustomFieldSerializer.getUrlPrefix(info);
+			if (prefix != null && !prefixIndexes.containsKey(prefix)) {
+				prefixIndexes.put(prefix, prefixes.size());
+				prefixes.add(prefix);
+			}
+		}
+		
+		writer.writeInt(prefixes.size());
+		for (String prefix : prefixes) {
+			writer.writeString(prefix);
+		}
+		writer.writeInt(infos.size());
+		for (CloudinaryUploadInfo info : infos) {
+			writer.writeBoolean(info != null);
+			if (info != null) {
+				CloudinaryUploadInfo_CustomFieldSerializer.write(writer, info, prefixIndexes);
+			}
+		}
+	}
+
+	public static void deserialize(SerializationStreamReader reader, CloudinaryUploadInfoBatch batch) throws SerializationException {
+		int prefixCount = reader.readInt();
+		List<String> prefixes = new ArrayList<>(prefixCount);
+		for (int i = 0; i < prefixCount; i++) {
+			prefixes.add(reader.readString());
+		}
+		int count = reader.readInt();
+		List<CloudinaryUploadInfo> infos = batch.getUploadInfos();
+		for (int i = 0; i < count; i++) {
+			CloudinaryUploadInfo info = null;
+			if (reader.readBoolean()) {
+				info = new CloudinaryUploadInfo();
+				CloudinaryUploadInfo_CustomFieldSerializer.read(reader, info, prefixes);
+			}
+			infos.add(info);
+		}
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, CloudinaryUploadInfoBatch batch) throws SerializationException {
+		serialize(writer, batch);
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, CloudinaryUploadInfoBatch batch) throws SerializationException {
+		deserialize(reader, batch);
+	}
+}
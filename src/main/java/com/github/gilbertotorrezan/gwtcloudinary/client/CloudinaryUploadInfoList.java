@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import com.google.gwt.core.client.JsArray;
+
+/**
+ * Fixed-size list of {@link CloudinaryUploadInfo} backed by the native upload results, or by their packed form. Each entry is converted 
+ * only when first accessed, and then kept for later calls.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadFinishedEvent#getUploadInfos()
+ */
+class CloudinaryUploadInfoList extends AbstractList<CloudinaryUploadInfo> implements RandomAccess {
+	
+	private final JsArray<CloudinaryUploadResultJso> results;
+	private final CloudinaryPackedUploadResults packedResults;
+	private final CloudinaryUploadInfo[] infos;
+
+	CloudinaryUploadInfoList(JsArray<CloudinaryUploadResultJso> results) {
+		this.results = results;
+		this.packedResults = null;
+		this.infos = new CloudinaryUploadInfo[results.length()];
+	}
+	
+	CloudinaryUploadInfoList(CloudinaryPackedUploadResults packedResults) {
+		this.results = null;
+		this.packedResults = packedResults;
+		this.infos = new CloudinaryUploadInfo[packedResults.size()];
+	}
+
+	@Override
+	public CloudinaryUploadInfo get(int index) {
+		CloudinaryUploadInfo info = infos[index];
+		if (info == null) {
+			info = packedResults != null ? packedResults.toUploadInfo(index) : results.get(index).toUploadInfo();
+			infos[index] = info;
+		}
+		return info;
+	}
+
+	@Override
+	public CloudinaryUploadInfo set(int index, CloudinaryUploadInfo element) {
+		CloudinaryUploadInfo old = get(index);
+		infos[index] = element;
+		return old;
+	}
+
+	@Override
+	public int size() {
+		return infos.length;
+	}
+
+}
@@ -0,0 +1,300 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * Compact GWT-RPC serializer for {@link CloudinaryUploadInfo}. Numbers are written as plain ints with a presence bit instead of
+ * boxed {@link Integer}s, coordinates are written from their packed form as plain ints with a mask of their <code>null</code> entries and values, and the URLs are reduced to their prefix whenever they can be
+ * derived from the <code>publicId</code>, <code>version</code> and <code>format</code>:
+ * <ul>
+ * <li><code>url</code>: only the prefix before <code>v&lt;version&gt;/&lt;publicId&gt;.&lt;format&gt;</code> is written, such as 
+ * <code>http://res.cloudinary.com/demo/image/upload/</code>. Repeated prefixes are sent once by the RPC string table.</li>
+ * <li><code>secureUrl</code>: nothing is written when it is the <code>https</code> version of the <code>url</code>.</li>
+ * <li><code>thumbnailUrl</code>: only the transformation between the prefix and the version is written, such as 
+ * <code>c_limit,h_60,w_90/</code>.</li>
+ * </ul>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadInfoBatch
+ */
+public final class CloudinaryUploadInfo_CustomFieldSerializer extends CustomFieldSerializer<CloudinaryUploadInfo> {
+	
+	private static final int HAS_WIDTH = 1;
+	private static final int HAS_HEIGHT = 1 << 1;
+	private static final int HAS_BYTES = 1 << 2;
+	private static final int HAS_TAGS = 1 << 3;
+	private static final int HAS_CUSTOM_COORDINATES = 1 << 4;
+	private static final int HAS_FACE_COORDINATES = 1 << 5;
+	private static final int URL_DERIVED = 1 << 6;
+	private static final int SECURE_URL_DERIVED = 1 << 7;
+	private static final int THUMBNAIL_URL_DERIVED = 1 << 8;
+	
+	private static final int NULL_COORDINATES = CloudinaryRectArray.INVALID;
+	
+	private static final String HTTP = "http://";
+	private static final String HTTPS = "https://";
+
+	public static void serialize(SerializationStreamWriter writer, CloudinaryUploadInfo info) throws SerializationException {
+		write(writer, info, null);
+	}
+
+	public static void deserialize(SerializationStreamReader reader, CloudinaryUploadInfo info) throws SerializationException {
+		read(reader, info, null);
+	}
+
+	@Override
+	public void serializeInstance(SerializationStreamWriter writer, CloudinaryUploadInfo info) throws SerializationException {
+		serialize(writer, info);
+	}
+
+	@Override
+	public void deserializeInstance(SerializationStreamReader reader, CloudinaryUploadInfo info) throws SerializationException {
+		deserialize(reader, info);
+	}
+
+	/**
+	 * @return The part of the URL before the version and public id, or <code>null</code> if the URL can't be derived from them.
+	 */
+	static String getUrlPrefix(CloudinaryUploadInfo info) {
+		String url = info.getUrl();
+		String suffix = getUrlSuffix(info);
+		if (url == null || suffix == null || !url.endsWith(suffix)) {
+			return null;
+		}
+		return url.substring(0, url.length() - suffix.length());
+	}
+	
+	private static String getUrlSuffix(CloudinaryUploadInfo info) {
+		if (info.getPublicId() == null || info.getVersion() == null) {
+			return null;
+		}
+		String suffix = "v" + info.getVersion() + "/" + info.getPublicId();
+		return info.getFormat() == null ? suffix : suffix + "." + info.getFormat();
+	}
+
+	/**
+	 * Writes the fields of the info.
+	 * 
+	 * @param prefixIndexes When not <code>null</code>, the URL prefixes are written as indexes of this table instead of strings.
+	 */
+	static void write(SerializationStreamWriter writer, CloudinaryUploadInfo info, Map<String, Integer> prefixIndexes) 
+			throws SerializationException {
+		String prefix = getUrlPrefix(info);
+		String thumbnailTransformation = null;
+		
+		int flags = 0;
+		if (info.getWidth() != null) {
+			flags |= HAS_WIDTH;
+		}
+		if (info.getHeight() != null) {
+			flags |= HAS_HEIGHT;
+		}
+		if (info.getBytes() != null) {
+			flags |= HAS_BYTES;
+		}
+		if (info.getTags() != null) {
+			flags |= HAS_TAGS;
+		}
+		if (info.getCustomRects() != null) {
+			flags |= HAS_CUSTOM_COORDINATES;
+		}
+		if (info.getFaceRects() != null) {
+			flags |= HAS_FACE_COORDINATES;
+		}
+		if (prefix != null) {
+			flags |= URL_DERIVED;
+			String url = info.getUrl();
+			String secureUrl = info.getSecureUrl();
+			if (secureUrl != null && url.startsWith(HTTP) && secureUrl.startsWith(HTTPS) 
+					&& secureUrl.length() == url.length() + 1 && secureUrl.endsWith(url.substring(HTTP.length()))) {
+				flags |= SECURE_URL_DERIVED;
+			}
+			String thumbnailUrl = info.getThumbnailUrl();
+			String suffix = url.substring(prefix.length());
+			if (thumbnailUrl != null && thumbnailUrl.startsWith(prefix) && thumbnailUrl.endsWith(suffix)
+					&& thumbnailUrl.length() >= prefix.length() + suffix.length()) {
+				flags |= THUMBNAIL_URL_DERIVED;
+				thumbnailTransformation = thumbnailUrl.substring(prefix.length(), thumbnailUrl.length() - suffix.length());
+			}
+		}
+		
+		writer.writeInt(flags);
+		writer.writeString(info.getPublicId());
+		writer.writeString(info.getVersion());
+		writer.writeString(info.getFormat());
+		writer.writeString(info.getType());
+		writer.writeString(info.getResourceType());
+		writer.writeString(info.getSignature());
+		writer.writeString(info.getEtag());
+		writer.writeString(info.getOriginalFilename());
+		writer.writeString(info.getPath());
+		writer.writeString(info.getCreatedAt());
+		
+		if (prefix == null) {
+			writer.writeString(info.getUrl());
+		}
+		else if (prefixIndexes != null) {
+			writer.writeInt(prefixIndexes.get(prefix));
+		}
+		else {
+			writer.writeString(prefix);
+		}
+		if ((flags & SECURE_URL_DERIVED) == 0) {
+			writer.writeString(info.getSecureUrl());
+		}
+		writer.writeString((flags & THUMBNAIL_URL_DERIVED) == 0 ? info.getThumbnailUrl() : thumbnailTransformation);
+		
+		if ((flags & HAS_WIDTH) != 0) {
+			writer.writeInt(info.getWidth());
+		}
+		if ((flags & HAS_HEIGHT) != 0) {
+			writer.writeInt(info.getHeight());
+		}
+		if ((flags & HAS_BYTES) != 0) {
+			writer.writeInt(info.getBytes());
+		}
+		if ((flags & HAS_TAGS) != 0) {
+			String[] tags = info.getTags();
+			writer.writeInt(tags.length);
+			for (String tag : tags) {
+				writer.writeString(tag);
+			}
+		}
+		if ((flags & HAS_CUSTOM_COORDINATES) != 0) {
+			writeCoordinates(writer, info.getCustomRects());
+		}
+		if ((flags & HAS_FACE_COORDINATES) != 0) {
+			writeCoordinates(writer, info.getFaceRects());
+		}
+	}
+
+	/**
+	 * Reads the fields written by {@link #write(SerializationStreamWriter, CloudinaryUploadInfo, Map)}.
+	 * 
+	 * @param prefixes When not <code>null</code>, the URL prefixes are read as indexes of this table instead of strings.
+	 */
+	static void read(SerializationStreamReader reader, CloudinaryUploadInfo info, List<String> prefixes) throws SerializationException {
+		int flags = reader.readInt();
+		info.setPublicId(reader.readString());
+		info.setVersion(reader.readString());
+		info.setFormat(reader.readString());
+		info.setType(reader.readString());
+		info.setResourceType(reader.readString());
+		info.setSignature(reader.readString());
+		info.setEtag(reader.readString());
+		info.setOriginalFilename(reader.readString());
+		info.setPath(reader.readString());
+		info.setCreatedAt(reader.readString());
+		
+		if ((flags & URL_DERIVED) == 0) {
+			info.setUrl(reader.readString());
+			info.setSecureUrl(reader.readString());
+			info.setThumbnailUrl(reader.readString());
+		}
+		else {
+			String prefix = prefixes != null ? prefixes.get(reader.readInt()) : reader.readString();
+			String suffix = getUrlSuffix(info);
+			String url = prefix + suffix;
+			info.setUrl(url);
+			info.setSecureUrl((flags & SECURE_URL_DERIVED) == 0 ? reader.readString() : HTTPS + url.substring(HTTP.length()));
+			String thumbnail = reader.readString();
+			info.setThumbnailUrl((flags & THUMBNAIL_URL_DERIVED) == 0 ? thumbnail : prefix + thumbnail + suffix);
+		}
+		
+		if ((flags & HAS_WIDTH) != 0) {
+			info.setWidth(reader.readInt());
+		}
+		if ((flags & HAS_HEIGHT) != 0) {
+			info.setHeight(reader.readInt());
+		}
+		if ((flags & HAS_BYTES) != 0) {
+			info.setBytes(reader.readInt());
+		}
+		if ((flags & HAS_TAGS) != 0) {
+			String[] tags = new String[reader.readInt()];
+			for (int i = 0; i < tags.length; i++) {
+				tags[i] = reader.readString();
+			}
+			info.setTags(tags);
+		}
+		if ((flags & HAS_CUSTOM_COORDINATES) != 0) {
+			info.setCustomRects(readCoordinates(reader));
+		}
+		if ((flags & HAS_FACE_COORDINATES) != 0) {
+			info.setFaceRects(readCoordinates(reader));
+		}
+	}
+	
+	/**
+	 * Writes the length of the array, and for each entry a mask of its <code>null</code> values followed by the other values.
+	 */
+	private static void writeCoordinates(SerializationStreamWriter writer, CloudinaryRectArray rects) throws SerializationException {
+		int length = rects.length();
+		writer.writeInt(length);
+		for (int i = 0; i < length; i++) {
+			int mask = rects.mask(i);
+			if ((mask & CloudinaryRectArray.INVALID) != 0) {
+				writer.writeInt(NULL_COORDINATES);
+				continue;
+			}
+			writer.writeInt(mask);
+			for (int value = 0; value < 4; value++) {
+				if ((mask & (1 << value)) == 0) {
+					writer.writeInt(rects.getValues()[i * 4 + value]);
+				}
+			}
+		}
+	}
+	
+	private static CloudinaryRectArray readCoordinates(SerializationStreamReader reader) throws SerializationException {
+		int length = reader.readInt();
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder(length);
+		for (int i = 0; i < length; i++) {
+			int mask = reader.readInt();
+			if ((mask & NULL_COORDINATES) != 0) {
+				builder.addInvalid();
+				continue;
+			}
+			builder.add(readMaskedValue(reader, mask, 0), readMaskedValue(reader, mask, 1), readMaskedValue(reader, mask, 2), 
+					readMaskedValue(reader, mask, 3), mask);
+		}
+		return builder.build();
+	}
+	
+	private static int readMaskedValue(SerializationStreamReader reader, int mask, int value) throws SerializationException {
+		return (mask & (1 << value)) != 0 ? 0 : reader.readInt();
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * Event triggered by the Upload Widget when files are added to the upload queue or finish uploading. The progress is
+ * measured in files, since the Upload Widget doesn't report the bytes sent for files in flight.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadProgressEvent extends GwtEvent<CloudinaryUploadProgressHandler> {
+
+	private static Type<CloudinaryUploadProgressHandler> TYPE;
+
+	public static void fireUploadProgress(HasCloudinaryUploadProgressHandlers source, int completedCount, int totalCount, double uploadedBytes) {
+		if (TYPE != null) {
+			CloudinaryUploadProgressEvent event = new CloudinaryUploadProgressEvent(completedCount, totalCount, uploadedBytes);
+			source.fireEvent(event);
+		}
+	}
+	
+	public static Type<CloudinaryUploadProgressHandler> getType() {
+		if (TYPE == null) {
+			TYPE = new Type<CloudinaryUploadProgressHandler>();
+		}
+		return TYPE;
+	}
+
+	private final int completedCount;
+	private final int totalCount;
+	private final double uploadedBytes;
+
+	protected CloudinaryUploadProgressEvent(int completedCount, int totalCount, double uploadedBytes) {
+		this.completedCount = completedCount;
+		this.totalCount = totalCount;
+		this.uploadedBytes = uploadedBytes;
+	}
+	
+	/**
+	 * @return The number of files uploaded so far in the current queue.
+	 */
+	public int getCompletedCount() {
+		return completedCount;
+	}
+	
+	/**
+	 * @return The number of files added to the current queue. It may grow while the upload is running.
+	 */
+	public int getTotalCount() {
+		return totalCount;
+	}
+	
+	/**
+	 * @return The sum of the sizes of the files uploaded so far in the current queue.
+	 */
+	public double getUploadedBytes() {
+		return uploadedBytes;
+	}
+	
+	/**
+	 * @return The fraction of files uploaded, from 0 to 1.
+	 */
+	public double getProgress() {
+		if (totalCount <= 0) {
+			return 0;
+		}
+		return Math.min(1.0, (double) completedCount / totalCount);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Override
+	public final Type<CloudinaryUploadProgressHandler> getAssociatedType() {
+		return (Type) TYPE;
+	}
+
+	@Override
+	protected void dispatch(CloudinaryUploadProgressHandler handler) {
+		handler.onUploadProgress(this);
+	}
+
+}
@@ -0,0 +1,447 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+
+/**
+ * A durable queue of uploads, that retries failed uploads in the background until they succeed. The files added to the queue
+ * are persisted in IndexedDB, so the uploads that didn't complete can be {@link #restore() restored} after a page reload.
+ * <p>
+ * The files are uploaded by a {@link CloudinaryUploader}, which can be configured by {@link #getUploader()} (chunk size, 
+ * preprocessor, resumable uploads...), with at most {@link #setConcurrency(int) concurrency} uploads in flight. Uploads that
+ * fail because of the network or the server are retried with jittered exponential backoff, up to the 
+ * {@link #setMaxAttempts(int) max attempts}. While the browser is offline the retries wait, and they are sent as soon as the
+ * browser is back <code>online</code>. Uploads rejected by the server (such as by an invalid preset) are not retried.
+ * <p>
+ * A {@link CloudinaryUploadFinishedEvent} is fired for each item, when it is uploaded or fails for good. The 
+ * {@link #getRetryCount() retry}, {@link #getFailureCount() failure} and {@link #getCompletedCount() completion} counters can
+ * be used to monitor the health of the uploads.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryUploadQueue queue = new CloudinaryUploadQueue(config).setConcurrency(2);
+ * queue.addCloudinaryUploadFinishedHandler(handler);
+ * queue.restore(); //uploads the files left from previous sessions
+ * queue.add(files);
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadQueue implements HasCloudinaryUploadFinishedHandlers {
+	
+	public static final int DEFAULT_MAX_ATTEMPTS = 10;
+	
+	/**
+	 * The default delay before the first retry: 1 second.
+	 */
+	public static final int DEFAULT_INITIAL_BACKOFF = 1000;
+	
+	/**
+	 * The default max delay between retries: 5 minutes.
+	 */
+	public static final int DEFAULT_MAX_BACKOFF = 5 * 60 * 1000;
+	
+	/**
+	 * A file in the queue.
+	 */
+	private static class Item {
+		
+		final String key;
+		final CloudinaryFile file;
+		int attempts;
+		boolean waiting;
+		
+		/**
+		 * Incremented whenever a retry is scheduled, so the earlier scheduled retries are ignored.
+		 */
+		int retryToken;
+		
+		Item(String key, CloudinaryFile file) {
+			this.key = key;
+			this.file = file;
+		}
+	}
+	
+	private final HandlerManager handlerManager = new HandlerManager(this);
+	private final CloudinaryUploader uploader;
+	
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+	private int initialBackoff = DEFAULT_INITIAL_BACKOFF;
+	private int maxBackoff = DEFAULT_MAX_BACKOFF;
+	
+	private final Map<String, Item> items = new LinkedHashMap<>();
+	private int completedCount;
+	private int failureCount;
+	private int retryCount;
+	private JavaScriptObject onlineListener;
+
+	/**
+	 * @param config The options of the uploads, as in {@link CloudinaryUploader#CloudinaryUploader(CloudinaryWidgetConfig)}.
+	 */
+	public CloudinaryUploadQueue(CloudinaryWidgetConfig config) {
+		uploader = new CloudinaryUploader(config) {
+			@Override
+			void onUploadCompleted(Upload upload, CloudinaryUploadResultJso result) {
+				super.onUploadCompleted(upload, result);
+				onItemUploaded((Item) upload.data, result);
+			}
+			@Override
+			void onUploadFailed(Upload upload, int status, JavaScriptObject response) {
+				super.onUploadFailed(upload, status, response);
+				onItemFailed((Item) upload.data, status, getFailureMessage(upload, status, response));
+			}
+		};
+		onlineListener = listenOnline();
+	}
+
+	/**
+	 * @return The uploader of the files. Its own {@link CloudinaryUploadFinishedEvent}s report the uploads attempted at once,
+	 * including the attempts that will be retried: listen to the events of the queue instead.
+	 */
+	public CloudinaryUploader getUploader() {
+		return uploader;
+	}
+	
+	/**
+	 * @param concurrency The max number of uploads in flight. Default: {@value CloudinaryUploader#DEFAULT_CONCURRENCY}
+	 */
+	public CloudinaryUploadQueue setConcurrency(int concurrency) {
+		uploader.setConcurrency(concurrency);
+		return this;
+	}
+	
+	public int getConcurrency() {
+		return uploader.getConcurrency();
+	}
+	
+	/**
+	 * @param maxAttempts The max number of attempts to upload each file, including the first one. 0 for no limit. 
+	 * Default: {@value #DEFAULT_MAX_ATTEMPTS}
+	 */
+	public CloudinaryUploadQueue setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = Math.max(0, maxAttempts);
+		return this;
+	}
+	
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+	
+	/**
+	 * @param initialBackoff The max delay before the first retry, in milliseconds. The max delay doubles at each attempt, and
+	 * the actual delay is randomized between half of it and all of it, so clients that failed together don't retry together.
+	 * Default: {@value #DEFAULT_INITIAL_BACKOFF}
+	 */
+	public CloudinaryUploadQueue setInitialBackoff(int initialBackoff) {
+		this.initialBackoff = Math.max(0, initialBackoff);
+		return this;
+	}
+	
+	public int getInitialBackoff() {
+		return initialBackoff;
+	}
+	
+	/**
+	 * @param maxBackoff The max delay between retries, in milliseconds. Default: 5 minutes
+	 */
+	public CloudinaryUploadQueue setMaxBackoff(int maxBackoff) {
+		this.maxBackoff = Math.max(0, maxBackoff);
+		return this;
+	}
+	
+	public int getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	/**
+	 * Adds the files to the queue. A native <code>FileList</code> can be cast to a <code>JsArray&lt;CloudinaryFile&gt;</code>.
+	 */
+	public void add(JsArray<CloudinaryFile> files) {
+		for (int i = 0; i < files.length(); i++) {
+			add(files.get(i));
+		}
+	}
+	
+	/**
+	 * Adds the files to the queue.
+	 */
+	public void add(List<CloudinaryFile> files) {
+		for (CloudinaryFile file : files) {
+			add(file);
+		}
+	}
+	
+	/**
+	 * Adds the file to the queue, and persists it until it is uploaded or fails for good.
+	 */
+	public void add(CloudinaryFile file) {
+		Item item = new Item(createKey(), file);
+		if (CloudinaryIndexedDb.isSupported()) {
+			// a file that can't be persisted (such as when over quota) is still uploaded
+			CloudinaryIndexedDb.put(CloudinaryIndexedDb.UPLOAD_QUEUE, createRecord(item.key, uploader.getUploadUrl(), file), null);
+		}
+		start(item);
+	}
+
+	/**
+	 * Adds the files persisted by previous sessions to the queue, such as after a page reload. Only the files of the same
+	 * {@link CloudinaryUploader#getUploadUrl() upload URL} are restored.
+	 */
+	public void restore() {
+		if (!CloudinaryIndexedDb.isSupported()) {
+			return;
+		}
+		CloudinaryIndexedDb.getAll(CloudinaryIndexedDb.UPLOAD_QUEUE, new Callback<JavaScriptObject, Exception>() {
+			@Override
+			public void onSuccess(JavaScriptObject result) {
+				JsArray<JavaScriptObject> records = result.cast();
+				String url = uploader.getUploadUrl();
+				for (int i = 0; i < records.length(); i++) {
+					JavaScriptObject record = records.get(i);
+					String key = getKey(record);
+					if (!url.equals(getUrl(record)) || items.containsKey(key)) {
+						continue;
+					}
+					CloudinaryFile file = CloudinaryUploadStateStore.getBlob(record);
+					if (file == null) {
+						CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOAD_QUEUE, key, null);
+						continue;
+					}
+					start(new Item(key, file));
+				}
+			}
+			@Override
+			public void onFailure(Exception reason) {
+			}
+		});
+	}
+	
+	/**
+	 * Sends the retries that are waiting for their backoff delay right away, such as when the user asks to.
+	 */
+	public void retryNow() {
+		for (Item item : new ArrayList<>(items.values())) {
+			if (item.waiting) {
+				retry(item);
+			}
+		}
+	}
+	
+	/**
+	 * Cancels all the uploads and removes the files from the queue and from the persisted storage. No event is fired for 
+	 * the removed files.
+	 */
+	public void clear() {
+		for (Item item : items.values()) {
+			item.retryToken++;
+			CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOAD_QUEUE, item.key, null);
+		}
+		items.clear();
+		uploader.cancel();
+	}
+	
+	/**
+	 * Stops listening to the <code>online</code> events of the browser. The files left in the queue stay persisted, and can be
+	 * restored by another queue.
+	 */
+	public void dispose() {
+		for (Item item : items.values()) {
+			item.retryToken++;
+		}
+		items.clear();
+		uploader.cancel();
+		if (onlineListener != null) {
+			unlistenOnline(onlineListener);
+			onlineListener = null;
+		}
+	}
+	
+	/**
+	 * @return The number of files in the queue: being uploaded, or waiting to be retried.
+	 */
+	public int getPendingCount() {
+		return items.size();
+	}
+	
+	/**
+	 * @return The number of files uploaded since the queue was created.
+	 */
+	public int getCompletedCount() {
+		return completedCount;
+	}
+	
+	/**
+	 * @return The number of files that failed for good since the queue was created, after all the attempts or because they 
+	 * were rejected by the server.
+	 */
+	public int getFailureCount() {
+		return failureCount;
+	}
+	
+	/**
+	 * @return The number of retries since the queue was created.
+	 */
+	public int getRetryCount() {
+		return retryCount;
+	}
+	
+	private void start(Item item) {
+		items.put(item.key, item);
+		send(item);
+	}
+	
+	private void send(Item item) {
+		item.attempts++;
+		CloudinaryUploader.Upload upload = new CloudinaryUploader.Upload(item.file);
+		upload.data = item;
+		uploader.enqueue(upload);
+	}
+	
+	private void retry(Item item) {
+		if (!item.waiting) {
+			return;
+		}
+		item.waiting = false;
+		item.retryToken++;
+		retryCount++;
+		send(item);
+	}
+	
+	private void onItemUploaded(Item item, CloudinaryUploadResultJso result) {
+		if (item == null || items.remove(item.key) == null) {
+			return;
+		}
+		CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOAD_QUEUE, item.key, null);
+		completedCount++;
+		JsArray<CloudinaryUploadResultJso> results = JavaScriptObject.createArray().cast();
+		results.push(result);
+		CloudinaryUploadFinishedEvent.fireUploadFinished(this, null, results, null);
+	}
+	
+	private void onItemFailed(final Item item, int status, String message) {
+		if (item == null || !items.containsKey(item.key)) {
+			return;
+		}
+		// rejected by the server: retrying would fail the same way
+		boolean rejected = status >= 400 && status < 500 && status != 408 && status != 429;
+		if (rejected || (maxAttempts > 0 && item.attempts >= maxAttempts)) {
+			items.remove(item.key);
+			CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOAD_QUEUE, item.key, null);
+			failureCount++;
+			CloudinaryUploadFinishedEvent.fireUploadFinished(this, message, JavaScriptObject.createArray(), 
+					CloudinaryUploader.createError(message));
+			return;
+		}
+		item.waiting = true;
+		if (isOffline()) {
+			// retried by the online event, without spending the attempts
+			item.attempts--;
+			return;
+		}
+		final int token = ++item.retryToken;
+		Scheduler.get().scheduleFixedDelay(new RepeatingCommand() {
+			@Override
+			public boolean execute() {
+				if (item.retryToken == token) {
+					retry(item);
+				}
+				return false;
+			}
+		}, getBackoff(item.attempts));
+	}
+	
+	/**
+	 * @return The delay before the retry after the given number of failed attempts, with jitter.
+	 */
+	private int getBackoff(int attempts) {
+		double delay = Math.min(maxBackoff, initialBackoff * Math.pow(2, attempts - 1));
+		return (int) (delay / 2 + Math.random() * delay / 2);
+	}
+	
+	private static String createKey() {
+		return Long.toString((long) now(), 36) + Long.toString((long) (Math.random() * 0x100000000L), 36);
+	}
+	
+	private static native double now() /*-{
+		return new Date().getTime();
+	}-*/;
+	
+	private static native boolean isOffline() /*-{
+		return $wnd.navigator.onLine === false;
+	}-*/;
+	
+	private static native JavaScriptObject createRecord(String key, String url, CloudinaryFile file) /*-{
+		return {key: key, url: url, blob: file, name: file.name || null, added: new Date().getTime()};
+	}-*/;
+	
+	private static native String getKey(JavaScriptObject record) /*-{
+		return record.key;
+	}-*/;
+	
+	private static native String getUrl(JavaScriptObject record) /*-{
+		return record.url || null;
+	}-*/;
+	
+	private native JavaScriptObject listenOnline() /*-{
+		if (!$wnd.addEventListener) {
+			return null;
+		}
+		var self = this;
+		var listener = $entry(function() {
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadQueue::retryNow()();
+		});
+		$wnd.addEventListener('online', listener, false);
+		return listener;
+	}-*/;
+	
+	private static native void unlistenOnline(JavaScriptObject listener) /*-{
+		$wnd.removeEventListener('online', listener, false);
+	}-*/;
+
+	@Override
+	public void fireEvent(GwtEvent<?> event) {
+		handlerManager.fireEvent(event);
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryUploadFinishedHandler(CloudinaryUploadFinishedHandler handler) {
+		return handlerManager.addHandler(CloudinaryUploadFinishedEvent.getType(), handler);
+	}
+}
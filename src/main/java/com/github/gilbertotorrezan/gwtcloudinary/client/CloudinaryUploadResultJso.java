@@ -0,0 +1,220 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * Overlay type for a single upload result returned by the Upload Widget. The fields are read directly from the native
+ * object, without any intermediate wrapper or copy.
+ * <p>
+ * Missing or mistyped string fields are returned as <code>null</code>, and missing numeric fields are returned as <code>0</code>
+ * (use {@link #hasNumber(String)} to tell them apart).
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadFinishedEvent#getUploadResults()
+ */
+public class CloudinaryUploadResultJso extends JavaScriptObject {
+
+	protected CloudinaryUploadResultJso() {
+	}
+
+	public final String getPublicId() {
+		return getString("public_id");
+	}
+
+	public final String getSecureUrl() {
+		return getString("secure_url");
+	}
+
+	public final String getThumbnailUrl() {
+		return getString("thumbnail_url");
+	}
+
+	public final String getUrl() {
+		return getString("url");
+	}
+
+	public final String getType() {
+		return getString("type");
+	}
+
+	/**
+	 * @return The version of the resource. Cloudinary returns it as a number, which is converted to a String here.
+	 */
+	public final native String getVersion()/*-{
+		var v = this.version;
+		return (typeof v === 'string' || typeof v === 'number') ? String(v) : null;
+	}-*/;
+
+	public final int getWidth() {
+		return getInt("width");
+	}
+
+	public final int getHeight() {
+		return getInt("height");
+	}
+
+	public final String getFormat() {
+		return getString("format");
+	}
+
+	public final String getResourceType() {
+		return getString("resource_type");
+	}
+
+	public final String getSignature() {
+		return getString("signature");
+	}
+
+	public final int getBytes() {
+		return getInt("bytes");
+	}
+
+	public final String getOriginalFilename() {
+		return getString("original_filename");
+	}
+
+	public final String getEtag() {
+		return getString("etag");
+	}
+
+	public final String getPath() {
+		return getString("path");
+	}
+
+	public final String getCreatedAt() {
+		return getString("created_at");
+	}
+
+	/**
+	 * @return The native tags array, or <code>null</code> if the result has no tags.
+	 */
+	public final native JsArrayString getTags()/*-{
+		var tags = this.tags;
+		return Object.prototype.toString.call(tags) === '[object Array]' ? tags : null;
+	}-*/;
+
+	/**
+	 * Passes each rectangle of the given kind to the visitor, without creating any intermediate object.
+	 * 
+	 * @return The number of visited rectangles, or -1 if there are no coordinates of the given kind.
+	 */
+	public final int visitCoordinates(CloudinaryCoordinatesKind kind, CloudinaryRectVisitor visitor) {
+		return CloudinaryCoordinatesParser.parse(this, kind, visitor);
+	}
+
+	/**
+	 * @return The coordinates of the given kind in packed form, with all their entries, or <code>null</code> if not present.
+	 * 
+	 * @see CloudinaryCoordinatesParser#toRects(JavaScriptObject)
+	 */
+	public final CloudinaryRectArray getRects(CloudinaryCoordinatesKind kind) {
+		JavaScriptObject array = CloudinaryCoordinatesParser.getCoordinatesArray(this, kind);
+		return array == null ? null : CloudinaryCoordinatesParser.toRects(array);
+	}
+
+	/**
+	 * @return The string value of the given field, or <code>null</code> if the field is not present or is not a string.
+	 */
+	public final native String getString(String key)/*-{
+		var v = this[key];
+		return typeof v === 'string' ? v : null;
+	}-*/;
+
+	/**
+	 * @return The numeric value of the given field truncated to an int, or <code>0</code> if the field is not present or is not a number.
+	 */
+	public final native int getInt(String key)/*-{
+		var v = this[key];
+		return typeof v === 'number' ? (v | 0) : 0;
+	}-*/;
+
+	/**
+	 * @return <code>true</code> if the given field is present and is a number.
+	 */
+	public final native boolean hasNumber(String key)/*-{
+		return typeof this[key] === 'number';
+	}-*/;
+
+	/**
+	 * Copies the fields of this native result to a new {@link CloudinaryUploadInfo}.
+	 */
+	public final CloudinaryUploadInfo toUploadInfo() {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setPublicId(getPublicId());
+		info.setSecureUrl(getSecureUrl());
+		info.setThumbnailUrl(getThumbnailUrl());
+		info.setUrl(getUrl());
+		info.setType(getType());
+		info.setVersion(getVersion());
+		info.setWidth(getSafeInteger("width"));
+		info.setHeight(getSafeInteger("height"));
+		info.setFormat(getFormat());
+		info.setResourceType(getResourceType());
+		info.setSignature(getSignature());
+		info.setBytes(getSafeInteger("bytes"));
+		info.setOriginalFilename(getOriginalFilename());
+		info.setEtag(getEtag());
+		info.setPath(getPath());
+		info.setCreatedAt(getCreatedAt());
+		
+		JsArrayString tagsArray = getTags();
+		if (tagsArray != null){
+			String[] tags = new String[tagsArray.length()];
+			for (int i = 0; i < tags.length; i++){
+				tags[i] = tagsArray.get(i);
+			}
+			info.setTags(tags);
+		}
+		
+		info.setCustomRects(getCustomRects());
+		info.setFaceRects(getFaceRects());
+		return info;
+	}
+
+	private Integer getSafeInteger(String key) {
+		return hasNumber(key) ? Integer.valueOf(getInt(key)) : null;
+	}
+
+	/**
+	 * @return The custom coordinates in packed form, or <code>null</code> if not present.
+	 */
+	public final CloudinaryRectArray getCustomRects() {
+		return getRects(CloudinaryCoordinatesKind.CUSTOM);
+	}
+
+	/**
+	 * @return The face coordinates in packed form, or <code>null</code> if not present.
+	 */
+	public final CloudinaryRectArray getFaceRects() {
+		return getRects(CloudinaryCoordinatesKind.FACES);
+	}
+
+}
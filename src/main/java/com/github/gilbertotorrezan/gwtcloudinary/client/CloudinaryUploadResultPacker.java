@@ -0,0 +1,225 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Packs batches of native upload results into {@link CloudinaryPackedUploadResults} in a Web Worker, so large batches are 
+ * normalized off the main thread. A single worker is shared by the whole application, and the batches are packed in order.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+final class CloudinaryUploadResultPacker {
+	
+	/**
+	 * Generated from the layout constants of the {@link CloudinaryPackedUploadResults}, the keys of the 
+	 * {@link CloudinaryCoordinatesKind}s and the {@link CloudinaryCoordinatesParser#PACK_RECTS_SOURCE}.
+	 */
+	static final String WORKER_SOURCE = createWorkerSource();
+	
+	private static String createWorkerSource() {
+		StringBuilder kinds = new StringBuilder("[");
+		for (CloudinaryCoordinatesKind kind : CloudinaryCoordinatesKind.values()) {
+			if (kinds.length() > 1) {
+				kinds.append(", ");
+			}
+			kinds.append(toJsArray(kind.getKeys()));
+		}
+		kinds.append(']');
+		return 
+			"var STRING_FIELDS = " + toJsArray(CloudinaryPackedUploadResults.STRING_KEYS) + ";\n" + 
+			"var NUMBER_FIELDS = " + toJsArray(CloudinaryPackedUploadResults.NUMBER_KEYS) + ";\n" + 
+			"var KINDS = " + kinds + ";\n" + 
+			"var VERSION = " + CloudinaryPackedUploadResults.VERSION + ", WIDTH = " + CloudinaryPackedUploadResults.WIDTH + 
+				", FLAGS = " + CloudinaryPackedUploadResults.FLAGS + ", TAGS = " + CloudinaryPackedUploadResults.TAGS + 
+				", RECTS = " + CloudinaryPackedUploadResults.RECTS + ", STRIDE = " + CloudinaryPackedUploadResults.STRIDE + ";\n" + 
+			CloudinaryCoordinatesParser.PACK_RECTS_SOURCE + 
+			"function pack(results) {\n" + 
+			"  var count = results.length, fields = new Int32Array(count * STRIDE), strings = [], indexes = {}, tags = [], rects = [],\n" + 
+			"    masks = [];\n" + 
+			"  var intern = function(value) {\n" + 
+			"    if (typeof value !== 'string') {\n" + 
+			"      return -1;\n" + 
+			"    }\n" + 
+			"    var index = indexes['$' + value];\n" + 
+			"    if (index === undefined) {\n" + 
+			"      index = strings.length;\n" + 
+			"      strings.push(value);\n" + 
+			"      indexes['$' + value] = index;\n" + 
+			"    }\n" + 
+			"    return index;\n" + 
+			"  };\n" + 
+			"  for (var i = 0; i < count; i++) {\n" + 
+			"    var r = results[i] || {}, o = i * STRIDE, j, flags = 0;\n" + 
+			"    for (j = 0; j < STRING_FIELDS.length; j++) {\n" + 
+			"      var value = r[STRING_FIELDS[j]];\n" + 
+			"      fields[o + j] = intern(j === VERSION && typeof value === 'number' ? String(value) : value);\n" + 
+			"    }\n" + 
+			"    for (j = 0; j < NUMBER_FIELDS.length; j++) {\n" + 
+			"      var number = r[NUMBER_FIELDS[j]];\n" + 
+			"      if (typeof number === 'number') {\n" + 
+			"        fields[o + WIDTH + j] = number | 0;\n" + 
+			"        flags |= 1 << j;\n" + 
+			"      }\n" + 
+			"    }\n" + 
+			"    fields[o + FLAGS] = flags;\n" + 
+			"    if (Object.prototype.toString.call(r.tags) === '[object Array]') {\n" + 
+			"      fields[o + TAGS] = tags.length;\n" + 
+			"      fields[o + TAGS + 1] = r.tags.length;\n" + 
+			"      for (j = 0; j < r.tags.length; j++) {\n" + 
+			"        tags.push(intern(r.tags[j]));\n" + 
+			"      }\n" + 
+			"    }\n" + 
+			"    else {\n" + 
+			"      fields[o + TAGS + 1] = -1;\n" + 
+			"    }\n" + 
+			"    for (j = 0; j < KINDS.length; j++) {\n" + 
+			"      fields[o + RECTS + 2 * j] = masks.length;\n" + 
+			"      fields[o + RECTS + 2 * j + 1] = packRects(r.coordinates, KINDS[j], rects, masks);\n" + 
+			"    }\n" + 
+			"  }\n" + 
+			"  var offsets = new Int32Array(strings.length + 1);\n" + 
+			"  for (i = 0; i < strings.length; i++) {\n" + 
+			"    offsets[i + 1] = offsets[i] + strings[i].length;\n" + 
+			"  }\n" + 
+			"  return {count: count, strings: strings.join(''), offsets: offsets, fields: fields, tags: new Int32Array(tags), \n" + 
+			"    rects: new Int32Array(rects), masks: new Int32Array(masks)};\n" + 
+			"}\n" + 
+			"self.onmessage = function(e) {\n" + 
+			"  var d = e.data, packed;\n" + 
+			"  try {\n" + 
+			"    packed = pack(d.results);\n" + 
+			"  }\n" + 
+			"  catch (error) {\n" + 
+			"    self.postMessage({id: d.id, error: String(error && error.message || error)});\n" + 
+			"    return;\n" + 
+			"  }\n" + 
+			"  self.postMessage({id: d.id, packed: packed}, [packed.offsets.buffer, packed.fields.buffer, packed.tags.buffer, \n" + 
+			"    packed.rects.buffer, packed.masks.buffer]);\n" + 
+			"};\n";
+	}
+	
+	private static String toJsArray(String[] values) {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append('\'').append(values[i]).append('\'');
+		}
+		return builder.append(']').toString();
+	}
+	
+	private static JavaScriptObject worker;
+	private static boolean workerUnavailable;
+	private static int nextId;
+	private static final Map<Integer, Callback<CloudinaryPackedUploadResults, Exception>> pending = new HashMap<>();
+	
+	private CloudinaryUploadResultPacker() {
+	}
+
+	/**
+	 * Packs the results in the worker. The callback gets {@link Callback#onFailure(Object)} right away if the browser can't 
+	 * run the worker, so the caller can use the native results instead.
+	 * 
+	 * @param results The native array of results.
+	 */
+	static void pack(JavaScriptObject results, Callback<CloudinaryPackedUploadResults, Exception> callback) {
+		if (worker == null && !workerUnavailable) {
+			worker = CloudinaryWorkers.create(WORKER_SOURCE);
+			workerUnavailable = worker == null;
+			if (worker != null) {
+				listen(worker);
+			}
+		}
+		if (worker == null) {
+			callback.onFailure(new Exception("Web Workers are not available"));
+			return;
+		}
+		int id = nextId++;
+		pending.put(id, callback);
+		if (!postToWorker(worker, id, results)) {
+			// not cloneable, such as results with functions
+			pending.remove(id);
+			callback.onFailure(new Exception("The results can't be sent to the worker"));
+		}
+	}
+
+	/**
+	 * Called when the worker can't run, such as when the page's Content Security Policy blocks <code>blob:</code> workers. 
+	 */
+	private static void onWorkerError() {
+		if (worker != null) {
+			CloudinaryWorkers.terminate(worker);
+			worker = null;
+		}
+		workerUnavailable = true;
+		Map<Integer, Callback<CloudinaryPackedUploadResults, Exception>> failed = new HashMap<>(pending);
+		pending.clear();
+		for (Callback<CloudinaryPackedUploadResults, Exception> callback : failed.values()) {
+			callback.onFailure(new Exception("The worker could not run"));
+		}
+	}
+	
+	private static void onResult(int id, JavaScriptObject packed, String error) {
+		Callback<CloudinaryPackedUploadResults, Exception> callback = pending.remove(id);
+		if (callback == null) {
+			return;
+		}
+		if (packed == null) {
+			callback.onFailure(new Exception("Could not pack the results: " + error));
+			return;
+		}
+		callback.onSuccess(new CloudinaryPackedUploadResults(packed));
+	}
+	
+	private static native void listen(JavaScriptObject worker) /*-{
+		worker.onmessage = $entry(function(e) {
+			var d = e.data;
+			@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadResultPacker::onResult(ILcom/google/gwt/core/client/JavaScriptObject;Ljava/lang/String;)(d.id, d.packed || null, d.error || null);
+		});
+		worker.onerror = $entry(function(e) {
+			e.preventDefault();
+			@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadResultPacker::onWorkerError()();
+		});
+	}-*/;
+	
+	private static native boolean postToWorker(JavaScriptObject worker, int id, JavaScriptObject results) /*-{
+		try {
+			worker.postMessage({id: id, results: results});
+			return true;
+		}
+		catch (e) {
+			return false;
+		}
+	}-*/;
+}
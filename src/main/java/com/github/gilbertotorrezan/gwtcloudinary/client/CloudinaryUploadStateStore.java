@@ -0,0 +1,226 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+
+/**
+ * Persists the state of chunked uploads in IndexedDB, so they can be resumed after the page is reloaded. The state of each 
+ * file (its unique upload id, confirmed offset and fingerprint) is kept apart from its contents, so the state can be updated
+ * after each chunk without writing the file again.
+ * <p>
+ * The failures of the store are ignored: an upload that can't be persisted is simply not resumable.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+final class CloudinaryUploadStateStore {
+	
+	/**
+	 * States older than this are discarded, since the server doesn't keep partial uploads forever: 24 hours.
+	 */
+	static final double MAX_AGE_MILLIS = 24 * 60 * 60 * 1000;
+	
+	/**
+	 * The persisted state of a chunked upload.
+	 */
+	static class UploadState extends JavaScriptObject {
+		
+		protected UploadState() {
+		}
+		
+		final native String getKey() /*-{
+			return this.key;
+		}-*/;
+		
+		final native String getUrl() /*-{
+			return this.url;
+		}-*/;
+		
+		final native String getUniqueId() /*-{
+			return this.uniqueId;
+		}-*/;
+		
+		final native double getOffset() /*-{
+			return this.offset;
+		}-*/;
+		
+		final native double getSize() /*-{
+			return this.size;
+		}-*/;
+		
+		final native double getUpdated() /*-{
+			return this.updated;
+		}-*/;
+		
+		final boolean isExpired() {
+			return now() - getUpdated() > MAX_AGE_MILLIS;
+		}
+	}
+	
+	private static final Callback<JavaScriptObject, Exception> IGNORE = new Callback<JavaScriptObject, Exception>() {
+		@Override
+		public void onSuccess(JavaScriptObject result) {
+		}
+		@Override
+		public void onFailure(Exception reason) {
+		}
+	};
+	
+	private CloudinaryUploadStateStore() {
+	}
+
+	/**
+	 * @return The key of the state of the file uploaded to the URL. The file is identified by its name, size, type and 
+	 * modification time, so the key is the same when the user selects the same file again.
+	 */
+	static String getKey(CloudinaryFile file, String url) {
+		return file.getName() + "|" + (long) file.getSize() + "|" + file.getType() + "|" + (long) file.getLastModified() + "|" + url;
+	}
+
+	/**
+	 * Finds the state with the given key. The callback gets <code>null</code> if there is no state, or if it expired.
+	 */
+	static void find(final String key, final Callback<UploadState, Exception> callback) {
+		CloudinaryIndexedDb.get(CloudinaryIndexedDb.UPLOADS, key, new Callback<JavaScriptObject, Exception>() {
+			@Override
+			public void onSuccess(JavaScriptObject result) {
+				UploadState state = result == null ? null : result.<UploadState>cast();
+				if (state != null && state.isExpired()) {
+					remove(key);
+					state = null;
+				}
+				callback.onSuccess(state);
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				callback.onFailure(reason);
+			}
+		});
+	}
+
+	/**
+	 * Loads all the states that are not expired, and removes the expired ones.
+	 */
+	static void findAll(final Callback<JsArray<UploadState>, Exception> callback) {
+		CloudinaryIndexedDb.getAll(CloudinaryIndexedDb.UPLOADS, new Callback<JavaScriptObject, Exception>() {
+			@Override
+			public void onSuccess(JavaScriptObject result) {
+				JsArray<UploadState> all = result.cast();
+				JsArray<UploadState> states = JavaScriptObject.createArray().cast();
+				for (int i = 0; i < all.length(); i++) {
+					UploadState state = all.get(i);
+					if (state.isExpired()) {
+						remove(state.getKey());
+					}
+					else {
+						states.push(state);
+					}
+				}
+				callback.onSuccess(states);
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				callback.onFailure(reason);
+			}
+		});
+	}
+
+	/**
+	 * Loads the contents of the file of the state. The callback gets <code>null</code> if the contents couldn't be stored.
+	 */
+	static void findFile(String key, final Callback<CloudinaryFile, Exception> callback) {
+		CloudinaryIndexedDb.get(CloudinaryIndexedDb.UPLOAD_BLOBS, key, new Callback<JavaScriptObject, Exception>() {
+			@Override
+			public void onSuccess(JavaScriptObject result) {
+				callback.onSuccess(result == null ? null : getBlob(result));
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				callback.onFailure(reason);
+			}
+		});
+	}
+
+	/**
+	 * Saves the state and the contents of a new chunked upload.
+	 */
+	static void create(String key, String url, String uniqueId, CloudinaryFile file) {
+		save(key, url, uniqueId, 0, file.getSize());
+		CloudinaryIndexedDb.put(CloudinaryIndexedDb.UPLOAD_BLOBS, createBlobRecord(key, file), IGNORE);
+	}
+	
+	/**
+	 * Saves the state of a chunked upload, with the given confirmed offset.
+	 */
+	static void save(String key, String url, String uniqueId, double offset, double size) {
+		CloudinaryIndexedDb.put(CloudinaryIndexedDb.UPLOADS, createState(key, url, uniqueId, offset, size, now()), IGNORE);
+	}
+	
+	static void remove(String key) {
+		CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOADS, key, IGNORE);
+		CloudinaryIndexedDb.delete(CloudinaryIndexedDb.UPLOAD_BLOBS, key, IGNORE);
+	}
+	
+	private static native double now() /*-{
+		return new Date().getTime();
+	}-*/;
+	
+	private static native JavaScriptObject createState(String key, String url, String uniqueId, double offset, double size, 
+			double updated) /*-{
+		return {key: key, url: url, uniqueId: uniqueId, offset: offset, size: size, updated: updated};
+	}-*/;
+	
+	private static native JavaScriptObject createBlobRecord(String key, CloudinaryFile file) /*-{
+		return {key: key, blob: file, name: file.name || null};
+	}-*/;
+	
+	/**
+	 * @return The file of a record with <code>blob</code> and <code>name</code> properties, or <code>null</code> if there's none.
+	 */
+	static CloudinaryFile getBlob(JavaScriptObject record) {
+		CloudinaryFile blob = getBlobField(record);
+		if (blob == null) {
+			return null;
+		}
+		// named Blobs lose their name when stored
+		String name = getNameField(record);
+		if (name != null && !name.equals(blob.getName())) {
+			return CloudinaryFile.create(blob, name, blob.getType());
+		}
+		return blob;
+	}
+	
+	private static native CloudinaryFile getBlobField(JavaScriptObject record) /*-{
+		return record.blob || null;
+	}-*/;
+	
+	private static native String getNameField(JavaScriptObject record) /*-{
+		return record.name || null;
+	}-*/;
+}
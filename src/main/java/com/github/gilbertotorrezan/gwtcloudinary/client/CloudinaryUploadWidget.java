@@ -24,20 +24,20 @@
  */
 package com.github.gilbertotorrezan.gwtcloudinary.client;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.Duration;
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.FocusEvent;
+import com.google.gwt.event.dom.client.FocusHandler;
+import com.google.gwt.event.dom.client.MouseOverEvent;
+import com.google.gwt.event.dom.client.MouseOverHandler;
+import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.event.shared.HandlerRegistration;
-import com.google.gwt.json.client.JSONArray;
-import com.google.gwt.json.client.JSONBoolean;
-import com.google.gwt.json.client.JSONNumber;
 import com.google.gwt.json.client.JSONObject;
-import com.google.gwt.json.client.JSONString;
-import com.google.gwt.json.client.JSONValue;
 import com.google.gwt.safehtml.client.HasSafeHtml;
 import com.google.gwt.safehtml.shared.SafeHtml;
 import com.google.gwt.user.client.ui.Button;
@@ -56,11 +56,47 @@ import com.google.gwt.user.client.ui.HasText;
  * @see http://cloudinary.com/documentation/upload_widget
  */
 public class CloudinaryUploadWidget extends Composite implements HasCloudinaryUploadFinishedHandlers, 
-HasText, HasHTML, HasSafeHtml, HasEnabled {
+HasCloudinaryFileUploadedHandlers, HasCloudinaryUploadProgressHandlers, HasCloudinaryQueueHandlers, HasText, HasHTML, HasSafeHtml, HasEnabled {
+	
+	/**
+	 * The min number of results of a batch to be decoded in a Web Worker, when {@link #setWorkerDecoding(boolean) enabled}.
+	 * Smaller batches are faster to decode on the main thread than to send to the worker.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public static final int WORKER_DECODING_THRESHOLD = 50;
 	
 	protected Button button;
+	
+	/**
+	 * The options set so far, never <code>null</code>. Subclasses that change it directly should get it by 
+	 * {@link #getOptions()}, so the changes are read on every click.
+	 */
 	protected JSONObject options;
 	
+	private CloudinaryWidgetConfig config;
+	private boolean dirty;
+	/** Whether the options object was handed out by getOptions() or given by setOptions(), so it may change at any time. */
+	private boolean optionsShared;
+	private boolean pooled;
+	private boolean workerDecoding;
+	private CloudinaryMetrics metrics = CloudinaryNoOpMetrics.INSTANCE;
+	private boolean openPending;
+	private JsArray<CloudinaryUploadResultJso> pendingResults;
+	private int addedCount;
+	private int completedCount;
+	private double uploadedBytes;
+	
+	private final CloudinaryEventCoalescer coalescer = new CloudinaryEventCoalescer(new CloudinaryEventCoalescer.Sink() {
+		@Override
+		public void deliver(JsArray<CloudinaryUploadResultJso> results) {
+			if (results.length() > 0){
+				CloudinaryFileUploadedEvent.fireFileUploaded(CloudinaryUploadWidget.this, results);
+			}
+			CloudinaryUploadProgressEvent.fireUploadProgress(CloudinaryUploadWidget.this, completedCount, addedCount, uploadedBytes);
+		}
+	});
+	
 	public CloudinaryUploadWidget() {
 		button = new Button();
 		initialize();
@@ -85,145 +121,253 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	protected void initialize(){
 		initWidget(button);
 		options = new JSONObject();
+		dirty = true;
 		button.addClickHandler(new ClickHandler() {
 			@Override
 			public void onClick(ClickEvent event) {
-				openUploadWidget(options.getJavaScriptObject());
+				metrics.onClick();
+				open();
 			}
 		});
+		button.addMouseOverHandler(new MouseOverHandler() {
+			@Override
+			public void onMouseOver(MouseOverEvent event) {
+				CloudinaryScriptLoader.load();
+			}
+		});
+		button.addFocusHandler(new FocusHandler() {
+			@Override
+			public void onFocus(FocusEvent event) {
+				CloudinaryScriptLoader.load();
+			}
+		});
+	}
+	
+	@Override
+	protected void onLoad() {
+		super.onLoad();
+		if (CloudinaryScriptLoader.isPreloadHints()){
+			CloudinaryScriptLoader.preload();
+		}
+	}
+	
+	@Override
+	protected void onUnload() {
+		CloudinaryWidgetPool.release(this);
+		super.onUnload();
 	}
 	
 	/**
-	 * Opens the Cloudinary's Upload Widget in a IFrame. This methos is called automatically by the click handler on the button.
+	 * Opens the Upload Widget using the current options. If the Cloudinary's javascript is not loaded yet, it is loaded by the
+	 * {@link CloudinaryScriptLoader} and the widget is opened when it is ready. This method is called automatically by the click 
+	 * handler on the button.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public void open() {
+		if (CloudinaryScriptLoader.isLoaded()){
+			CloudinaryWidgetConfig config = getConfig();
+			if (!pooled || !CloudinaryWidgetPool.open(this, config)){
+				openUploadWidget(config.getJavaScriptObject());
+			}
+			metrics.onOpen();
+			return;
+		}
+		if (openPending){
+			return;
+		}
+		openPending = true;
+		CloudinaryScriptLoader.load(new Callback<Void, Exception>() {
+			@Override
+			public void onSuccess(Void result) {
+				openPending = false;
+				open();
+			}
+			
+			@Override
+			public void onFailure(Exception reason) {
+				openPending = false;
+				CloudinaryUploadFinishedEvent.fireUploadFinished(CloudinaryUploadWidget.this, 
+						"Could not load the Cloudinary's javascript: " + reason.getMessage(), null, null);
+			}
+		});
+	}
+	
+	/**
+	 * Opens the Cloudinary's Upload Widget in a IFrame. The Cloudinary's javascript must be loaded already.
+	 * 
+	 * @see #open()
 	 */
 	public native void openUploadWidget(JavaScriptObject options)/*-{
 		var widget = this;
 		$wnd.cloudinary.openUploadWidget(options, 
-  			function(error, result) {
-  				console.log(error, result);
-  				widget.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadWidget::fireUploadFinished(Lcom/google/gwt/core/client/JavaScriptObject;Lcom/google/gwt/core/client/JavaScriptObject;)(error, result);
-  			});
+  			$entry(function(error, result) {
+  				widget.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadWidget::onWidgetCallback(Lcom/google/gwt/core/client/JavaScriptObject;Lcom/google/gwt/core/client/JavaScriptObject;)(error, result);
+  			}));
 	}-*/;
 	
 	/**
-	 * Fires the {@link CloudinaryUploadFinishedEvent} by using the native objects, converting them to {@link CloudinaryUploadInfo} objects.
-	 */
-	protected void fireUploadFinished(JavaScriptObject error, JavaScriptObject result){
-		String message = null;
-		List<CloudinaryUploadInfo> infos = new ArrayList<>();
-		
+	 * Called by the native Upload Widget. Older versions of the widget call it once with the array of all results, while newer ones
+	 * call it for each event, such as "success" for each file and "queues-end" when all the files are done. In the latter case the 
+	 * {@link CloudinaryFileUploadedEvent}, {@link CloudinaryUploadProgressEvent} and {@link CloudinaryQueueEvent} are fired as the 
+	 * upload goes, and the results are collected to fire the {@link CloudinaryUploadFinishedEvent} at the end of the queue.
+	 * 
+	 * @see CloudinaryScriptLoader#PER_EVENT_SCRIPT_URL
+	 */
+	protected void onWidgetCallback(JavaScriptObject error, JavaScriptObject result){
+		String eventName = result == null ? null : getEventName(result);
+		if (eventName == null){
+			if (error == null && result != null){
+				JsArray<CloudinaryUploadResultJso> results = result.cast();
+				for (int i = 0; i < results.length(); i++){
+					metrics.onFileFinished(results.get(i));
+				}
+				CloudinaryFileUploadedEvent.fireFileUploaded(this, results);
+				CloudinaryUploadProgressEvent.fireUploadProgress(this, results.length(), results.length(), sumBytes(results));
+			}
+			fireUploadFinished(error, result);
+			return;
+		}
 		if (error != null){
-			JSONObject obj = new JSONObject(error);
-			message = getSafeString(obj.get("message"));
+			firePendingResults(error);
+			return;
 		}
-		
-		if (result != null) {
-			JSONArray resultArray = new JSONArray(result);
-			int size = resultArray.size();
-			for (int i = 0; i< size; i++){
-				JSONObject object = resultArray.get(i).isObject();
-				
-				CloudinaryUploadInfo info = new CloudinaryUploadInfo();
-				info.setPublicId(getSafeString(object.get("public_id")));
-				info.setSecureUrl(getSafeString(object.get("secure_url")));
-				info.setThumbnailUrl(getSafeString(object.get("thumbnail_url")));
-				info.setUrl(getSafeString(object.get("url")));
-				info.setType(getSafeString(object.get("type")));
-				info.setVersion(getSafeString(object.get("version")));
-				info.setWidth(getSafeInteger(object.get("width")));
-				info.setHeight(getSafeInteger(object.get("height")));
-				info.setFormat(getSafeString(object.get("format")));
-				info.setResourceType(getSafeString(object.get("resource_type")));
-				info.setSignature(getSafeString(object.get("signature")));
-				info.setBytes(getSafeInteger(object.get("bytes")));
-				info.setOriginalFilename(getSafeString(object.get("original_filename")));
-				info.setEtag(getSafeString(object.get("etag")));
-				info.setPath(getSafeString(object.get("path")));
-				info.setCreatedAt(getSafeString(object.get("created_at")));
-				
-				JSONValue tagsValue = object.get("tags");
-				if (tagsValue != null && tagsValue.isArray() != null){
-					JSONArray array = tagsValue.isArray();
-					String[] tags = new String[array.size()]; 
-					for (int j = 0; j< tags.length; j++){
-						JSONValue v = array.get(j);
-						tags[j] = getSafeString(v);
-					}
-					info.setTags(tags);
-				}
-				
-				JSONValue coordinatesValue = object.get("coordinates");
-				if (coordinatesValue != null && coordinatesValue.isObject() != null){
-					JSONObject obj = coordinatesValue.isObject();
-					
-					JSONValue customValue = obj.get("custom");
-					if (customValue != null && customValue.isArray() != null){
-						JSONArray array = customValue.isArray();
-						CloudinaryCoordinates[] coordinatesArray = new CloudinaryCoordinates[array.size()];
-						for (int j = 0; j< coordinatesArray.length; j++){
-							JSONValue value = array.get(j);
-							if (value != null && value.isArray() != null && value.isArray().size() >= 4){
-								JSONArray valueArray = value.isArray();
-								coordinatesArray[j] = new CloudinaryCoordinates();
-								coordinatesArray[j].setX(getSafeInteger(valueArray.get(0)));
-								coordinatesArray[j].setY(getSafeInteger(valueArray.get(1)));
-								coordinatesArray[j].setWidth(getSafeInteger(valueArray.get(2)));
-								coordinatesArray[j].setHeight(getSafeInteger(valueArray.get(3)));								
-							}
-						}
-						info.setCustomCoordinates(coordinatesArray);
-					}
-					
-					JSONValue facesValue = obj.get("faces");
-					if (facesValue == null || facesValue.isArray() == null){
-						facesValue = obj.get("face");
-					}
-					if (facesValue != null && facesValue.isArray() != null){
-						JSONArray array = facesValue.isArray();
-						CloudinaryCoordinates[] coordinatesArray = new CloudinaryCoordinates[array.size()];
-						for (int j = 0; j< coordinatesArray.length; j++){
-							JSONValue value = array.get(j);
-							if (value != null && value.isArray() != null && value.isArray().size() >= 4){
-								JSONArray valueArray = value.isArray();
-								coordinatesArray[j] = new CloudinaryCoordinates();
-								coordinatesArray[j].setX(getSafeInteger(valueArray.get(0)));
-								coordinatesArray[j].setY(getSafeInteger(valueArray.get(1)));
-								coordinatesArray[j].setWidth(getSafeInteger(valueArray.get(2)));
-								coordinatesArray[j].setHeight(getSafeInteger(valueArray.get(3)));								
-							}
-						}
-						info.setFaceCoordinates(coordinatesArray);
-					}
-				}
-				
-				infos.add(info);
+		JavaScriptObject info = getEventInfo(result);
+		switch (eventName){
+		case "queues-start":
+			CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.STARTED, info);
+			break;
+		case "upload-added":
+			addedCount++;
+			metrics.onFileStarted(info);
+			CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.FILE_ADDED, info);
+			coalescer.add(null);
+			break;
+		case "success":
+			CloudinaryUploadResultJso uploadResult = info.cast();
+			if (pendingResults == null){
+				pendingResults = JavaScriptObject.createArray().cast();
 			}
+			pendingResults.push(uploadResult);
+			completedCount++;
+			addedCount = Math.max(addedCount, completedCount);
+			uploadedBytes += uploadResult.getBytes();
+			metrics.onFileFinished(uploadResult);
+			coalescer.add(uploadResult);
+			break;
+		case "queues-end":
+			coalescer.flush();
+			CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.ENDED, info);
+			firePendingResults(null);
+			break;
+		case "abort":
+		case "batch-cancelled":
+			CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.CANCELLED, info);
+			break;
+		case "close":
+			CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.CLOSED, info);
+			firePendingResults(null);
+			break;
+		default:
+			break;
 		}
-		
-		CloudinaryUploadFinishedEvent.fireUploadFinished(this, infos, message, result, error);
 	}
 	
-	private String getSafeString(JSONValue value){
-		if (value == null){
-			return null;
+	/**
+	 * Fires the {@link CloudinaryUploadFinishedEvent} with the results collected so far, if any or if there is an error, 
+	 * and resets the queue counters.
+	 */
+	private void firePendingResults(JavaScriptObject error){
+		coalescer.flush();
+		JsArray<CloudinaryUploadResultJso> results = pendingResults;
+		pendingResults = null;
+		addedCount = 0;
+		completedCount = 0;
+		uploadedBytes = 0;
+		if (results != null || error != null){
+			fireUploadFinished(error, results);
 		}
-		JSONString string = value.isString(); 
-		if (string == null){
-			return null;
+	}
+	
+	private static double sumBytes(JsArray<CloudinaryUploadResultJso> results){
+		double bytes = 0;
+		for (int i = 0; i < results.length(); i++){
+			bytes += results.get(i).getBytes();
 		}
-		return string.stringValue();
+		return bytes;
 	}
 	
-	private Integer getSafeInteger(JSONValue value){
-		if (value == null){
-			return null;
+	private static native String getEventName(JavaScriptObject result)/*-{
+		return typeof result.event === 'string' ? result.event : null;
+	}-*/;
+	
+	private static native JavaScriptObject getEventInfo(JavaScriptObject result)/*-{
+		return result.info;
+	}-*/;
+	
+	/**
+	 * Fires the {@link CloudinaryUploadFinishedEvent} by using the native objects. The results are exposed as {@link CloudinaryUploadResultJso} 
+	 * overlays, and converted to {@link CloudinaryUploadInfo} objects only when requested.
+	 */
+	protected void fireUploadFinished(JavaScriptObject error, JavaScriptObject result){
+		String message = null;
+		if (error != null){
+			message = getErrorMessage(error);
 		}
-		JSONNumber number = value.isNumber();
-		if (number == null){
-			return null;
+		else if (workerDecoding && result != null && getLength(result) >= WORKER_DECODING_THRESHOLD){
+			fireDecodedUploadFinished(result);
+			return;
 		}
-		return (int) number.doubleValue();
+		CloudinaryUploadFinishedEvent.fireUploadFinished(this, message, result, error);
 	}
+	
+	/**
+	 * Fires the {@link CloudinaryUploadFinishedEvent} once the results are packed by the worker, or right away if they can't be.
+	 */
+	private void fireDecodedUploadFinished(final JavaScriptObject result){
+		final double start = Duration.currentTimeMillis();
+		CloudinaryUploadResultPacker.pack(result, new Callback<CloudinaryPackedUploadResults, Exception>() {
+			@Override
+			public void onSuccess(CloudinaryPackedUploadResults packedResults) {
+				metrics.onDecoded(packedResults.size(), Duration.currentTimeMillis() - start);
+				CloudinaryUploadFinishedEvent.fireUploadFinished(CloudinaryUploadWidget.this, null, result, null, packedResults);
+			}
+			
+			@Override
+			public void onFailure(Exception reason) {
+				CloudinaryUploadFinishedEvent.fireUploadFinished(CloudinaryUploadWidget.this, null, result, null);
+			}
+		});
+	}
+	
+	/**
+	 * @return The length of the native array, or -1 if it is not an array.
+	 */
+	private static native int getLength(JavaScriptObject array)/*-{
+		return Object.prototype.toString.call(array) === '[object Array]' ? array.length : -1;
+	}-*/;
+	
+	/**
+	 * Fires the event to the handlers, and reports the time they took to the {@link #setMetrics(CloudinaryMetrics) metrics}.
+	 */
+	@Override
+	public void fireEvent(GwtEvent<?> event) {
+		if (metrics == CloudinaryNoOpMetrics.INSTANCE){
+			super.fireEvent(event);
+			return;
+		}
+		double start = Duration.currentTimeMillis();
+		super.fireEvent(event);
+		metrics.onDispatched(event, Duration.currentTimeMillis() - start);
+	}
+	
+	private static native String getErrorMessage(JavaScriptObject error)/*-{
+		if (typeof error === 'string') {
+			return error;
+		}
+		var message = error.message;
+		return typeof message === 'string' ? message : null;
+	}-*/;
 
 	/**
 	 * Directly set the upload options.
@@ -233,15 +377,21 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 			clearOptions();
 		}
 		else {
-			this.options = options;			
+			this.options = options;
+			dirty = true;
+			optionsShared = true;
 		}
 		return this;
 	}
 
 	/**
-	 * @return The options set so far, never <code>null</code>.
+	 * @return The options set so far, never <code>null</code>. Since the returned object can be modified directly, 
+	 * the options are compiled again on every click from now on, until {@link #clearOptions()} or 
+	 * {@link #setConfig(CloudinaryWidgetConfig)} is called.
 	 */
 	public JSONObject getOptions() {
+		dirty = true;
+		optionsShared = true;
 		return options;
 	}
 	
@@ -250,6 +400,149 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 */
 	public CloudinaryUploadWidget clearOptions(){
 		options = new JSONObject();
+		dirty = true;
+		optionsShared = false;
+		return this;
+	}
+
+	/**
+	 * Whether the native Upload Widget should be created once and reused, instead of opened from scratch on every click.
+	 * Pooled native widgets are shared by all the pooled {@link CloudinaryUploadWidget}s with equivalent options.
+	 * Requires a version of the Cloudinary's library with <code>cloudinary.createUploadWidget</code>, otherwise the widget 
+	 * is opened as usual.
+	 * 
+	 * @param pooled Default: false
+	 * 
+	 * @see CloudinaryWidgetPool
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryUploadWidget setPooled(boolean pooled) {
+		this.pooled = pooled;
+		return this;
+	}
+	
+	public boolean isPooled() {
+		return pooled;
+	}
+
+	/**
+	 * Whether large batches of results are decoded in a Web Worker before the {@link CloudinaryUploadFinishedEvent} is fired. 
+	 * The worker normalizes the results, including tags and coordinates, into a compact {@link CloudinaryPackedUploadResults} 
+	 * exposed by {@link CloudinaryUploadFinishedEvent#getPackedResults()}, which also backs 
+	 * {@link CloudinaryUploadFinishedEvent#getUploadInfos()}. The event is then fired asynchronously, once the worker is done.
+	 * <p>
+	 * Batches smaller than {@value #WORKER_DECODING_THRESHOLD} results, failed uploads and browsers that can't run the 
+	 * worker fire the event right away, as usual.
+	 * 
+	 * @param workerDecoding Default: false
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryUploadWidget setWorkerDecoding(boolean workerDecoding) {
+		this.workerDecoding = workerDecoding;
+		return this;
+	}
+	
+	public boolean isWorkerDecoding() {
+		return workerDecoding;
+	}
+
+	/**
+	 * Sets the listener of the timing points of the widget: the click, the opening of the native widget, the start and the
+	 * end of each file, the decoding of the results and the dispatch of each event.
+	 * 
+	 * @param metrics Default: {@link CloudinaryNoOpMetrics#INSTANCE}
+	 * 
+	 * @see CloudinaryPerformanceMetrics
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryUploadWidget setMetrics(CloudinaryMetrics metrics) {
+		this.metrics = metrics == null ? CloudinaryNoOpMetrics.INSTANCE : metrics;
+		return this;
+	}
+	
+	public CloudinaryMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Defines how the {@link CloudinaryFileUploadedEvent}s and {@link CloudinaryUploadProgressEvent}s are grouped during
+	 * multi-file uploads. Any pending file is delivered before the policy is changed.
+	 * 
+	 * @param policy Default: {@link CloudinaryCoalescingPolicy#immediate()}
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryUploadWidget setCoalescingPolicy(CloudinaryCoalescingPolicy policy) {
+		coalescer.setPolicy(policy);
+		return this;
+	}
+	
+	public CloudinaryCoalescingPolicy getCoalescingPolicy() {
+		return coalescer.getPolicy();
+	}
+
+	/**
+	 * Uses the given pre-built config, which can be shared by several widgets. The {@link #options} are set to a copy of 
+	 * the config, but the config itself is passed to the native widget until an option of this widget is changed.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryUploadWidget setConfig(CloudinaryWidgetConfig config) {
+		if (config == null){
+			return clearOptions();
+		}
+		this.config = config;
+		this.options = config.toJSONObject();
+		this.dirty = false;
+		this.optionsShared = false;
+		return this;
+	}
+
+	/**
+	 * @return The options set so far as an immutable {@link CloudinaryWidgetConfig}. It is built again only when the options 
+	 * change, so consecutive calls return the same instance, unless the options object was handed out by {@link #getOptions()}
+	 * or given by {@link #setOptions(JSONObject)}: then it is built on every call, as the object may have changed.
+	 * 
+	 * @since v.1.0.2
+	 */
+	public CloudinaryWidgetConfig getConfig() {
+		if (dirty || optionsShared || config == null){
+			config = CloudinaryWidgetConfig.create(options);
+			dirty = false;
+		}
+		return config;
+	}
+
+	private JavaScriptObject editOptions() {
+		dirty = true;
+		return options.getJavaScriptObject();
+	}
+
+	private CloudinaryUploadWidget putString(String key, String value) {
+		CloudinaryWidgetConfig.putString(editOptions(), key, value);
+		return this;
+	}
+
+	private CloudinaryUploadWidget putNumber(String key, Number value) {
+		CloudinaryWidgetConfig.putNumber(editOptions(), key, value);
+		return this;
+	}
+
+	private CloudinaryUploadWidget putBoolean(String key, Boolean value) {
+		CloudinaryWidgetConfig.putBoolean(editOptions(), key, value);
+		return this;
+	}
+
+	private CloudinaryUploadWidget putObject(String key, JSONObject value) {
+		CloudinaryWidgetConfig.putObject(editOptions(), key, value);
+		return this;
+	}
+
+	private CloudinaryUploadWidget putStringArray(String key, String[] values) {
+		CloudinaryWidgetConfig.putStringArray(editOptions(), key, values);
 		return this;
 	}
 
@@ -259,8 +552,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param cloudName Mandatory string. Example: 'demo'
 	 */
 	public CloudinaryUploadWidget setCloudName(String cloudName) {
-		options.put("cloud_name", cloudName == null ? null : new JSONString(cloudName));
-		return this;
+		return putString("cloud_name", cloudName);
 	}
 
 	/**
@@ -269,8 +561,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param uploadPreset Mandatory string. Example: 'a5vxnzbp'
 	 */
 	public CloudinaryUploadWidget setUploadPreset(String uploadPreset) {
-		options.put("upload_preset", uploadPreset == null ? null : new JSONString(uploadPreset));
-		return this;
+		return putString("upload_preset", uploadPreset);
 	}
 
 	/**
@@ -281,17 +572,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param sources Array of strings: local, url, camera. Default: ['local', 'url', 'camera']
 	 */
 	public CloudinaryUploadWidget setSources(String[] sources) {
-		if (sources != null){
-			JSONArray array = new JSONArray();
-			for (int i = 0; i< sources.length; i++){
-				array.set(i, new JSONString(sources[i]));
-			}			
-			options.put("sources", array);
-		}
-		else {
-			options.put("sources", null);
-		}
-		return this;
+		return putStringArray("sources", sources);
 	}
 
 	/**
@@ -300,8 +581,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param defaultSource String. Default: local
 	 */
 	public CloudinaryUploadWidget setDefaultSource(String defaultSource) {
-		options.put("default_source", defaultSource == null ? null : new JSONString(defaultSource));
-		return this;
+		return putString("default_source", defaultSource);
 	}
 
 	/**
@@ -311,8 +591,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 *  @param multiple Boolean. Default: true
 	 */
 	public CloudinaryUploadWidget setMultiple(Boolean multiple) {
-		options.put("multiple", multiple == null ? null : JSONBoolean.getInstance(multiple));
-		return this;
+		return putBoolean("multiple", multiple);
 	}
 
 	/**
@@ -321,8 +600,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param maxFiles Integer. Default: null. Unlimited. Example: 10
 	 */
 	public CloudinaryUploadWidget setMaxFiles(Integer maxFiles) {
-		options.put("max_files", maxFiles == null ? null : new JSONNumber(maxFiles));
-		return this;
+		return putNumber("max_files", maxFiles);
 	}
 
 	/**
@@ -335,8 +613,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 *  @param cropping String. Cropping modes: 'server' Default: null. No cropping. Example: 'server' 
 	 */
 	public CloudinaryUploadWidget setCropping(String cropping) {
-		options.put("cropping", cropping == null ? null : new JSONString(cropping));
-		return this;
+		return putString("cropping", cropping);
 	}
 
 	/**
@@ -346,8 +623,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param croppingAspectRatio Decimal. Default: null. No constraint. Example: 0.5
 	 */
 	public CloudinaryUploadWidget setCroppingAspectRatio(Double croppingAspectRatio) {
-		options.put("cropping_aspect_ratio", croppingAspectRatio == null ? null : new JSONNumber(croppingAspectRatio));
-		return this;
+		return putNumber("cropping_aspect_ratio", croppingAspectRatio);
 	}
 
 
@@ -358,8 +634,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param croppingDefaultSelectionRatio Decimal. Default: 0.9. Range: 0.1 to 1.0. Example: 0.75
 	 */
 	public CloudinaryUploadWidget setCroppingDefaultSelectionRatio(Double croppingDefaultSelectionRatio) {
-		options.put("cropping_default_selection_ratio", croppingDefaultSelectionRatio == null ? null : new JSONNumber(croppingDefaultSelectionRatio));
-		return this;
+		return putNumber("cropping_default_selection_ratio", croppingDefaultSelectionRatio);
 	}
 
 	/**
@@ -370,8 +645,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param publicId String. Default: null. Example: 'profile_11002'
 	 */
 	public CloudinaryUploadWidget setPublicId(String publicId) {
-		options.put("public_id", publicId == null ? null : new JSONString(publicId));
-		return this;
+		return putString("public_id", publicId);
 	}
 
 
@@ -381,8 +655,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param folder String. Default: null. Example: 'user_photos'
 	 */
 	public CloudinaryUploadWidget setFolder(String folder) {
-		options.put("folder", folder == null ? null : new JSONString(folder));
-		return this;
+		return putString("folder", folder);
 	}
 
 
@@ -392,17 +665,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 *  @param tags String or array of strings. Default: null. Example: '['users' 'content']
 	 */
 	public CloudinaryUploadWidget setTags(String[] tags) {
-		if (tags != null){
-			JSONArray array = new JSONArray();
-			for (int i = 0; i< tags.length; i++){
-				array.set(i, new JSONString(tags[i]));
-			}			
-			options.put("tags", array);
-		}
-		else {
-			options.put("tags", null);
-		}
-		return this;
+		return putStringArray("tags", tags);
 	}
 
 	/**
@@ -412,8 +675,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param resourceType String: 'auto', 'image', 'raw'. Default: 'auto' Example: 'image'
 	 */
 	public CloudinaryUploadWidget setResourceType(String resourceType) {
-		options.put("resource_type", resourceType == null ? null : new JSONString(resourceType));
-		return this;
+		return putString("resource_type", resourceType);
 	}
 
 	/**
@@ -422,8 +684,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param context Map of key-value pairs. Example: { alt: "my_alt", caption: "my_caption"}
 	 */
 	public CloudinaryUploadWidget setContext(JSONObject context) {
-		options.put("context", context);
-		return this;
+		return putObject("context", context);
 	}
 
 	/**
@@ -432,17 +693,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param clientAllowedFormats Array of file formats: png, jpg, gif, doc, xls, etc. Default: null. All formats allowed. Example: ["png","gif", "jpeg"]
 	 */
 	public CloudinaryUploadWidget setClientAllowedFormats(String[] clientAllowedFormats) {
-		if (clientAllowedFormats != null){
-			JSONArray array = new JSONArray();
-			for (int i = 0; i< clientAllowedFormats.length; i++){
-				array.set(i, new JSONString(clientAllowedFormats[i]));
-			}			
-			options.put("client_allowed_formats", array);
-		}
-		else {
-			options.put("client_allowed_formats", null);
-		}
-		return this;
+		return putStringArray("client_allowed_formats", clientAllowedFormats);
 	}
 
 	/**
@@ -451,8 +702,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param maxFileSize Integer. Number of bytes. Default: null. No size limit. Example: 130000
 	 */
 	public CloudinaryUploadWidget setMaxFileSize(Integer maxFileSize) {
-		options.put("max_file_size", maxFileSize == null ? null : new JSONNumber(maxFileSize));
-		return this;
+		return putNumber("max_file_size", maxFileSize);
 	}
 
 	/**
@@ -461,8 +711,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param maxImageWidth Integer. Number of pixels. Default: null. No resizing. Example: 2000
 	 */
 	public CloudinaryUploadWidget setMaxImageWidth(Integer maxImageWidth) {
-		options.put("max_image_width", maxImageWidth == null ? null : new JSONNumber(maxImageWidth));
-		return this;
+		return putNumber("max_image_width", maxImageWidth);
 	}
 
 	/**
@@ -471,8 +720,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param maxImageHeight Integer. Number of pixels. Default: null. No resizing. Example: 2000
 	 */
 	public CloudinaryUploadWidget setMaxImageHeight(Integer maxImageHeight) {
-		options.put("max_image_height", maxImageHeight == null ? null : new JSONNumber(maxImageHeight));
-		return this;
+		return putNumber("max_image_height", maxImageHeight);
 	}
 
 	/**
@@ -483,8 +731,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param form String. jQuery-style selector. Default: null Example: '#my_form'
 	 */
 	public CloudinaryUploadWidget setForm(String form) {
-		options.put("form", form == null ? null : new JSONString(form));
-		return this;
+		return putString("form", form);
 	}
 
 
@@ -497,8 +744,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param fieldName String. Form field name. Default: 'image' Example: 'photo[]'
 	 */
 	public CloudinaryUploadWidget setFieldName(String fieldName) {
-		options.put("field_name", fieldName == null ? null : new JSONString(fieldName));
-		return this;
+		return putString("field_name", fieldName);
 	}
 
 
@@ -510,8 +756,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param thumbnails String. jQuery-style selector. Default: null Example: '.content .uploaded'
 	 */
 	public CloudinaryUploadWidget setThumbnails(String thumbnails) {
-		options.put("thumbnails", thumbnails == null ? null : new JSONString(thumbnails));
-		return this;
+		return putString("thumbnails", thumbnails);
 	}
 
 	/**
@@ -524,8 +769,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * "w_200"
 	 */
 	public CloudinaryUploadWidget setThumbnailTransformation(JSONObject thumbnailTransformation) {
-		options.put("thumbnail_transformation", thumbnailTransformation);
-		return this;
+		return putObject("thumbnail_transformation", thumbnailTransformation);
 	}
 
 
@@ -537,8 +781,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param buttonClass String. Default: 'cloudinary-button' Example: 'my_button'
 	 */
 	public CloudinaryUploadWidget setButtonClass(String buttonClass) {
-		options.put("button_class", buttonClass == null ? null : new JSONString(buttonClass));
-		return this;
+		return putString("button_class", buttonClass);
 	}
 
 	/**
@@ -547,8 +790,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param buttonCaption String. Default: 'Upload image' Example: 'Pick photo...'
 	 */
 	public CloudinaryUploadWidget setButtonCaption(String buttonCaption) {
-		options.put("button_caption", buttonCaption == null ? null : new JSONString(buttonCaption));
-		return this;
+		return putString("button_caption", buttonCaption);
 	}
 
 	/**
@@ -557,8 +799,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param theme String. Supported themes: 'default', 'white', 'minimal', 'purple'. Default: 'default' Example: 'white'
 	 */
 	public CloudinaryUploadWidget setTheme(String theme) {
-		options.put("theme", theme == null ? null : new JSONString(theme));
-		return this;
+		return putString("theme", theme);
 	}
 
 	/**
@@ -574,8 +815,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * 
 	 */
 	public CloudinaryUploadWidget setStylesheet(String stylesheet) {
-		options.put("stylesheet", stylesheet == null ? null : new JSONString(stylesheet));
-		return this;
+		return putString("stylesheet", stylesheet);
 	}
 
 	/**
@@ -584,8 +824,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param keepWidgetOpen Boolean. Default: false
 	 */
 	public CloudinaryUploadWidget setKeepWidgetOpen(Boolean keepWidgetOpen) {
-		options.put("keep_widget_open", keepWidgetOpen == null ? null : JSONBoolean.getInstance(keepWidgetOpen));
-		return this;
+		return putBoolean("keep_widget_open", keepWidgetOpen);
 	}
 
 	/**
@@ -595,8 +834,7 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 	 * @param showPoweredBy Boolean. Default: true
 	 */
 	public CloudinaryUploadWidget setShowPoweredBy(Boolean showPoweredBy) {
-		options.put("show_powered_by", showPoweredBy == null ? null : JSONBoolean.getInstance(showPoweredBy));
-		return this;
+		return putBoolean("show_powered_by", showPoweredBy);
 	}
 
 	@Override
@@ -604,6 +842,21 @@ HasText, HasHTML, HasSafeHtml, HasEnabled {
 		return addHandler(handler, CloudinaryUploadFinishedEvent.getType());
 	}
 
+	@Override
+	public HandlerRegistration addCloudinaryFileUploadedHandler(CloudinaryFileUploadedHandler handler) {
+		return addHandler(handler, CloudinaryFileUploadedEvent.getType());
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryUploadProgressHandler(CloudinaryUploadProgressHandler handler) {
+		return addHandler(handler, CloudinaryUploadProgressEvent.getType());
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryQueueHandler(CloudinaryQueueHandler handler) {
+		return addHandler(handler, CloudinaryQueueEvent.getType());
+	}
+
 	@Override
 	public String getHTML() {
 		return button.getHTML();
@@ -0,0 +1,832 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.core.client.Callback;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerManager;
+import com.google.gwt.event.shared.HandlerRegistration;
+
+/**
+ * Uploads files directly to the Cloudinary's upload API, without the hosted Upload Widget, for drag-and-drop zones, 
+ * paste-to-upload and other programmatic flows. The <code>cloud_name</code>, <code>upload_preset</code>, <code>folder</code>,
+ * <code>public_id</code>, <code>tags</code>, <code>context</code> and <code>resource_type</code> options are taken from a
+ * {@link CloudinaryWidgetConfig}, so the same config can be shared with the {@link CloudinaryUploadWidget}.
+ * <p>
+ * Up to {@link #setConcurrency(int) concurrency} files are uploaded in parallel. Files larger than the 
+ * {@link #setChunkSize(double) chunk size} are sent in sequential chunks, with the <code>X-Unique-Upload-Id</code> and 
+ * <code>Content-Range</code> headers. The same events of the {@link CloudinaryUploadWidget} are fired: 
+ * {@link CloudinaryQueueEvent}s, {@link CloudinaryFileUploadedEvent}s and {@link CloudinaryUploadProgressEvent}s as the 
+ * upload goes, and a {@link CloudinaryUploadFinishedEvent} with all the results when the queue is empty.
+ * <p>
+ * Chunked uploads can be made {@link #setResumable(boolean) resumable} across network failures and page reloads, and files
+ * uploaded before can be {@link #setDeduplicator(CloudinaryUploadDeduplicator) skipped}.
+ * <p>
+ * The endpoint can be changed by {@link #setEndpoint(String)}, such as to a local stub for tests.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryUploader uploader = new CloudinaryUploader(config).setConcurrency(4);
+ * uploader.addCloudinaryUploadFinishedHandler(handler);
+ * uploader.upload(files); //a FileList or a JsArray of files
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploader implements HasCloudinaryUploadFinishedHandlers, HasCloudinaryFileUploadedHandlers, 
+HasCloudinaryUploadProgressHandlers, HasCloudinaryQueueHandlers {
+	
+	/**
+	 * The default base URL of the upload API.
+	 */
+	public static final String DEFAULT_ENDPOINT = "https://api.cloudinary.com/v1_1";
+	
+	/**
+	 * The default chunk size: 20 MB. Cloudinary requires chunks of at least 5 MB, except for the last one.
+	 */
+	public static final double DEFAULT_CHUNK_SIZE = 20 * 1024 * 1024;
+	
+	public static final int DEFAULT_CONCURRENCY = 3;
+	
+	/**
+	 * A single file being uploaded.
+	 */
+	static class Upload {
+		
+		CloudinaryFile file;
+		String uniqueId;
+		double offset;
+		double requestEnd;
+		double inFlightBytes;
+		JavaScriptObject request;
+		String stateKey;
+		boolean restored;
+		String hash;
+		
+		/**
+		 * Data of the code that enqueued the upload, such as the item of a {@link CloudinaryUploadQueue}.
+		 */
+		Object data;
+		
+		Upload(CloudinaryFile file) {
+			this.file = file;
+		}
+	}
+	
+	private final HandlerManager handlerManager = new HandlerManager(this);
+	private final CloudinaryWidgetConfig config;
+	private final JavaScriptObject parameters = JavaScriptObject.createObject();
+	
+	private String endpoint = DEFAULT_ENDPOINT;
+	private int concurrency = DEFAULT_CONCURRENCY;
+	private double chunkSize = DEFAULT_CHUNK_SIZE;
+	private CloudinaryImagePreprocessor preprocessor;
+	private boolean resumable;
+	private CloudinaryUploadDeduplicator deduplicator;
+	
+	private final List<Upload> pending = new ArrayList<>();
+	private final List<Upload> active = new ArrayList<>();
+	private JsArray<CloudinaryUploadResultJso> results;
+	private int addedCount;
+	private int completedCount;
+	private int failedCount;
+	private double uploadedBytes;
+	private String lastError;
+	
+	private final CloudinaryEventCoalescer coalescer = new CloudinaryEventCoalescer(new CloudinaryEventCoalescer.Sink() {
+		@Override
+		public void deliver(JsArray<CloudinaryUploadResultJso> results) {
+			if (results.length() > 0) {
+				CloudinaryFileUploadedEvent.fireFileUploaded(CloudinaryUploader.this, results);
+			}
+			CloudinaryUploadProgressEvent.fireUploadProgress(CloudinaryUploader.this, completedCount, addedCount, getUploadedBytes());
+		}
+	});
+
+	/**
+	 * @param config The options of the uploads. The <code>cloud_name</code> is mandatory, and the <code>upload_preset</code>
+	 * is mandatory for unsigned uploads.
+	 */
+	public CloudinaryUploader(CloudinaryWidgetConfig config) {
+		if (config == null) {
+			throw new NullPointerException("config");
+		}
+		if (config.getString("cloud_name") == null) {
+			throw new IllegalArgumentException("The cloud_name option is mandatory.");
+		}
+		this.config = config;
+	}
+	
+	public CloudinaryWidgetConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * @param endpoint The base URL of the upload API, without the cloud name. Default: {@value #DEFAULT_ENDPOINT}
+	 */
+	public CloudinaryUploader setEndpoint(String endpoint) {
+		this.endpoint = endpoint == null ? DEFAULT_ENDPOINT : endpoint;
+		return this;
+	}
+	
+	public String getEndpoint() {
+		return endpoint;
+	}
+	
+	/**
+	 * @return The URL the files are posted to, such as <code>https://api.cloudinary.com/v1_1/demo/auto/upload</code>.
+	 */
+	public String getUploadUrl() {
+		String resourceType = config.getString("resource_type");
+		return endpoint + "/" + config.getString("cloud_name") + "/" + (resourceType == null ? "auto" : resourceType) + "/upload";
+	}
+	
+	/**
+	 * @param concurrency The max number of files uploaded in parallel. Default: {@value #DEFAULT_CONCURRENCY}
+	 */
+	public CloudinaryUploader setConcurrency(int concurrency) {
+		this.concurrency = Math.max(1, concurrency);
+		pump();
+		return this;
+	}
+	
+	public int getConcurrency() {
+		return concurrency;
+	}
+	
+	/**
+	 * @param chunkSize The size of the chunks in bytes. Files up to this size are sent in a single request. 
+	 * Default: 20 MB
+	 */
+	public CloudinaryUploader setChunkSize(double chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size must be positive.");
+		}
+		this.chunkSize = chunkSize;
+		return this;
+	}
+	
+	public double getChunkSize() {
+		return chunkSize;
+	}
+	
+	/**
+	 * @param preprocessor The stage run on each file before it is uploaded, such as to downscale large images. Files it fails 
+	 * to process are uploaded unchanged. Default: <code>null</code>
+	 */
+	public CloudinaryUploader setPreprocessor(CloudinaryImagePreprocessor preprocessor) {
+		this.preprocessor = preprocessor;
+		return this;
+	}
+	
+	public CloudinaryImagePreprocessor getPreprocessor() {
+		return preprocessor;
+	}
+	
+	/**
+	 * Whether the state of chunked uploads is persisted in IndexedDB, so they can be resumed from the last confirmed chunk 
+	 * after a network failure or a page reload, instead of starting over. An upload is resumed when the same file is uploaded
+	 * again, or when {@link #resumePendingUploads()} is called. Browsers without IndexedDB upload as usual.
+	 * <p>
+	 * The contents of the files are persisted too, so {@link #resumePendingUploads()} doesn't need the user to select the
+	 * files again. The states are discarded when the uploads complete, fail with a client error, are canceled, or after 24 hours.
+	 * 
+	 * @param resumable Default: false
+	 */
+	public CloudinaryUploader setResumable(boolean resumable) {
+		this.resumable = resumable;
+		return this;
+	}
+	
+	public boolean isResumable() {
+		return resumable;
+	}
+	
+	/**
+	 * Sets the stage that detects files uploaded before from this browser. Known files are not uploaded again: they are 
+	 * reported with the result of their previous upload, with the same <code>public_id</code>, <code>etag</code> and URLs. 
+	 * Files are known only when uploaded to the same {@link #getUploadUrl() URL}, with the same <code>upload_preset</code>, 
+	 * <code>folder</code> and <code>public_id</code> options. Browsers without IndexedDB upload as usual.
+	 * 
+	 * @param deduplicator Default: <code>null</code>, all the files are uploaded
+	 */
+	public CloudinaryUploader setDeduplicator(CloudinaryUploadDeduplicator deduplicator) {
+		this.deduplicator = deduplicator;
+		return this;
+	}
+	
+	public CloudinaryUploadDeduplicator getDeduplicator() {
+		return deduplicator;
+	}
+	
+	/**
+	 * @return The scope of the deduplication: the options that change where and how the files are stored.
+	 */
+	private String getDeduplicationScope() {
+		return getUploadUrl() + "|" + config.getString("upload_preset") + "|" + config.getString("folder") + "|" 
+				+ config.getString("public_id");
+	}
+	
+	/**
+	 * Resumes the chunked uploads to the same {@link #getUploadUrl() URL} that were interrupted, such as by a network 
+	 * failure or a page reload. The resumed files are uploaded from their last confirmed chunk, and reported by the usual 
+	 * events. Does nothing if the uploader is not {@link #setResumable(boolean) resumable}.
+	 */
+	public void resumePendingUploads() {
+		if (!resumable || !CloudinaryIndexedDb.isSupported()) {
+			return;
+		}
+		CloudinaryUploadStateStore.findAll(new Callback<JsArray<CloudinaryUploadStateStore.UploadState>, Exception>() {
+			@Override
+			public void onSuccess(JsArray<CloudinaryUploadStateStore.UploadState> states) {
+				String url = getUploadUrl();
+				for (int i = 0; i < states.length(); i++) {
+					final CloudinaryUploadStateStore.UploadState state = states.get(i);
+					if (!url.equals(state.getUrl()) || isTracked(state.getKey())) {
+						continue;
+					}
+					CloudinaryUploadStateStore.findFile(state.getKey(), new Callback<CloudinaryFile, Exception>() {
+						@Override
+						public void onSuccess(CloudinaryFile file) {
+							// files without stored contents are resumed when the user uploads them again
+							if (file != null && !isTracked(state.getKey())) {
+								Upload upload = new Upload(file);
+								upload.stateKey = state.getKey();
+								restore(upload, state);
+								enqueue(upload);
+							}
+						}
+						@Override
+						public void onFailure(Exception reason) {
+						}
+					});
+				}
+			}
+			@Override
+			public void onFailure(Exception reason) {
+			}
+		});
+	}
+	
+	/**
+	 * @return Whether the upload with the given state key is queued or being uploaded.
+	 */
+	private boolean isTracked(String stateKey) {
+		for (Upload upload : pending) {
+			if (stateKey.equals(upload.stateKey)) {
+				return true;
+			}
+		}
+		for (Upload upload : active) {
+			if (stateKey.equals(upload.stateKey)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void restore(Upload upload, CloudinaryUploadStateStore.UploadState state) {
+		upload.uniqueId = state.getUniqueId();
+		upload.offset = state.getOffset();
+		upload.restored = true;
+	}
+	
+	/**
+	 * Sets an extra parameter sent with every file, such as the <code>signature</code>, <code>timestamp</code> and 
+	 * <code>api_key</code> of signed uploads.
+	 * 
+	 * @param value The value, or <code>null</code> to remove the parameter.
+	 */
+	public native CloudinaryUploader setParameter(String name, String value) /*-{
+		var parameters = this.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploader::parameters;
+		if (value == null) {
+			delete parameters[name];
+		}
+		else {
+			parameters[name] = value;
+		}
+		return this;
+	}-*/;
+	
+	/**
+	 * Sets the coalescing policy of the {@link CloudinaryFileUploadedEvent}s and {@link CloudinaryUploadProgressEvent}s.
+	 * 
+	 * @param policy Default: {@link CloudinaryCoalescingPolicy#immediate()}
+	 */
+	public CloudinaryUploader setCoalescingPolicy(CloudinaryCoalescingPolicy policy) {
+		coalescer.setPolicy(policy);
+		return this;
+	}
+	
+	public CloudinaryCoalescingPolicy getCoalescingPolicy() {
+		return coalescer.getPolicy();
+	}
+
+	/**
+	 * Adds the files to the queue. A native <code>FileList</code> can be cast to a <code>JsArray&lt;CloudinaryFile&gt;</code>.
+	 */
+	public void upload(JsArray<CloudinaryFile> files) {
+		for (int i = 0; i < files.length(); i++) {
+			upload(files.get(i));
+		}
+	}
+	
+	/**
+	 * Adds the files to the queue.
+	 */
+	public void upload(List<CloudinaryFile> files) {
+		for (CloudinaryFile file : files) {
+			upload(file);
+		}
+	}
+
+	/**
+	 * Adds the file to the queue. Files added while other files are being uploaded are part of the same batch, reported
+	 * by a single {@link CloudinaryUploadFinishedEvent}.
+	 */
+	public void upload(CloudinaryFile file) {
+		enqueue(new Upload(file));
+	}
+	
+	void enqueue(Upload upload) {
+		if (isIdle()) {
+			CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.STARTED, null);
+		}
+		addedCount++;
+		pending.add(upload);
+		CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.FILE_ADDED, upload.file);
+		coalescer.add(null);
+		pump();
+	}
+	
+	/**
+	 * @return Whether there is no file queued or being uploaded.
+	 */
+	public boolean isIdle() {
+		return pending.isEmpty() && active.isEmpty();
+	}
+	
+	/**
+	 * Aborts all the uploads. The files uploaded so far are reported by a {@link CloudinaryUploadFinishedEvent}.
+	 */
+	public void cancel() {
+		if (isIdle()) {
+			return;
+		}
+		List<Upload> canceled = new ArrayList<>(active);
+		canceled.addAll(pending);
+		int canceledCount = canceled.size();
+		pending.clear();
+		active.clear();
+		for (Upload upload : canceled) {
+			if (upload.request != null) {
+				abort(upload.request);
+				upload.request = null;
+			}
+			if (upload.stateKey != null) {
+				CloudinaryUploadStateStore.remove(upload.stateKey);
+			}
+		}
+		CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.CANCELLED, null);
+		lastError = "Upload cancelled";
+		failedCount += canceledCount;
+		finish();
+	}
+	
+	private void pump() {
+		while (active.size() < concurrency && !pending.isEmpty()) {
+			Upload upload = pending.remove(0);
+			active.add(upload);
+			if (resumable && upload.stateKey == null && CloudinaryIndexedDb.isSupported()) {
+				findState(upload);
+			}
+			else {
+				prepare(upload);
+			}
+		}
+	}
+
+	/**
+	 * Looks for the persisted state of a previous upload of the same file, and restores it if found. The stored contents
+	 * are preferred, since the offset refers to them (they may differ from the selected file when a preprocessor is set).
+	 */
+	private void findState(final Upload upload) {
+		final CloudinaryFile original = upload.file;
+		upload.stateKey = CloudinaryUploadStateStore.getKey(original, getUploadUrl());
+		CloudinaryUploadStateStore.find(upload.stateKey, new Callback<CloudinaryUploadStateStore.UploadState, Exception>() {
+			@Override
+			public void onSuccess(final CloudinaryUploadStateStore.UploadState state) {
+				if (state == null) {
+					prepare(upload);
+					return;
+				}
+				CloudinaryUploadStateStore.findFile(upload.stateKey, new Callback<CloudinaryFile, Exception>() {
+					@Override
+					public void onSuccess(CloudinaryFile stored) {
+						if (stored != null) {
+							upload.file = stored;
+							restore(upload, state);
+						}
+						else if (preprocessor == null && state.getSize() == original.getSize()) {
+							restore(upload, state);
+						}
+						else {
+							CloudinaryUploadStateStore.remove(upload.stateKey);
+						}
+						prepare(upload);
+					}
+					@Override
+					public void onFailure(Exception reason) {
+						prepare(upload);
+					}
+				});
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				prepare(upload);
+			}
+		});
+	}
+	
+	/**
+	 * Looks for the file in the index of the deduplicator, if any, and then runs the preprocessor. Restored uploads are not 
+	 * looked up, since they were not completed before.
+	 */
+	private void prepare(Upload upload) {
+		if (!active.contains(upload)) {
+			// canceled while looking for the state
+			return;
+		}
+		if (deduplicator != null && !upload.restored && CloudinaryIndexedDb.isSupported()) {
+			deduplicate(upload);
+		}
+		else {
+			preprocess(upload);
+		}
+	}
+	
+	/**
+	 * Hashes the selected file (before any preprocessing) and completes the upload with the result of a previous upload of 
+	 * the same contents, if any. Files that can't be hashed are uploaded as usual.
+	 */
+	private void deduplicate(final Upload upload) {
+		final CloudinaryUploadDeduplicator deduplicator = this.deduplicator;
+		final String scope = getDeduplicationScope();
+		deduplicator.hash(upload.file, new Callback<String, Exception>() {
+			@Override
+			public void onSuccess(final String hash) {
+				if (!active.contains(upload)) {
+					return;
+				}
+				deduplicator.find(hash, scope, new Callback<CloudinaryUploadResultJso, Exception>() {
+					@Override
+					public void onSuccess(CloudinaryUploadResultJso result) {
+						if (!active.contains(upload)) {
+							return;
+						}
+						if (result != null) {
+							onUploadCompleted(upload, result);
+							return;
+						}
+						upload.hash = hash;
+						preprocess(upload);
+					}
+					@Override
+					public void onFailure(Exception reason) {
+						upload.hash = hash;
+						preprocess(upload);
+					}
+				});
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				preprocess(upload);
+			}
+		});
+	}
+	
+	/**
+	 * Runs the preprocessor, if any, and sends the file. Restored uploads are not processed again.
+	 */
+	private void preprocess(final Upload upload) {
+		if (!active.contains(upload)) {
+			// canceled while hashing
+			return;
+		}
+		if (preprocessor == null || upload.restored) {
+			send(upload);
+			return;
+		}
+		preprocessor.process(upload.file, new Callback<CloudinaryFile, Exception>() {
+			@Override
+			public void onSuccess(CloudinaryFile result) {
+				upload.file = result;
+				send(upload);
+			}
+			@Override
+			public void onFailure(Exception reason) {
+				send(upload);
+			}
+		});
+	}
+	
+	/**
+	 * Sends the next part of the file: the whole file if it fits in a chunk, or the chunk starting at the confirmed offset.
+	 */
+	void send(Upload upload) {
+		if (!active.contains(upload)) {
+			// canceled while preprocessing
+			return;
+		}
+		CloudinaryFile file = upload.file;
+		double size = file.getSize();
+		String name = file.getName() == null ? "file" : file.getName();
+		JavaScriptObject params = createParameters(config.getJavaScriptObject(), parameters);
+		if (size <= chunkSize && upload.uniqueId == null) {
+			upload.requestEnd = size;
+			upload.request = post(upload, getUploadUrl(), params, file, name, null, null);
+			return;
+		}
+		if (upload.uniqueId == null) {
+			upload.uniqueId = createUniqueId();
+			if (upload.stateKey != null) {
+				CloudinaryUploadStateStore.create(upload.stateKey, getUploadUrl(), upload.uniqueId, file);
+			}
+		}
+		double end = Math.min(size, upload.offset + chunkSize);
+		upload.requestEnd = end;
+		String range = "bytes " + formatLong(upload.offset) + "-" + formatLong(end - 1) + "/" + formatLong(size);
+		upload.request = post(upload, getUploadUrl(), params, file.slice(upload.offset, end), name, upload.uniqueId, range);
+	}
+	
+	private void onProgress(Upload upload, double loaded) {
+		upload.inFlightBytes = loaded;
+		coalescer.add(null);
+	}
+	
+	private void onResponse(Upload upload, int status, JavaScriptObject response) {
+		if (!active.contains(upload)) {
+			return;
+		}
+		upload.request = null;
+		upload.inFlightBytes = 0;
+		if (status < 200 || status >= 300 || response == null) {
+			onUploadFailed(upload, status, response);
+			return;
+		}
+		uploadedBytes += upload.requestEnd - upload.offset;
+		upload.offset = upload.requestEnd;
+		if (upload.offset < upload.file.getSize()) {
+			onChunkConfirmed(upload);
+			send(upload);
+			return;
+		}
+		onUploadCompleted(upload, response.<CloudinaryUploadResultJso>cast());
+	}
+
+	/**
+	 * Called after each chunk is confirmed by the server, except the last one of the file.
+	 */
+	void onChunkConfirmed(Upload upload) {
+		if (upload.stateKey != null) {
+			CloudinaryUploadStateStore.save(upload.stateKey, getUploadUrl(), upload.uniqueId, upload.offset, upload.file.getSize());
+		}
+	}
+	
+	void onUploadCompleted(Upload upload, CloudinaryUploadResultJso result) {
+		active.remove(upload);
+		if (upload.stateKey != null) {
+			CloudinaryUploadStateStore.remove(upload.stateKey);
+		}
+		if (upload.hash != null && deduplicator != null) {
+			deduplicator.remember(upload.hash, getDeduplicationScope(), result);
+		}
+		if (results == null) {
+			results = JavaScriptObject.createArray().cast();
+		}
+		results.push(result);
+		completedCount++;
+		coalescer.add(result);
+		next();
+	}
+	
+	void onUploadFailed(Upload upload, int status, JavaScriptObject response) {
+		active.remove(upload);
+		if (upload.stateKey != null && status >= 400 && status < 500) {
+			// rejected by the server: resuming would fail the same way
+			CloudinaryUploadStateStore.remove(upload.stateKey);
+		}
+		failedCount++;
+		lastError = getFailureMessage(upload, status, response);
+		coalescer.add(null);
+		next();
+	}
+	
+	/**
+	 * @return The message of a failed upload, such as <code>photo.jpg: network error</code>.
+	 */
+	static String getFailureMessage(Upload upload, int status, JavaScriptObject response) {
+		String message = response == null ? null : getErrorMessage(response);
+		return (upload.file.getName() == null ? "file" : upload.file.getName()) + ": " 
+				+ (message != null ? message : status == 0 ? "network error" : "HTTP " + status);
+	}
+	
+	private void next() {
+		if (isIdle()) {
+			finish();
+		}
+		else {
+			pump();
+		}
+	}
+	
+	/**
+	 * Fires the {@link CloudinaryUploadFinishedEvent} of the batch and resets the counters.
+	 */
+	private void finish() {
+		coalescer.flush();
+		CloudinaryQueueEvent.fireQueueEvent(this, CloudinaryQueueEvent.Kind.ENDED, null);
+		JsArray<CloudinaryUploadResultJso> batch = results == null ? JavaScriptObject.createArray().<JsArray<CloudinaryUploadResultJso>>cast() : results;
+		String errorMessage = failedCount == 0 ? null 
+				: failedCount == 1 ? lastError : failedCount + " of " + addedCount + " files failed. Last error: " + lastError;
+		results = null;
+		addedCount = 0;
+		completedCount = 0;
+		failedCount = 0;
+		uploadedBytes = 0;
+		lastError = null;
+		CloudinaryUploadFinishedEvent.fireUploadFinished(this, errorMessage, batch, errorMessage == null ? null : createError(errorMessage));
+	}
+	
+	/**
+	 * @return The bytes uploaded in the current batch, including the requests in flight.
+	 */
+	public double getUploadedBytes() {
+		double bytes = uploadedBytes;
+		for (Upload upload : active) {
+			bytes += upload.inFlightBytes;
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Formats integral doubles without the decimal part, the same way on the JVM and on GWT.
+	 */
+	private static String formatLong(double value) {
+		return String.valueOf((long) value);
+	}
+	
+	private static native String createUniqueId() /*-{
+		var id = new Date().getTime().toString(36);
+		for (var i = 0; i < 3; i++) {
+			id += Math.floor(Math.random() * 0x100000000).toString(36);
+		}
+		return id;
+	}-*/;
+	
+	/**
+	 * @return The upload parameters from the options of the config and the extra parameters, as strings. Arrays are joined by
+	 * commas, and objects (the context) are written as <code>key=value|key=value</code>.
+	 */
+	private static native JavaScriptObject createParameters(JavaScriptObject options, JavaScriptObject extra) /*-{
+		var keys = ['upload_preset', 'folder', 'public_id', 'tags', 'context'];
+		var toString = Object.prototype.toString;
+		var params = {};
+		for (var i = 0; i < keys.length; i++) {
+			var value = options[keys[i]];
+			if (value == null) {
+				continue;
+			}
+			if (toString.call(value) === '[object Array]') {
+				value = value.join(',');
+			}
+			else if (toString.call(value) === '[object Object]') {
+				var parts = [];
+				for (var key in value) {
+					if (value.hasOwnProperty(key)) {
+						parts.push(key + '=' + value[key]);
+					}
+				}
+				value = parts.join('|');
+			}
+			params[keys[i]] = String(value);
+		}
+		for (var name in extra) {
+			if (extra.hasOwnProperty(name)) {
+				params[name] = extra[name];
+			}
+		}
+		return params;
+	}-*/;
+	
+	private native JavaScriptObject post(Upload upload, String url, JavaScriptObject params, CloudinaryFile blob, String fileName, 
+			String uniqueId, String contentRange) /*-{
+		var self = this;
+		var xhr = new $wnd.XMLHttpRequest();
+		xhr.open('POST', url, true);
+		if (uniqueId != null) {
+			xhr.setRequestHeader('X-Unique-Upload-Id', uniqueId);
+			xhr.setRequestHeader('Content-Range', contentRange);
+		}
+		var form = new $wnd.FormData();
+		for (var name in params) {
+			if (params.hasOwnProperty(name)) {
+				form.append(name, params[name]);
+			}
+		}
+		form.append('file', blob, fileName);
+		if (xhr.upload) {
+			xhr.upload.onprogress = $entry(function(e) {
+				self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploader::onProgress(Lcom/github/gilbertotorrezan/gwtcloudinary/client/CloudinaryUploader$Upload;D)(upload, e.loaded);
+			});
+		}
+		var done = $entry(function() {
+			var response = null;
+			try {
+				response = JSON.parse(xhr.responseText);
+			}
+			catch (e) {
+			}
+			if (response !== null && typeof response !== 'object') {
+				response = null;
+			}
+			self.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploader::onResponse(Lcom/github/gilbertotorrezan/gwtcloudinary/client/CloudinaryUploader$Upload;ILcom/google/gwt/core/client/JavaScriptObject;)(upload, xhr.status, response);
+		});
+		xhr.onload = done;
+		xhr.onerror = done;
+		xhr.ontimeout = done;
+		xhr.send(form);
+		return xhr;
+	}-*/;
+	
+	private static native void abort(JavaScriptObject request) /*-{
+		request.onload = request.onerror = request.ontimeout = null;
+		request.abort();
+	}-*/;
+	
+	private static native String getErrorMessage(JavaScriptObject response) /*-{
+		var error = response.error;
+		if (error && typeof error.message === 'string') {
+			return error.message;
+		}
+		return null;
+	}-*/;
+	
+	static native JavaScriptObject createError(String message) /*-{
+		return {message: message};
+	}-*/;
+
+	@Override
+	public void fireEvent(GwtEvent<?> event) {
+		handlerManager.fireEvent(event);
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryUploadFinishedHandler(CloudinaryUploadFinishedHandler handler) {
+		return handlerManager.addHandler(CloudinaryUploadFinishedEvent.getType(), handler);
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryFileUploadedHandler(CloudinaryFileUploadedHandler handler) {
+		return handlerManager.addHandler(CloudinaryFileUploadedEvent.getType(), handler);
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryUploadProgressHandler(CloudinaryUploadProgressHandler handler) {
+		return handlerManager.addHandler(CloudinaryUploadProgressEvent.getType(), handler);
+	}
+
+	@Override
+	public HandlerRegistration addCloudinaryQueueHandler(CloudinaryQueueHandler handler) {
+		return handlerManager.addHandler(CloudinaryQueueEvent.getType(), handler);
+	}
+}
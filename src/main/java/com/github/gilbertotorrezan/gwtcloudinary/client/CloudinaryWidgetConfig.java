@@ -0,0 +1,465 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.json.client.JSONObject;
+
+/**
+ * Immutable, pre-built options for the Upload Widget. The native options object is built once and handed as is to 
+ * the Cloudinary's library on every click, so a single config can be shared by any number of {@link CloudinaryUploadWidget}s.
+ * <p>
+ * Configs are built with a {@link Builder}, which has the same typed options of the {@link CloudinaryUploadWidget} but doesn't 
+ * reference it, so a config can be built for a {@link CloudinaryUploadButton} without adding the widget code to the initial 
+ * download. Example:
+ * <pre>
+ * CloudinaryWidgetConfig config = CloudinaryWidgetConfig.builder()
+ * 		.setCloudName("demo")
+ * 		.setUploadPreset("a5vxnzbp")
+ * 		.build();
+ * 
+ * for (...) {
+ * 		panel.add(new CloudinaryUploadWidget("Upload").setConfig(config));
+ * }
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadWidget#getConfig()
+ * @see CloudinaryUploadWidget#setConfig(CloudinaryWidgetConfig)
+ */
+public final class CloudinaryWidgetConfig {
+	
+	private final JavaScriptObject nativeOptions;
+	private String key;
+
+	private CloudinaryWidgetConfig(JavaScriptObject nativeOptions) {
+		this.nativeOptions = nativeOptions;
+	}
+
+	/**
+	 * @return A new, empty {@link Builder}.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Creates a new config with a copy of the given options. Later changes to the options are not reflected in the config.
+	 */
+	public static CloudinaryWidgetConfig create(JSONObject options) {
+		if (options == null) {
+			throw new NullPointerException("options");
+		}
+		return new CloudinaryWidgetConfig(copy(options.getJavaScriptObject()));
+	}
+
+	/**
+	 * @return The native options object passed to the Upload Widget. It is shared, so it must not be modified.
+	 */
+	public JavaScriptObject getJavaScriptObject() {
+		return nativeOptions;
+	}
+
+	/**
+	 * @return A new, modifiable copy of the options.
+	 */
+	public JSONObject toJSONObject() {
+		return new JSONObject(copy(nativeOptions));
+	}
+
+	/**
+	 * @return The string option with the given key, such as "cloud_name", or <code>null</code> if it is not set or is not a string.
+	 */
+	public native String getString(String key) /*-{
+		var value = this.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryWidgetConfig::nativeOptions[key];
+		return typeof value === 'string' ? value : null;
+	}-*/;
+
+	/**
+	 * @return The numeric option with the given key, such as "max_image_width", or <code>null</code> if it is not set or is not a number.
+	 */
+	public Double getNumber(String key) {
+		return hasNumber(key) ? getNumberValue(key) : null;
+	}
+	
+	private native boolean hasNumber(String key) /*-{
+		return typeof this.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryWidgetConfig::nativeOptions[key] === 'number';
+	}-*/;
+	
+	private native double getNumberValue(String key) /*-{
+		return this.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryWidgetConfig::nativeOptions[key];
+	}-*/;
+
+	/**
+	 * @return A string that is equal for configs with the same options, used to share pooled native widgets.
+	 */
+	String getKey() {
+		if (key == null) {
+			key = toString();
+		}
+		return key;
+	}
+
+	@Override
+	public String toString() {
+		return new JSONObject(nativeOptions).toString();
+	}
+
+	/**
+	 * Deep copy of the JSON-like values (plain objects and arrays). Any other value is copied by reference.
+	 */
+	private static native JavaScriptObject copy(JavaScriptObject source)/*-{
+		var toString = Object.prototype.toString;
+		var copyValue = function(value) {
+			var type = toString.call(value);
+			if (type === '[object Array]') {
+				var array = [];
+				for (var i = 0; i < value.length; i++) {
+					array.push(copyValue(value[i]));
+				}
+				return array;
+			}
+			if (type === '[object Object]') {
+				var object = {};
+				for (var key in value) {
+					if (value.hasOwnProperty(key)) {
+						object[key] = copyValue(value[key]);
+					}
+				}
+				return object;
+			}
+			return value;
+		};
+		return copyValue(source);
+	}-*/;
+
+	static void putString(JavaScriptObject options, String key, String value) {
+		putValue(options, key, value);
+	}
+
+	static void putNumber(JavaScriptObject options, String key, Number value) {
+		if (value == null) {
+			putValue(options, key, null);
+		}
+		else {
+			putNumber(options, key, value.doubleValue());
+		}
+	}
+
+	static void putBoolean(JavaScriptObject options, String key, Boolean value) {
+		if (value == null) {
+			putValue(options, key, null);
+		}
+		else {
+			putBoolean(options, key, value.booleanValue());
+		}
+	}
+
+	static void putObject(JavaScriptObject options, String key, JSONObject value) {
+		putValue(options, key, value == null ? null : value.getJavaScriptObject());
+	}
+
+	static void putStringArray(JavaScriptObject options, String key, String[] values) {
+		JsArrayString array = null;
+		if (values != null) {
+			array = JavaScriptObject.createArray().cast();
+			for (int i = 0; i < values.length; i++) {
+				array.push(values[i]);
+			}
+		}
+		putValue(options, key, array);
+	}
+
+	private static native void putValue(JavaScriptObject options, String key, Object value)/*-{
+		if (value == null) {
+			delete options[key];
+		}
+		else {
+			options[key] = value;
+		}
+	}-*/;
+
+	private static native void putNumber(JavaScriptObject options, String key, double value)/*-{
+		options[key] = value;
+	}-*/;
+
+	private static native void putBoolean(JavaScriptObject options, String key, boolean value)/*-{
+		options[key] = value;
+	}-*/;
+
+	/**
+	 * Builds {@link CloudinaryWidgetConfig}s with typed options. Each option is documented on the equivalent setter of the 
+	 * {@link CloudinaryUploadWidget}, and <code>null</code> values remove the option. The builder can be reused: each call to
+	 * {@link #build()} returns a new config with a copy of the options set so far.
+	 * 
+	 * @author Gilberto Torrezan Filho
+	 *
+	 * @since v.1.0.2
+	 * 
+	 * @see CloudinaryWidgetConfig#builder()
+	 */
+	public static final class Builder {
+		
+		private final JavaScriptObject options = JavaScriptObject.createObject();
+		
+		private Builder() {
+		}
+
+		/**
+		 * @return A new config with a copy of the options set so far.
+		 */
+		public CloudinaryWidgetConfig build() {
+			return new CloudinaryWidgetConfig(copy(options));
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setCloudName(String)
+		 */
+		public Builder setCloudName(String cloudName) {
+			putString(options, "cloud_name", cloudName);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setUploadPreset(String)
+		 */
+		public Builder setUploadPreset(String uploadPreset) {
+			putString(options, "upload_preset", uploadPreset);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setSources(String[])
+		 */
+		public Builder setSources(String[] sources) {
+			putStringArray(options, "sources", sources);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setDefaultSource(String)
+		 */
+		public Builder setDefaultSource(String defaultSource) {
+			putString(options, "default_source", defaultSource);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setMultiple(Boolean)
+		 */
+		public Builder setMultiple(Boolean multiple) {
+			putBoolean(options, "multiple", multiple);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setMaxFiles(Integer)
+		 */
+		public Builder setMaxFiles(Integer maxFiles) {
+			putNumber(options, "max_files", maxFiles);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setCropping(String)
+		 */
+		public Builder setCropping(String cropping) {
+			putString(options, "cropping", cropping);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setCroppingAspectRatio(Double)
+		 */
+		public Builder setCroppingAspectRatio(Double croppingAspectRatio) {
+			putNumber(options, "cropping_aspect_ratio", croppingAspectRatio);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setCroppingDefaultSelectionRatio(Double)
+		 */
+		public Builder setCroppingDefaultSelectionRatio(Double croppingDefaultSelectionRatio) {
+			putNumber(options, "cropping_default_selection_ratio", croppingDefaultSelectionRatio);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setPublicId(String)
+		 */
+		public Builder setPublicId(String publicId) {
+			putString(options, "public_id", publicId);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setFolder(String)
+		 */
+		public Builder setFolder(String folder) {
+			putString(options, "folder", folder);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setTags(String[])
+		 */
+		public Builder setTags(String[] tags) {
+			putStringArray(options, "tags", tags);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setResourceType(String)
+		 */
+		public Builder setResourceType(String resourceType) {
+			putString(options, "resource_type", resourceType);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setContext(JSONObject)
+		 */
+		public Builder setContext(JSONObject context) {
+			putObject(options, "context", context);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setClientAllowedFormats(String[])
+		 */
+		public Builder setClientAllowedFormats(String[] clientAllowedFormats) {
+			putStringArray(options, "client_allowed_formats", clientAllowedFormats);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setMaxFileSize(Integer)
+		 */
+		public Builder setMaxFileSize(Integer maxFileSize) {
+			putNumber(options, "max_file_size", maxFileSize);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setMaxImageWidth(Integer)
+		 */
+		public Builder setMaxImageWidth(Integer maxImageWidth) {
+			putNumber(options, "max_image_width", maxImageWidth);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setMaxImageHeight(Integer)
+		 */
+		public Builder setMaxImageHeight(Integer maxImageHeight) {
+			putNumber(options, "max_image_height", maxImageHeight);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setForm(String)
+		 */
+		public Builder setForm(String form) {
+			putString(options, "form", form);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setFieldName(String)
+		 */
+		public Builder setFieldName(String fieldName) {
+			putString(options, "field_name", fieldName);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setThumbnails(String)
+		 */
+		public Builder setThumbnails(String thumbnails) {
+			putString(options, "thumbnails", thumbnails);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setThumbnailTransformation(JSONObject)
+		 */
+		public Builder setThumbnailTransformation(JSONObject thumbnailTransformation) {
+			putObject(options, "thumbnail_transformation", thumbnailTransformation);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setButtonClass(String)
+		 */
+		public Builder setButtonClass(String buttonClass) {
+			putString(options, "button_class", buttonClass);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setButtonCaption(String)
+		 */
+		public Builder setButtonCaption(String buttonCaption) {
+			putString(options, "button_caption", buttonCaption);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setTheme(String)
+		 */
+		public Builder setTheme(String theme) {
+			putString(options, "theme", theme);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setStylesheet(String)
+		 */
+		public Builder setStylesheet(String stylesheet) {
+			putString(options, "stylesheet", stylesheet);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setKeepWidgetOpen(Boolean)
+		 */
+		public Builder setKeepWidgetOpen(Boolean keepWidgetOpen) {
+			putBoolean(options, "keep_widget_open", keepWidgetOpen);
+			return this;
+		}
+
+		/**
+		 * @see CloudinaryUploadWidget#setShowPoweredBy(Boolean)
+		 */
+		public Builder setShowPoweredBy(Boolean showPoweredBy) {
+			putBoolean(options, "show_powered_by", showPoweredBy);
+			return this;
+		}
+	}
+}
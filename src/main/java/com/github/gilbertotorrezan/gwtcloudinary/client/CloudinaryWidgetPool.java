@@ -0,0 +1,188 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Pool of native Upload Widget instances, created with <code>cloudinary.createUploadWidget</code>. One native instance is 
+ * created for each distinct {@link CloudinaryWidgetConfig}, and reused by every {@link CloudinaryUploadWidget} in pooled mode 
+ * that uses an equivalent config, so the dialog and its assets are loaded only once.
+ * <p>
+ * The pool keeps at most {@link #getMaxSize()} native instances: when a new one is needed, the least recently opened instance 
+ * is destroyed. Instances can also be discarded with {@link #remove(CloudinaryWidgetConfig)} or {@link #clear()}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadWidget#setPooled(boolean)
+ */
+public final class CloudinaryWidgetPool {
+	
+	private static final Map<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CloudinaryWidgetPool.Entry> eldest) {
+			if (size() <= maxSize) {
+				return false;
+			}
+			destroy(eldest.getValue().nativeWidget);
+			return true;
+		}
+	};
+	
+	private static int maxSize = 4;
+	
+	private CloudinaryWidgetPool() {
+	}
+
+	/**
+	 * Opens the pooled native widget for the given config, creating it on first use. The callbacks are routed to the given owner
+	 * until another widget opens the same instance.
+	 * 
+	 * @return <code>false</code> if the Cloudinary's library doesn't support <code>createUploadWidget</code>.
+	 */
+	static boolean open(CloudinaryUploadWidget owner, CloudinaryWidgetConfig config) {
+		if (!isSupported()) {
+			return false;
+		}
+		String key = config.getKey();
+		Entry entry = ENTRIES.get(key);
+		if (entry == null) {
+			entry = new Entry();
+			entry.nativeWidget = entry.create(config.getJavaScriptObject());
+			ENTRIES.put(key, entry);
+		}
+		entry.owner = owner;
+		open(entry.nativeWidget);
+		return true;
+	}
+
+	/**
+	 * Stops routing the callbacks to the given owner, so a detached widget is not kept by the pool. Called when the
+	 * {@link CloudinaryUploadWidget} is detached.
+	 */
+	static void release(CloudinaryUploadWidget owner) {
+		for (Entry entry : ENTRIES.values()) {
+			if (entry.owner == owner) {
+				entry.owner = null;
+			}
+		}
+	}
+
+	/**
+	 * Closes and discards the pooled native widget of the given config, if any. A new instance is created on the next click.
+	 * 
+	 * @return <code>true</code> if there was a pooled instance for the config.
+	 */
+	public static boolean remove(CloudinaryWidgetConfig config) {
+		Entry entry = ENTRIES.remove(config.getKey());
+		if (entry == null) {
+			return false;
+		}
+		destroy(entry.nativeWidget);
+		return true;
+	}
+
+	/**
+	 * Sets the maximum number of native widget instances kept by the pool. The least recently opened instances are destroyed
+	 * when the pool grows past it.
+	 * 
+	 * @param maxSize Default: 4
+	 */
+	public static void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("The max size must be at least 1: " + maxSize);
+		}
+		CloudinaryWidgetPool.maxSize = maxSize;
+		while (ENTRIES.size() > maxSize) {
+			Map.Entry<String, Entry> eldest = ENTRIES.entrySet().iterator().next();
+			destroy(eldest.getValue().nativeWidget);
+			ENTRIES.remove(eldest.getKey());
+		}
+	}
+
+	public static int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return The number of native widget instances in the pool.
+	 */
+	public static int size() {
+		return ENTRIES.size();
+	}
+
+	/**
+	 * Closes and discards all the pooled native widgets. New instances are created on the next click.
+	 */
+	public static void clear() {
+		for (Entry entry : ENTRIES.values()) {
+			destroy(entry.nativeWidget);
+		}
+		ENTRIES.clear();
+	}
+
+	private static native boolean isSupported()/*-{
+		return !!($wnd.cloudinary && $wnd.cloudinary.createUploadWidget);
+	}-*/;
+
+	private static native void open(JavaScriptObject nativeWidget)/*-{
+		nativeWidget.open();
+	}-*/;
+
+	private static native void destroy(JavaScriptObject nativeWidget)/*-{
+		if (nativeWidget.destroy) {
+			nativeWidget.destroy();
+		}
+		else if (nativeWidget.close) {
+			nativeWidget.close();
+		}
+	}-*/;
+
+	private static class Entry {
+		
+		private JavaScriptObject nativeWidget;
+		private CloudinaryUploadWidget owner;
+		
+		private void onCallback(JavaScriptObject error, JavaScriptObject result) {
+			if (owner != null) {
+				owner.onWidgetCallback(error, result);
+			}
+		}
+
+		private native JavaScriptObject create(JavaScriptObject options)/*-{
+			var entry = this;
+			return $wnd.cloudinary.createUploadWidget(options, $entry(function(error, result) {
+				entry.@com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryWidgetPool.Entry::onCallback(Lcom/google/gwt/core/client/JavaScriptObject;Lcom/google/gwt/core/client/JavaScriptObject;)(error, result);
+			}));
+		}-*/;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Creates dedicated Web Workers from inline sources, so no extra script needs to be deployed with the application.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+final class CloudinaryWorkers {
+	
+	private CloudinaryWorkers() {
+	}
+
+	/**
+	 * @return A new worker running the given source, or <code>null</code> if the browser doesn't support workers or the page 
+	 * doesn't allow <code>blob:</code> workers.
+	 */
+	static native JavaScriptObject create(String source) /*-{
+		if (typeof $wnd.Worker === 'undefined' || typeof $wnd.Blob === 'undefined' || !$wnd.URL || !$wnd.URL.createObjectURL) {
+			return null;
+		}
+		try {
+			// the URL is not revoked, since older browsers resolve it only after the constructor returns
+			var url = $wnd.URL.createObjectURL(new $wnd.Blob([source], {type: 'application/javascript'}));
+			return new $wnd.Worker(url);
+		}
+		catch (e) {
+			return null;
+		}
+	}-*/;
+	
+	static native void terminate(JavaScriptObject worker) /*-{
+		worker.terminate();
+	}-*/;
+}
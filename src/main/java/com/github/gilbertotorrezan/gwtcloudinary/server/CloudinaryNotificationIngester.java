@@ -0,0 +1,303 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * Hands upload notifications to a {@link CloudinaryNotificationSink} in batches, using a bounded queue and a fixed number of
+ * worker threads. When the queue is full, {@link #offer(List)} waits up to the offer timeout and then rejects the notifications,
+ * so the caller can ask Cloudinary to retry later instead of piling up requests.
+ * <p>
+ * Configure it with the setters, then call {@link #start()}:
+ * <pre>
+ * CloudinaryNotificationIngester ingester = new CloudinaryNotificationIngester(sink)
+ * 		.setWorkerThreads(4)
+ * 		.setQueueCapacity(10000)
+ * 		.setBatchSize(200);
+ * ingester.start();
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryNotificationServlet
+ */
+public class CloudinaryNotificationIngester {
+	
+	private static final Logger LOGGER = Logger.getLogger(CloudinaryNotificationIngester.class.getName());
+	
+	private final CloudinaryNotificationSink sink;
+	
+	private int workerThreads = 2;
+	private int queueCapacity = 10000;
+	private int batchSize = 100;
+	private long maxBatchDelayMillis = 100;
+	private long offerTimeoutMillis = 1000;
+	
+	private BlockingQueue<CloudinaryUploadInfo> queue;
+	// the free slots of the queue, so a request can wait for room for all of its notifications at once
+	private Semaphore room;
+	private ExecutorService executor;
+	private volatile boolean running;
+	// held while queueing and while stopping, so nothing is queued after the workers are told to stop
+	private final Object offerLock = new Object();
+	
+	private final AtomicLong acceptedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong deliveredCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+
+	public CloudinaryNotificationIngester(CloudinaryNotificationSink sink) {
+		if (sink == null) {
+			throw new NullPointerException("sink");
+		}
+		this.sink = sink;
+	}
+
+	/**
+	 * @param workerThreads The number of threads calling the sink. Default: 2
+	 */
+	public CloudinaryNotificationIngester setWorkerThreads(int workerThreads) {
+		checkNotStarted();
+		this.workerThreads = checkPositive(workerThreads, "workerThreads");
+		return this;
+	}
+
+	/**
+	 * @param queueCapacity The max number of notifications waiting for a worker. Default: 10000
+	 */
+	public CloudinaryNotificationIngester setQueueCapacity(int queueCapacity) {
+		checkNotStarted();
+		this.queueCapacity = checkPositive(queueCapacity, "queueCapacity");
+		return this;
+	}
+
+	/**
+	 * @param batchSize The max number of notifications passed to the sink at once. Default: 100
+	 */
+	public CloudinaryNotificationIngester setBatchSize(int batchSize) {
+		checkNotStarted();
+		this.batchSize = checkPositive(batchSize, "batchSize");
+		return this;
+	}
+
+	/**
+	 * @param maxBatchDelayMillis How long a worker waits for more notifications to fill a batch. Default: 100
+	 */
+	public CloudinaryNotificationIngester setMaxBatchDelayMillis(long maxBatchDelayMillis) {
+		checkNotStarted();
+		this.maxBatchDelayMillis = Math.max(0, maxBatchDelayMillis);
+		return this;
+	}
+
+	/**
+	 * @param offerTimeoutMillis How long {@link #offer(List)} waits for room in a full queue. Default: 1000
+	 */
+	public CloudinaryNotificationIngester setOfferTimeoutMillis(long offerTimeoutMillis) {
+		this.offerTimeoutMillis = Math.max(0, offerTimeoutMillis);
+		return this;
+	}
+
+	/**
+	 * Starts the worker threads.
+	 */
+	public synchronized void start() {
+		checkNotStarted();
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		room = new Semaphore(queueCapacity, true);
+		running = true;
+		executor = Executors.newFixedThreadPool(workerThreads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "cloudinary-ingester-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		for (int i = 0; i < workerThreads; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					work();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stops accepting notifications, and waits for the workers to deliver the queued ones.
+	 * 
+	 * @return <code>true</code> if all the queued notifications were delivered within the timeout.
+	 */
+	public synchronized boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+		if (executor == null) {
+			return true;
+		}
+		synchronized (offerLock) {
+			running = false;
+		}
+		executor.shutdown();
+		return executor.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * Queues the notifications to be delivered to the sink. Either all of them are queued or none is.
+	 * 
+	 * @return <code>false</code> if the queue had no room for them within the offer timeout, or if the ingester is not running.
+	 */
+	public boolean offer(List<CloudinaryUploadInfo> infos) throws InterruptedException {
+		if (!running || infos.size() > queueCapacity 
+				|| !room.tryAcquire(infos.size(), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+			rejectedCount.addAndGet(infos.size());
+			return false;
+		}
+		synchronized (offerLock) {
+			// the ingester may have been shut down while waiting for room
+			if (!running) {
+				room.release(infos.size());
+				rejectedCount.addAndGet(infos.size());
+				return false;
+			}
+			queue.addAll(infos);
+		}
+		acceptedCount.addAndGet(infos.size());
+		return true;
+	}
+
+	private void work() {
+		List<CloudinaryUploadInfo> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				CloudinaryUploadInfo first = queue.poll(maxBatchDelayMillis > 0 ? maxBatchDelayMillis : 1, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+				while (batch.size() < batchSize) {
+					queue.drainTo(batch, batchSize - batch.size());
+					long remaining = deadline - System.nanoTime();
+					if (batch.size() >= batchSize || remaining <= 0) {
+						break;
+					}
+					CloudinaryUploadInfo next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				room.release(batch.size());
+				deliver(batch);
+				// the sink may keep the delivered list
+				batch = new ArrayList<>(batchSize);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void deliver(List<CloudinaryUploadInfo> batch) {
+		try {
+			sink.accept(batch);
+			deliveredCount.addAndGet(batch.size());
+		}
+		catch (Exception e) {
+			failedCount.addAndGet(batch.size());
+			LOGGER.log(Level.WARNING, "The sink failed to accept a batch of " + batch.size() + " notifications", e);
+		}
+	}
+
+	/**
+	 * @return The number of notifications waiting for a worker.
+	 */
+	public int getQueueSize() {
+		return queue == null ? 0 : queue.size();
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @return The number of notifications queued so far.
+	 */
+	public long getAcceptedCount() {
+		return acceptedCount.get();
+	}
+
+	/**
+	 * @return The number of notifications rejected because the queue was full or the ingester was not running.
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	/**
+	 * @return The number of notifications accepted by the sink.
+	 */
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	/**
+	 * @return The number of notifications in batches that the sink failed to accept.
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	private void checkNotStarted() {
+		if (executor != null) {
+			throw new IllegalStateException("The ingester was already started.");
+		}
+	}
+
+	private static int checkPositive(int value, String name) {
+		if (value <= 0) {
+			throw new IllegalArgumentException(name + " must be positive.");
+		}
+		return value;
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryUploadInfoDecoder;
+
+/**
+ * Receives the upload notifications posted by Cloudinary to the <code>notification_url</code>, verifies their signatures, decodes
+ * them with the {@link CloudinaryUploadInfoDecoder} and queues them in a {@link CloudinaryNotificationIngester}. The request 
+ * thread returns as soon as the notifications are queued. When the queue is full the response is a <code>503</code> with a 
+ * <code>Retry-After</code> header, so Cloudinary sends the notification again later.
+ * <p>
+ * The servlet can be created with an ingester and verifier, or configured in the <code>web.xml</code> with the init parameters:
+ * <ul>
+ * <li><code>apiSecret</code>: the API secret of the Cloudinary account. Mandatory unless <code>verifySignatures</code> is false.</li>
+ * <li><code>verifySignatures</code>: whether the signatures are verified. Default: true</li>
+ * <li><code>maxAgeSeconds</code>: the max age of signed notifications. Default: 0. No limit.</li>
+ * <li><code>allowResultSignatures</code>: see {@link #setAllowResultSignatures(boolean)}. Default: false</li>
+ * <li><code>sinkClass</code>: the {@link CloudinaryNotificationSink} implementation, with a public no-args constructor. 
+ * Mandatory unless {@link #createSink()} is overridden.</li>
+ * <li><code>workerThreads</code>, <code>queueCapacity</code>, <code>batchSize</code>: see {@link CloudinaryNotificationIngester}.</li>
+ * <li><code>maxBodySize</code>: the max size of a request, in bytes. Default: 1048576</li>
+ * </ul>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryNotificationServlet extends HttpServlet {
+
+	private static final long serialVersionUID = 1L;
+	
+	public static final String TIMESTAMP_HEADER = "X-Cld-Timestamp";
+	public static final String SIGNATURE_HEADER = "X-Cld-Signature";
+	
+	private static final int RETRY_AFTER_SECONDS = 5;
+	
+	private transient CloudinaryNotificationIngester ingester;
+	private transient CloudinarySignatureVerifier verifier;
+	private transient boolean ownsIngester;
+	private boolean allowResultSignatures;
+	private final transient CloudinaryUploadInfoDecoder decoder = new CloudinaryUploadInfoDecoder();
+	private int maxBodySize = 1024 * 1024;
+
+	/**
+	 * Creates a servlet configured by its init parameters.
+	 */
+	public CloudinaryNotificationServlet() {
+	}
+
+	/**
+	 * Creates a servlet that queues the notifications in the given ingester, which must be started and shut down by the caller.
+	 * 
+	 * @param verifier The signature verifier, or <code>null</code> to accept unsigned notifications.
+	 */
+	public CloudinaryNotificationServlet(CloudinaryNotificationIngester ingester, CloudinarySignatureVerifier verifier) {
+		if (ingester == null) {
+			throw new NullPointerException("ingester");
+		}
+		this.ingester = ingester;
+		this.verifier = verifier;
+	}
+
+	/**
+	 * Whether notifications without the <code>X-Cld-Signature</code> header are accepted when the <code>signature</code> field 
+	 * of each result is valid. That field is the SHA-1 of the public ID and version of the result, and it is also returned to the 
+	 * browser in the upload response, so anyone who uploaded a file can replay it as a notification. It carries no timestamp 
+	 * either, so the max age of the {@link CloudinarySignatureVerifier} doesn't apply. Enable it only for accounts that don't 
+	 * sign the notification requests.
+	 * 
+	 * @param allowResultSignatures Default: false. Notifications without the header are rejected.
+	 */
+	public CloudinaryNotificationServlet setAllowResultSignatures(boolean allowResultSignatures) {
+		this.allowResultSignatures = allowResultSignatures;
+		return this;
+	}
+
+	public boolean isAllowResultSignatures() {
+		return allowResultSignatures;
+	}
+
+	@Override
+	public void init() throws ServletException {
+		String maxBodySizeParam = getInitParameter("maxBodySize");
+		if (maxBodySizeParam != null) {
+			maxBodySize = getIntParameter("maxBodySize");
+		}
+		if (getInitParameter("allowResultSignatures") != null) {
+			allowResultSignatures = "true".equalsIgnoreCase(getInitParameter("allowResultSignatures").trim());
+		}
+		if (ingester != null) {
+			return;
+		}
+		
+		if (!"false".equalsIgnoreCase(getInitParameter("verifySignatures"))) {
+			String apiSecret = getInitParameter("apiSecret");
+			if (apiSecret == null) {
+				throw new ServletException("The apiSecret init parameter is mandatory when verifySignatures is not false.");
+			}
+			verifier = new CloudinarySignatureVerifier(apiSecret);
+			if (getInitParameter("maxAgeSeconds") != null) {
+				verifier.setMaxAgeSeconds(getIntParameter("maxAgeSeconds"));
+			}
+		}
+		
+		ingester = new CloudinaryNotificationIngester(createSink());
+		if (getInitParameter("workerThreads") != null) {
+			ingester.setWorkerThreads(getIntParameter("workerThreads"));
+		}
+		if (getInitParameter("queueCapacity") != null) {
+			ingester.setQueueCapacity(getIntParameter("queueCapacity"));
+		}
+		if (getInitParameter("batchSize") != null) {
+			ingester.setBatchSize(getIntParameter("batchSize"));
+		}
+		ingester.start();
+		ownsIngester = true;
+	}
+
+	/**
+	 * Creates the sink of the notifications, when the servlet is configured by its init parameters. By default it instantiates
+	 * the class given by the <code>sinkClass</code> init parameter.
+	 */
+	protected CloudinaryNotificationSink createSink() throws ServletException {
+		String sinkClass = getInitParameter("sinkClass");
+		if (sinkClass == null) {
+			throw new ServletException("The sinkClass init parameter is mandatory.");
+		}
+		try {
+			return (CloudinaryNotificationSink) Class.forName(sinkClass, true, Thread.currentThread().getContextClassLoader())
+					.getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | ClassCastException e) {
+			throw new ServletException("Could not create the sink " + sinkClass, e);
+		}
+	}
+
+	private int getIntParameter(String name) throws ServletException {
+		try {
+			return Integer.parseInt(getInitParameter(name).trim());
+		}
+		catch (NumberFormatException e) {
+			throw new ServletException("The init parameter " + name + " must be a number.", e);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (ownsIngester) {
+			try {
+				ingester.shutdown(30, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		super.destroy();
+	}
+
+	@Override
+	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+		String body = readBody(request);
+		if (body == null) {
+			response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+			return;
+		}
+		
+		String signature = request.getHeader(SIGNATURE_HEADER);
+		if (verifier != null && signature == null && !allowResultSignatures) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing signature");
+			return;
+		}
+		if (verifier != null && signature != null 
+				&& !verifier.verifyNotification(body, request.getHeader(TIMESTAMP_HEADER), signature)) {
+			response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid signature");
+			return;
+		}
+		
+		List<CloudinaryUploadInfo> infos;
+		try {
+			infos = decoder.decodeList(body);
+		}
+		catch (IllegalArgumentException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Malformed notification");
+			return;
+		}
+		
+		List<CloudinaryUploadInfo> uploads = new ArrayList<>(infos.size());
+		for (CloudinaryUploadInfo info : infos) {
+			// notifications of other kinds, such as deletions, don't carry a public id at the top level
+			if (info.getPublicId() == null) {
+				continue;
+			}
+			// only reached when result signatures are allowed
+			if (verifier != null && signature == null && !verifier.verifyUploadInfo(info)) {
+				response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid signature");
+				return;
+			}
+			uploads.add(info);
+		}
+		
+		if (!uploads.isEmpty()) {
+			boolean queued;
+			try {
+				queued = ingester.offer(uploads);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				queued = false;
+			}
+			if (!queued) {
+				response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+				response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+				return;
+			}
+		}
+		response.setStatus(HttpServletResponse.SC_OK);
+	}
+
+	/**
+	 * @return The request body, or <code>null</code> if it is larger than the max body size.
+	 */
+	private String readBody(HttpServletRequest request) throws IOException {
+		if (request.getContentLength() > maxBodySize) {
+			return null;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(request.getContentLength(), 1024));
+		byte[] buffer = new byte[8192];
+		try (InputStream in = request.getInputStream()) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				if (out.size() + read > maxBodySize) {
+					return null;
+				}
+				out.write(buffer, 0, read);
+			}
+		}
+		String encoding = request.getCharacterEncoding();
+		return out.toString(encoding == null ? "UTF-8" : encoding);
+	}
+
+	public CloudinaryNotificationIngester getIngester() {
+		return ingester;
+	}
+}
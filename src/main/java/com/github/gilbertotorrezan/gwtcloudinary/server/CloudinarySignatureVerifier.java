@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.server;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * Verifies the signatures sent by Cloudinary, using the API secret of the account.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see http://cloudinary.com/documentation/upload_images#verifying_signatures
+ */
+public class CloudinarySignatureVerifier {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final String apiSecret;
+	private long maxAgeSeconds;
+
+	public CloudinarySignatureVerifier(String apiSecret) {
+		if (apiSecret == null || apiSecret.isEmpty()) {
+			throw new IllegalArgumentException("The API secret is mandatory.");
+		}
+		this.apiSecret = apiSecret;
+	}
+
+	/**
+	 * The max age of the notifications verified by {@link #verifyNotification(String, String, String)}, to prevent replays.
+	 * 
+	 * @param maxAgeSeconds Default: 0. No limit.
+	 */
+	public CloudinarySignatureVerifier setMaxAgeSeconds(long maxAgeSeconds) {
+		this.maxAgeSeconds = maxAgeSeconds;
+		return this;
+	}
+
+	public long getMaxAgeSeconds() {
+		return maxAgeSeconds;
+	}
+
+	/**
+	 * Verifies the signature of a notification request, sent in the <code>X-Cld-Signature</code> header. The signature is the 
+	 * SHA-1 of the body, followed by the <code>X-Cld-Timestamp</code> header and the API secret.
+	 */
+	public boolean verifyNotification(String body, String timestamp, String signature) {
+		if (body == null || timestamp == null || signature == null) {
+			return false;
+		}
+		if (maxAgeSeconds > 0) {
+			try {
+				long age = System.currentTimeMillis() / 1000 - Long.parseLong(timestamp.trim());
+				if (age > maxAgeSeconds) {
+					return false;
+				}
+			}
+			catch (NumberFormatException e) {
+				return false;
+			}
+		}
+		return constantTimeEquals(sha1Hex(body + timestamp + apiSecret), signature.trim());
+	}
+
+	/**
+	 * Verifies the <code>signature</code> field of an upload result, which is the SHA-1 of its public ID and version
+	 * followed by the API secret. The same signature is returned to the browser in the upload response, so it proves that the
+	 * result came from Cloudinary, but not that the request was sent by Cloudinary or is recent.
+	 */
+	public boolean verifyUploadInfo(CloudinaryUploadInfo info) {
+		if (info == null || info.getPublicId() == null || info.getVersion() == null || info.getSignature() == null) {
+			return false;
+		}
+		String toSign = "public_id=" + info.getPublicId() + "&version=" + info.getVersion();
+		return constantTimeEquals(sha1Hex(toSign + apiSecret), info.getSignature());
+	}
+
+	private static String sha1Hex(String value) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		byte[] hash = digest.digest(value.getBytes(UTF_8));
+		char[] hex = new char[hash.length * 2];
+		for (int i = 0; i < hash.length; i++) {
+			hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+			hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+		}
+		return new String(hex);
+	}
+
+	private static boolean constantTimeEquals(String expected, String actual) {
+		return MessageDigest.isEqual(expected.getBytes(UTF_8), actual.toLowerCase(Locale.ENGLISH).getBytes(UTF_8));
+	}
+}
@@ -0,0 +1,403 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+/**
+ * Minimal pull parser for JSON documents, that reads the values in order without building any intermediate tree.
+ * It only depends on the classes emulated by GWT, so it runs both in the browser and on the JVM.
+ * <p>
+ * Malformed documents are reported with {@link IllegalArgumentException}s.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUploadInfoDecoder
+ */
+public class CloudinaryJsonReader {
+	
+	/**
+	 * The kinds of tokens returned by {@link CloudinaryJsonReader#peek()}.
+	 */
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+	
+	private static final int MAX_DEPTH = 64;
+	
+	private final String json;
+	private int position;
+	
+	/*
+	 * The state of each open object or array: whether it is an object, and whether a value was already read from it
+	 * (so the next one must be preceded by a comma). For objects, it also tracks if the next token is a name.
+	 */
+	private final boolean[] objectStack = new boolean[MAX_DEPTH];
+	private final boolean[] notEmptyStack = new boolean[MAX_DEPTH];
+	private final boolean[] expectNameStack = new boolean[MAX_DEPTH];
+	private int depth;
+	// whether the root value was read, so only whitespace can follow
+	private boolean complete;
+	
+	private Token peeked;
+
+	public CloudinaryJsonReader(String json) {
+		if (json == null) {
+			throw new NullPointerException("json");
+		}
+		this.json = json;
+	}
+
+	/**
+	 * @return The kind of the next token, without consuming it.
+	 */
+	public Token peek() {
+		if (peeked == null) {
+			peeked = readToken();
+		}
+		return peeked;
+	}
+
+	public void beginObject() {
+		expect(Token.BEGIN_OBJECT);
+		position++;
+		push(true);
+	}
+
+	public void endObject() {
+		expect(Token.END_OBJECT);
+		position++;
+		pop();
+	}
+
+	public void beginArray() {
+		expect(Token.BEGIN_ARRAY);
+		position++;
+		push(false);
+	}
+
+	public void endArray() {
+		expect(Token.END_ARRAY);
+		position++;
+		pop();
+	}
+
+	/**
+	 * Checks that the root value was read completely and is followed only by whitespace.
+	 */
+	public void endDocument() {
+		expect(Token.END_DOCUMENT);
+	}
+
+	/**
+	 * @return <code>true</code> if the current object or array has more elements.
+	 */
+	public boolean hasNext() {
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public String nextName() {
+		expect(Token.NAME);
+		String name = readString();
+		skipWhitespace();
+		if (position >= json.length() || json.charAt(position) != ':') {
+			throw syntaxError("Expected ':'");
+		}
+		position++;
+		expectNameStack[depth - 1] = false;
+		return name;
+	}
+
+	public String nextString() {
+		expect(Token.STRING);
+		return readString();
+	}
+
+	/**
+	 * @return The next number, as it appears in the document.
+	 */
+	public String nextNumberString() {
+		expect(Token.NUMBER);
+		int start = position;
+		while (position < json.length() && isNumberChar(json.charAt(position))) {
+			position++;
+		}
+		return json.substring(start, position);
+	}
+
+	public double nextDouble() {
+		String number = nextNumberString();
+		try {
+			return Double.parseDouble(number);
+		}
+		catch (NumberFormatException e) {
+			throw syntaxError("Invalid number " + number);
+		}
+	}
+
+	/**
+	 * @return The next number, truncated to an int.
+	 */
+	public int nextInt() {
+		return (int) nextDouble();
+	}
+
+	public boolean nextBoolean() {
+		expect(Token.BOOLEAN);
+		if (json.startsWith("true", position)) {
+			position += 4;
+			return true;
+		}
+		position += 5;
+		return false;
+	}
+
+	public void nextNull() {
+		expect(Token.NULL);
+		position += 4;
+	}
+
+	/**
+	 * Skips the next value, including all of its nested values.
+	 */
+	public void skipValue() {
+		int count = 0;
+		do {
+			switch (peek()) {
+			case BEGIN_OBJECT:
+				beginObject();
+				count++;
+				break;
+			case BEGIN_ARRAY:
+				beginArray();
+				count++;
+				break;
+			case END_OBJECT:
+				endObject();
+				count--;
+				break;
+			case END_ARRAY:
+				endArray();
+				count--;
+				break;
+			case NAME:
+				nextName();
+				break;
+			case STRING:
+				nextString();
+				break;
+			case NUMBER:
+				nextNumberString();
+				break;
+			case BOOLEAN:
+				nextBoolean();
+				break;
+			case NULL:
+				nextNull();
+				break;
+			default:
+				throw syntaxError("Unexpected end of document");
+			}
+		}
+		while (count > 0);
+	}
+
+	private void push(boolean object) {
+		if (depth == MAX_DEPTH) {
+			throw syntaxError("Nesting too deep");
+		}
+		objectStack[depth] = object;
+		notEmptyStack[depth] = false;
+		expectNameStack[depth] = object;
+		depth++;
+	}
+
+	private void pop() {
+		depth--;
+		if (depth == 0) {
+			complete = true;
+		}
+	}
+
+	private void expect(Token token) {
+		Token next = peek();
+		if (next != token) {
+			throw syntaxError("Expected " + token + " but was " + next);
+		}
+		peeked = null;
+		if (token == Token.NAME || token == Token.END_OBJECT || token == Token.END_ARRAY || token == Token.END_DOCUMENT) {
+			return;
+		}
+		if (depth > 0) {
+			notEmptyStack[depth - 1] = true;
+			expectNameStack[depth - 1] = objectStack[depth - 1];
+		}
+		else if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) {
+			complete = true;
+		}
+	}
+
+	private Token readToken() {
+		skipWhitespace();
+		if (complete) {
+			if (position < json.length()) {
+				throw syntaxError("Unexpected data after the root value");
+			}
+			return Token.END_DOCUMENT;
+		}
+		if (depth > 0) {
+			char c = position < json.length() ? json.charAt(position) : 0;
+			boolean object = objectStack[depth - 1];
+			if (c == (object ? '}' : ']')) {
+				return object ? Token.END_OBJECT : Token.END_ARRAY;
+			}
+			if (notEmptyStack[depth - 1] && (!object || expectNameStack[depth - 1])) {
+				if (c != ',') {
+					throw syntaxError("Expected ','");
+				}
+				position++;
+				skipWhitespace();
+			}
+			if (object && expectNameStack[depth - 1]) {
+				if (position >= json.length() || json.charAt(position) != '"') {
+					throw syntaxError("Expected a name");
+				}
+				return Token.NAME;
+			}
+		}
+		if (position >= json.length()) {
+			if (depth > 0) {
+				throw syntaxError("Unexpected end of document");
+			}
+			return Token.END_DOCUMENT;
+		}
+		char c = json.charAt(position);
+		switch (c) {
+		case '{':
+			return Token.BEGIN_OBJECT;
+		case '[':
+			return Token.BEGIN_ARRAY;
+		case '"':
+			return Token.STRING;
+		case 't':
+		case 'f':
+			if (json.startsWith("true", position) || json.startsWith("false", position)) {
+				return Token.BOOLEAN;
+			}
+			break;
+		case 'n':
+			if (json.startsWith("null", position)) {
+				return Token.NULL;
+			}
+			break;
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				return Token.NUMBER;
+			}
+			break;
+		}
+		throw syntaxError("Unexpected character '" + c + "'");
+	}
+
+	private String readString() {
+		// skips the opening quote
+		position++;
+		StringBuilder builder = null;
+		int start = position;
+		while (position < json.length()) {
+			char c = json.charAt(position);
+			if (c == '"') {
+				String value = builder == null ? json.substring(start, position) : builder.append(json, start, position).toString();
+				position++;
+				return value;
+			}
+			if (c == '\\') {
+				if (builder == null) {
+					builder = new StringBuilder();
+				}
+				builder.append(json, start, position);
+				position++;
+				builder.append(readEscape());
+				start = position;
+			}
+			else {
+				position++;
+			}
+		}
+		throw syntaxError("Unterminated string");
+	}
+
+	private char readEscape() {
+		if (position >= json.length()) {
+			throw syntaxError("Unterminated escape sequence");
+		}
+		char c = json.charAt(position++);
+		switch (c) {
+		case 'n':
+			return '\n';
+		case 't':
+			return '\t';
+		case 'r':
+			return '\r';
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'u':
+			if (position + 4 > json.length()) {
+				throw syntaxError("Unterminated escape sequence");
+			}
+			String hex = json.substring(position, position + 4);
+			position += 4;
+			try {
+				return (char) Integer.parseInt(hex, 16);
+			}
+			catch (NumberFormatException e) {
+				throw syntaxError("Invalid escape sequence \\u" + hex);
+			}
+		default:
+			return c;
+		}
+	}
+
+	private void skipWhitespace() {
+		while (position < json.length()) {
+			char c = json.charAt(position);
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return;
+			}
+			position++;
+		}
+	}
+
+	private static boolean isNumberChar(char c) {
+		return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+	}
+
+	private IllegalArgumentException syntaxError(String message) {
+		return new IllegalArgumentException(message + " at position " + position);
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import java.util.Arrays;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * Builds the <code>srcset</code> and <code>sizes</code> attributes of responsive images, so browsers download the smallest
+ * rendition that fits the layout. Each breakpoint of the ladder becomes a candidate with the base transformation and the 
+ * breakpoint width. Breakpoints larger than the original width are skipped, and the original width is used as the last 
+ * candidate instead, so images are never upscaled. Uploads without a positive width get all the breakpoints.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinarySrcsetBuilder srcset = new CloudinarySrcsetBuilder(new CloudinaryUrlBuilder("demo"))
+ *     .setBreakpoints(320, 640, 1280).setSizes("(max-width: 600px) 100vw, 50vw");
+ * String value = srcset.buildSrcset(info);
+ * //https://res.cloudinary.com/demo/image/upload/c_limit,f_auto,q_auto,w_320/v1/sample.jpg 320w, ...
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryResponsiveImage
+ */
+public class CloudinarySrcsetBuilder {
+	
+	public static final int[] DEFAULT_BREAKPOINTS = {320, 480, 640, 768, 960, 1280, 1600, 1920, 2560};
+	public static final String DEFAULT_SIZES = "100vw";
+	public static final int DEFAULT_FALLBACK_WIDTH = 640;
+	
+	private final CloudinaryUrlBuilder urlBuilder;
+	
+	private int[] breakpoints = DEFAULT_BREAKPOINTS;
+	private CloudinaryTransformation transformation;
+	private CloudinaryTransformation[] breakpointTransformations;
+	private String sizes = DEFAULT_SIZES;
+	private int fallbackWidth = DEFAULT_FALLBACK_WIDTH;
+
+	/**
+	 * Creates a builder with the {@link #DEFAULT_BREAKPOINTS} and the <code>c_limit,f_auto,q_auto</code> base transformation.
+	 */
+	public CloudinarySrcsetBuilder(CloudinaryUrlBuilder urlBuilder) {
+		if (urlBuilder == null) {
+			throw new NullPointerException("urlBuilder");
+		}
+		this.urlBuilder = urlBuilder;
+		setTransformation(new CloudinaryTransformation().setCrop("limit").setAutoFormat(true).setAutoQuality(true));
+	}
+	
+	public CloudinaryUrlBuilder getUrlBuilder() {
+		return urlBuilder;
+	}
+
+	/**
+	 * Sets the widths of the candidates, in pixels. The values are copied and sorted.
+	 */
+	public CloudinarySrcsetBuilder setBreakpoints(int... breakpoints) {
+		if (breakpoints == null || breakpoints.length == 0) {
+			throw new IllegalArgumentException("At least one breakpoint is needed.");
+		}
+		int[] sorted = Arrays.copyOf(breakpoints, breakpoints.length);
+		Arrays.sort(sorted);
+		if (sorted[0] <= 0) {
+			throw new IllegalArgumentException("The breakpoints must be positive.");
+		}
+		this.breakpoints = sorted;
+		this.breakpointTransformations = createBreakpointTransformations();
+		return this;
+	}
+	
+	/**
+	 * @return A copy of the breakpoints, in ascending order.
+	 */
+	public int[] getBreakpoints() {
+		return Arrays.copyOf(breakpoints, breakpoints.length);
+	}
+	
+	/**
+	 * Sets the base transformation of the candidates. Its width is replaced by the width of each breakpoint, and the other 
+	 * parameters are kept as they are. The transformation is copied, so later changes don't affect the builder.
+	 */
+	public CloudinarySrcsetBuilder setTransformation(CloudinaryTransformation transformation) {
+		this.transformation = transformation == null ? new CloudinaryTransformation() : transformation.copy().setWidth(0);
+		this.breakpointTransformations = createBreakpointTransformations();
+		return this;
+	}
+	
+	/**
+	 * @return A copy of the base transformation.
+	 */
+	public CloudinaryTransformation getTransformation() {
+		return transformation.copy();
+	}
+	
+	private CloudinaryTransformation[] createBreakpointTransformations() {
+		CloudinaryTransformation[] transformations = new CloudinaryTransformation[breakpoints.length];
+		for (int i = 0; i < breakpoints.length; i++) {
+			transformations[i] = transformation.copy().setWidth(breakpoints[i]);
+		}
+		return transformations;
+	}
+
+	/**
+	 * @param sizes The value of the <code>sizes</code> attribute, such as "(max-width: 600px) 100vw, 50vw". Default: "100vw"
+	 */
+	public CloudinarySrcsetBuilder setSizes(String sizes) {
+		this.sizes = sizes;
+		return this;
+	}
+	
+	public String getSizes() {
+		return sizes;
+	}
+	
+	/**
+	 * @param fallbackWidth The width of the <code>src</code> used by browsers without <code>srcset</code> support. The smallest
+	 * candidate that is at least this wide is used. Default: 640
+	 */
+	public CloudinarySrcsetBuilder setFallbackWidth(int fallbackWidth) {
+		this.fallbackWidth = fallbackWidth;
+		return this;
+	}
+	
+	public int getFallbackWidth() {
+		return fallbackWidth;
+	}
+
+	/**
+	 * @return The value of the <code>srcset</code> attribute for the given upload, such as 
+	 * <code>".../w_320/... 320w, .../w_640/... 640w"</code>.
+	 */
+	public String buildSrcset(CloudinaryUploadInfo info) {
+		Integer originalWidth = getOriginalWidth(info);
+		StringBuilder sb = new StringBuilder();
+		int i = 0;
+		for (; i < breakpoints.length; i++) {
+			if (originalWidth != null && breakpoints[i] > originalWidth) {
+				break;
+			}
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(urlBuilder.build(info, breakpointTransformations[i])).append(' ').append(breakpoints[i]).append('w');
+		}
+		if (i < breakpoints.length && (i == 0 || breakpoints[i - 1] < originalWidth)) {
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(urlBuilder.build(info, transformation)).append(' ').append(originalWidth).append('w');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return The URL of the <code>src</code> attribute for the given upload.
+	 * 
+	 * @see #setFallbackWidth(int)
+	 */
+	public String buildSrc(CloudinaryUploadInfo info) {
+		Integer originalWidth = getOriginalWidth(info);
+		for (int i = 0; i < breakpoints.length; i++) {
+			if (originalWidth != null && breakpoints[i] > originalWidth) {
+				return urlBuilder.build(info, transformation);
+			}
+			if (breakpoints[i] >= fallbackWidth) {
+				return urlBuilder.build(info, breakpointTransformations[i]);
+			}
+		}
+		return urlBuilder.build(info, breakpointTransformations[breakpoints.length - 1]);
+	}
+
+	/**
+	 * @return The width of the upload, or <code>null</code> when it is unknown or not positive, as a <code>0w</code> descriptor
+	 * makes the whole <code>srcset</code> invalid.
+	 */
+	private static Integer getOriginalWidth(CloudinaryUploadInfo info) {
+		Integer width = info.getWidth();
+		return width == null || width <= 0 ? null : width;
+	}
+}
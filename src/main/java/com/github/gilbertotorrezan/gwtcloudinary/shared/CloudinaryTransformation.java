@@ -0,0 +1,268 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryCoordinatesKind;
+
+/**
+ * A delivery transformation, such as <code>c_fill,f_auto,h_200,q_auto,w_300</code>. The parameters are written in alphabetical
+ * order, like the official Cloudinary SDKs do, so equal transformations always produce equal strings. The string form is built 
+ * once and kept until the transformation is changed.
+ * <p>
+ * Transformations are mutable, and {@link #equals(Object)} and {@link #hashCode()} follow their current parameters, so a 
+ * transformation must not be changed while used as a key of a map. Classes that keep a transformation given by the caller,
+ * such as the {@link CloudinarySrcsetBuilder}, keep a {@link #copy()} of it.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryTransformation thumb = new CloudinaryTransformation().setWidth(300).setHeight(200).setCrop("fill")
+ *     .setAutoFormat(true).setAutoQuality(true);
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ * 
+ * @see CloudinaryUrlBuilder
+ */
+public class CloudinaryTransformation {
+	
+	private String crop;
+	private double dpr;
+	private String effect;
+	private boolean autoFormat;
+	private String gravity;
+	private int height;
+	private String quality;
+	private int width;
+	
+	private String value;
+	
+	/**
+	 * @param crop The crop mode, such as "fill", "fit" or "limit". <code>null</code> to remove it.
+	 */
+	public CloudinaryTransformation setCrop(String crop) {
+		this.crop = crop;
+		value = null;
+		return this;
+	}
+	
+	public String getCrop() {
+		return crop;
+	}
+	
+	/**
+	 * @param dpr The device pixel ratio, such as 2 for high density screens. 0 to remove it.
+	 */
+	public CloudinaryTransformation setDpr(double dpr) {
+		this.dpr = dpr;
+		value = null;
+		return this;
+	}
+	
+	public double getDpr() {
+		return dpr;
+	}
+	
+	/**
+	 * @param effect The effect, such as "blur:1000" or "grayscale". <code>null</code> to remove it.
+	 */
+	public CloudinaryTransformation setEffect(String effect) {
+		this.effect = effect;
+		value = null;
+		return this;
+	}
+	
+	public String getEffect() {
+		return effect;
+	}
+	
+	/**
+	 * @param autoFormat Whether <code>f_auto</code> is used, so the best format is delivered to each browser.
+	 */
+	public CloudinaryTransformation setAutoFormat(boolean autoFormat) {
+		this.autoFormat = autoFormat;
+		value = null;
+		return this;
+	}
+	
+	public boolean isAutoFormat() {
+		return autoFormat;
+	}
+	
+	/**
+	 * @param gravity The gravity, such as "faces" or "custom". <code>null</code> to remove it.
+	 * 
+	 * @see CloudinaryCoordinatesKind#getGravity()
+	 */
+	public CloudinaryTransformation setGravity(String gravity) {
+		this.gravity = gravity;
+		value = null;
+		return this;
+	}
+	
+	public String getGravity() {
+		return gravity;
+	}
+	
+	/**
+	 * @param height The height in pixels. 0 to remove it.
+	 */
+	public CloudinaryTransformation setHeight(int height) {
+		this.height = height;
+		value = null;
+		return this;
+	}
+	
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * @param autoQuality Whether <code>q_auto</code> is used. Replaces the quality set by {@link #setQuality(String)}.
+	 */
+	public CloudinaryTransformation setAutoQuality(boolean autoQuality) {
+		return setQuality(autoQuality ? "auto" : null);
+	}
+	
+	public boolean isAutoQuality() {
+		return "auto".equals(quality);
+	}
+	
+	/**
+	 * @param quality The quality, such as "auto", "auto:low" or "60". <code>null</code> to remove it.
+	 */
+	public CloudinaryTransformation setQuality(String quality) {
+		this.quality = quality;
+		value = null;
+		return this;
+	}
+	
+	public String getQuality() {
+		return quality;
+	}
+	
+	/**
+	 * @param width The width in pixels. 0 to remove it.
+	 */
+	public CloudinaryTransformation setWidth(int width) {
+		this.width = width;
+		value = null;
+		return this;
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * @return A new transformation with the same parameters.
+	 */
+	public CloudinaryTransformation copy() {
+		CloudinaryTransformation copy = new CloudinaryTransformation();
+		copy.crop = crop;
+		copy.dpr = dpr;
+		copy.effect = effect;
+		copy.autoFormat = autoFormat;
+		copy.gravity = gravity;
+		copy.height = height;
+		copy.quality = quality;
+		copy.width = width;
+		copy.value = value;
+		return copy;
+	}
+	
+	/**
+	 * @return Whether no parameter is set.
+	 */
+	public boolean isEmpty() {
+		return toString().isEmpty();
+	}
+
+	/**
+	 * @return The transformation as used on delivery URLs, such as <code>c_fill,h_200,w_300</code>, or an empty string if
+	 * no parameter is set.
+	 */
+	@Override
+	public String toString() {
+		if (value == null) {
+			StringBuilder sb = new StringBuilder();
+			append(sb, "c_", crop);
+			if (dpr > 0) {
+				append(sb, "dpr_", formatDpr(dpr));
+			}
+			append(sb, "e_", effect);
+			if (autoFormat) {
+				append(sb, "f_", "auto");
+			}
+			append(sb, "g_", gravity);
+			if (height > 0) {
+				append(sb, "h_", String.valueOf(height));
+			}
+			append(sb, "q_", quality);
+			if (width > 0) {
+				append(sb, "w_", String.valueOf(width));
+			}
+			value = sb.toString();
+		}
+		return value;
+	}
+	
+	private static void append(StringBuilder sb, String prefix, String param) {
+		if (param == null) {
+			return;
+		}
+		if (sb.length() > 0) {
+			sb.append(',');
+		}
+		sb.append(prefix).append(param);
+	}
+
+	/**
+	 * Formats the same way on the JVM and on GWT, where <code>String.valueOf(2.0)</code> is "2".
+	 */
+	private static String formatDpr(double dpr) {
+		if (dpr == Math.floor(dpr)) {
+			return ((long) dpr) + ".0";
+		}
+		return String.valueOf(dpr);
+	}
+
+	@Override
+	public int hashCode() {
+		return toString().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CloudinaryTransformation)) {
+			return false;
+		}
+		return toString().equals(obj.toString());
+	}
+}
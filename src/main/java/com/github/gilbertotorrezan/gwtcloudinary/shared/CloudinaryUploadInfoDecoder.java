@@ -0,0 +1,306 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryCoordinatesKind;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryRectArray;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryJsonReader.Token;
+
+/**
+ * Decodes Cloudinary's upload results in JSON to {@link CloudinaryUploadInfo} objects, reading the document in a single pass 
+ * with a {@link CloudinaryJsonReader}. It runs both in the browser and on the JVM, so the server can decode upload notifications
+ * with the same code used by the client.
+ * <p>
+ * Fields with unexpected types are ignored, and unknown fields are skipped. Malformed documents, including documents with
+ * anything but whitespace after the root value, are reported with {@link IllegalArgumentException}s.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadInfoDecoder {
+	
+	/**
+	 * Receives the decoded results one by one, as soon as each of them is read.
+	 */
+	public interface Callback {
+		
+		void onUploadInfo(CloudinaryUploadInfo info);
+	}
+
+	/**
+	 * Decodes a single result object, or an array of results.
+	 * 
+	 * @return The decoded results, never <code>null</code>.
+	 */
+	public List<CloudinaryUploadInfo> decodeList(String json) {
+		final List<CloudinaryUploadInfo> infos = new ArrayList<>();
+		decode(json, new Callback() {
+			@Override
+			public void onUploadInfo(CloudinaryUploadInfo info) {
+				infos.add(info);
+			}
+		});
+		return infos;
+	}
+
+	/**
+	 * Decodes a single result object.
+	 */
+	public CloudinaryUploadInfo decode(String json) {
+		CloudinaryJsonReader reader = new CloudinaryJsonReader(json);
+		CloudinaryUploadInfo info = read(reader);
+		reader.endDocument();
+		return info;
+	}
+
+	/**
+	 * Decodes a single result object, or an array of results, passing each one to the callback as soon as it is read. The results
+	 * read before a syntax error are passed to the callback before the error is thrown.
+	 * 
+	 * @return The number of decoded results.
+	 */
+	public int decode(String json, Callback callback) {
+		CloudinaryJsonReader reader = new CloudinaryJsonReader(json);
+		if (reader.peek() == Token.BEGIN_OBJECT) {
+			CloudinaryUploadInfo info = read(reader);
+			reader.endDocument();
+			callback.onUploadInfo(info);
+			return 1;
+		}
+		int count = 0;
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (reader.peek() == Token.BEGIN_OBJECT) {
+				callback.onUploadInfo(read(reader));
+				count++;
+			}
+			else {
+				reader.skipValue();
+			}
+		}
+		reader.endArray();
+		reader.endDocument();
+		return count;
+	}
+
+	/**
+	 * Reads the next result object from the reader.
+	 */
+	public CloudinaryUploadInfo read(CloudinaryJsonReader reader) {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (!readField(reader, name, info)) {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+		return info;
+	}
+
+	/**
+	 * Reads the value of a known field into the info.
+	 * 
+	 * @return <code>false</code> if the field is unknown and its value was not consumed.
+	 */
+	protected boolean readField(CloudinaryJsonReader reader, String name, CloudinaryUploadInfo info) {
+		switch (name) {
+		case "public_id":
+			info.setPublicId(readString(reader));
+			return true;
+		case "secure_url":
+			info.setSecureUrl(readString(reader));
+			return true;
+		case "thumbnail_url":
+			info.setThumbnailUrl(readString(reader));
+			return true;
+		case "url":
+			info.setUrl(readString(reader));
+			return true;
+		case "type":
+			info.setType(readString(reader));
+			return true;
+		case "version":
+			info.setVersion(readString(reader));
+			return true;
+		case "width":
+			info.setWidth(readInteger(reader));
+			return true;
+		case "height":
+			info.setHeight(readInteger(reader));
+			return true;
+		case "format":
+			info.setFormat(readString(reader));
+			return true;
+		case "resource_type":
+			info.setResourceType(readString(reader));
+			return true;
+		case "signature":
+			info.setSignature(readString(reader));
+			return true;
+		case "bytes":
+			info.setBytes(readInteger(reader));
+			return true;
+		case "original_filename":
+			info.setOriginalFilename(readString(reader));
+			return true;
+		case "etag":
+			info.setEtag(readString(reader));
+			return true;
+		case "path":
+			info.setPath(readString(reader));
+			return true;
+		case "created_at":
+			info.setCreatedAt(readString(reader));
+			return true;
+		case "tags":
+			info.setTags(readTags(reader));
+			return true;
+		case "coordinates":
+			readCoordinates(reader, info);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @return The string, or the number as it appears in the document, or <code>null</code> for any other value.
+	 */
+	protected static String readString(CloudinaryJsonReader reader) {
+		switch (reader.peek()) {
+		case STRING:
+			return reader.nextString();
+		case NUMBER:
+			return reader.nextNumberString();
+		default:
+			reader.skipValue();
+			return null;
+		}
+	}
+
+	/**
+	 * @return The number truncated to an Integer, or <code>null</code> for any other value.
+	 */
+	protected static Integer readInteger(CloudinaryJsonReader reader) {
+		if (reader.peek() == Token.NUMBER) {
+			return reader.nextInt();
+		}
+		reader.skipValue();
+		return null;
+	}
+
+	private static String[] readTags(CloudinaryJsonReader reader) {
+		if (reader.peek() != Token.BEGIN_ARRAY) {
+			reader.skipValue();
+			return null;
+		}
+		List<String> tags = new ArrayList<>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			tags.add(readString(reader));
+		}
+		reader.endArray();
+		return tags.toArray(new String[tags.size()]);
+	}
+
+	private static void readCoordinates(CloudinaryJsonReader reader, CloudinaryUploadInfo info) {
+		if (reader.peek() != Token.BEGIN_OBJECT) {
+			reader.skipValue();
+			return;
+		}
+		// the index of the key that set each kind, as kinds with more than one key prefer the first one
+		int customKeyIndex = Integer.MAX_VALUE;
+		int facesKeyIndex = Integer.MAX_VALUE;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			CloudinaryCoordinatesKind kind = CloudinaryCoordinatesKind.fromKey(key);
+			if (kind == null || reader.peek() != Token.BEGIN_ARRAY) {
+				reader.skipValue();
+				continue;
+			}
+			CloudinaryRectArray rects = readRects(reader);
+			int keyIndex = kind.getKeyIndex(key);
+			if (kind == CloudinaryCoordinatesKind.CUSTOM && keyIndex < customKeyIndex) {
+				info.setCustomRects(rects);
+				customKeyIndex = keyIndex;
+			}
+			else if (kind == CloudinaryCoordinatesKind.FACES && keyIndex < facesKeyIndex) {
+				info.setFaceRects(rects);
+				facesKeyIndex = keyIndex;
+			}
+		}
+		reader.endObject();
+	}
+
+	/**
+	 * Reads an array of [x, y, width, height] arrays into the packed form. Entries that aren't arrays of at least 4 values are
+	 * kept as invalid entries, and values that aren't numbers as <code>null</code> values.
+	 */
+	private static CloudinaryRectArray readRects(CloudinaryJsonReader reader) {
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder();
+		int[] rect = new int[4];
+		reader.beginArray();
+		while (reader.hasNext()) {
+			if (reader.peek() != Token.BEGIN_ARRAY) {
+				reader.skipValue();
+				builder.addInvalid();
+				continue;
+			}
+			int count = 0;
+			int mask = 0;
+			reader.beginArray();
+			while (reader.hasNext()) {
+				if (count >= 4) {
+					reader.skipValue();
+				}
+				else if (reader.peek() == Token.NUMBER) {
+					rect[count++] = reader.nextInt();
+				}
+				else {
+					reader.skipValue();
+					rect[count] = 0;
+					mask |= 1 << count++;
+				}
+			}
+			reader.endArray();
+			if (count < 4) {
+				builder.addInvalid();
+			}
+			else {
+				builder.add(rect[0], rect[1], rect[2], rect[3], mask);
+			}
+		}
+		reader.endArray();
+		return builder.build();
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * Builds delivery URLs with transformations, in the format 
+ * <code>https://res.cloudinary.com/&lt;cloud&gt;/&lt;resourceType&gt;/&lt;type&gt;/&lt;transformation&gt;/v&lt;version&gt;/&lt;publicId&gt;.&lt;format&gt;</code>.
+ * <p>
+ * The built URLs are kept in a small LRU cache keyed by the public id, version, format, resource type, type and 
+ * transformation, so rendering the same tiles again (on each scroll of a large grid, for example) doesn't build the strings 
+ * again. The key holds the string form of the transformation taken when the URL is built, so changing a transformation 
+ * afterwards never returns a stale URL. The size of the cache is set by {@link #CloudinaryUrlBuilder(String, int)}. The builder works both on the client and on the JVM, where it can be shared by multiple threads.
+ * <p>
+ * Example:
+ * <pre>
+ * CloudinaryUrlBuilder urls = new CloudinaryUrlBuilder("demo");
+ * CloudinaryTransformation tile = new CloudinaryTransformation().setWidth(200).setHeight(200).setCrop("fill")
+ *     .setAutoFormat(true).setAutoQuality(true);
+ * String src = urls.build(info, tile);
+ * </pre>
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUrlBuilder {
+	
+	public static final String DEFAULT_HOST = "res.cloudinary.com";
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+	
+	private static final String DEFAULT_RESOURCE_TYPE = "image";
+	private static final String DEFAULT_TYPE = "upload";
+	
+	private final String cloudName;
+	private final Cache cache;
+	
+	private String host = DEFAULT_HOST;
+	private boolean secure = true;
+	
+	/**
+	 * Creates a builder with a cache of {@link #DEFAULT_CACHE_SIZE} URLs.
+	 */
+	public CloudinaryUrlBuilder(String cloudName) {
+		this(cloudName, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * @param cacheSize The max number of URLs kept in the cache. 0 disables the cache.
+	 */
+	public CloudinaryUrlBuilder(String cloudName, int cacheSize) {
+		if (cloudName == null) {
+			throw new NullPointerException("cloudName");
+		}
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException("The cache size can't be negative: " + cacheSize);
+		}
+		this.cloudName = cloudName;
+		this.cache = cacheSize == 0 ? null : new Cache(cacheSize);
+	}
+	
+	public String getCloudName() {
+		return cloudName;
+	}
+	
+	/**
+	 * @param secure Whether the URLs use https. Default: true
+	 */
+	public CloudinaryUrlBuilder setSecure(boolean secure) {
+		if (this.secure != secure) {
+			this.secure = secure;
+			clearCache();
+		}
+		return this;
+	}
+	
+	public boolean isSecure() {
+		return secure;
+	}
+	
+	/**
+	 * @param host The delivery host, such as a custom CNAME. Default: {@link #DEFAULT_HOST}
+	 */
+	public CloudinaryUrlBuilder setHost(String host) {
+		if (host == null) {
+			throw new NullPointerException("host");
+		}
+		if (!this.host.equals(host)) {
+			this.host = host;
+			clearCache();
+		}
+		return this;
+	}
+	
+	public String getHost() {
+		return host;
+	}
+
+	/**
+	 * Builds the URL of an uploaded resource, using its public id, version, format, resource type and type.
+	 * 
+	 * @param transformation The transformation, or <code>null</code> for the original resource.
+	 */
+	public String build(CloudinaryUploadInfo info, CloudinaryTransformation transformation) {
+		return build(info.getPublicId(), info.getVersion(), info.getFormat(), info.getResourceType(), info.getType(), transformation);
+	}
+
+	/**
+	 * Builds the URL of an uploaded image.
+	 * 
+	 * @param version The version, or <code>null</code> to omit it.
+	 * @param format The format, or <code>null</code> to omit the extension.
+	 * @param transformation The transformation, or <code>null</code> for the original image.
+	 */
+	public String build(String publicId, String version, String format, CloudinaryTransformation transformation) {
+		return build(publicId, version, format, null, null, transformation);
+	}
+	
+	/**
+	 * Builds the URL of an uploaded resource.
+	 * 
+	 * @param version The version, or <code>null</code> to omit it.
+	 * @param format The format, or <code>null</code> to omit the extension.
+	 * @param resourceType The resource type, or <code>null</code> for "image".
+	 * @param type The delivery type, or <code>null</code> for "upload".
+	 * @param transformation The transformation, or <code>null</code> for the original resource.
+	 */
+	public String build(String publicId, String version, String format, String resourceType, String type, 
+			CloudinaryTransformation transformation) {
+		if (publicId == null) {
+			throw new NullPointerException("publicId");
+		}
+		String t = transformation == null ? "" : transformation.toString();
+		if (cache == null) {
+			return buildUrl(publicId, version, format, resourceType, type, t);
+		}
+		
+		Key key = new Key(publicId, version, format, resourceType, type, t);
+		String url;
+		synchronized (cache) {
+			url = cache.get(key);
+		}
+		if (url == null) {
+			url = buildUrl(publicId, version, format, resourceType, type, t);
+			synchronized (cache) {
+				cache.put(key, url);
+			}
+		}
+		return url;
+	}
+	
+	private String buildUrl(String publicId, String version, String format, String resourceType, String type, String transformation) {
+		StringBuilder sb = new StringBuilder(host.length() + cloudName.length() + publicId.length() + transformation.length() + 48);
+		sb.append(secure ? "https://" : "http://").append(host).append('/').append(cloudName).append('/')
+			.append(resourceType == null ? DEFAULT_RESOURCE_TYPE : resourceType).append('/')
+			.append(type == null ? DEFAULT_TYPE : type).append('/');
+		if (!transformation.isEmpty()) {
+			sb.append(transformation).append('/');
+		}
+		if (version != null) {
+			sb.append('v').append(version).append('/');
+		}
+		sb.append(publicId);
+		if (format != null) {
+			sb.append('.').append(format);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * @return The number of URLs in the cache.
+	 */
+	public int getCacheSize() {
+		if (cache == null) {
+			return 0;
+		}
+		synchronized (cache) {
+			return cache.size();
+		}
+	}
+	
+	public void clearCache() {
+		if (cache != null) {
+			synchronized (cache) {
+				cache.clear();
+			}
+		}
+	}
+	
+	private static final class Cache extends LinkedHashMap<Key, String> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int maxSize;
+		
+		Cache(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+			return size() > maxSize;
+		}
+	}
+	
+	private static final class Key {
+		
+		private final String publicId;
+		private final String version;
+		private final String format;
+		private final String resourceType;
+		private final String type;
+		private final String transformation;
+		private final int hash;
+		
+		Key(String publicId, String version, String format, String resourceType, String type, String transformation) {
+			this.publicId = publicId;
+			this.version = version;
+			this.format = format;
+			this.resourceType = resourceType;
+			this.type = type;
+			this.transformation = transformation;
+			
+			int h = publicId.hashCode();
+			h = 31 * h + hash(version);
+			h = 31 * h + hash(format);
+			h = 31 * h + hash(resourceType);
+			h = 31 * h + hash(type);
+			h = 31 * h + transformation.hashCode();
+			this.hash = h;
+		}
+		
+		private static int hash(String s) {
+			return s == null ? 0 : s.hashCode();
+		}
+		
+		private static boolean eq(String a, String b) {
+			return a == null ? b == null : a.equals(b);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hash == other.hash && publicId.equals(other.publicId) && transformation.equals(other.transformation)
+					&& eq(version, other.version) && eq(format, other.format) && eq(resourceType, other.resourceType) 
+					&& eq(type, other.type);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import static com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryPackedUploadResults.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the layout shared by the {@link CloudinaryPackedUploadResults} and the worker of the {@link CloudinaryUploadResultPacker}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryPackedUploadResultsTest {
+
+	@Test
+	public void testStringFieldsMatchTheirKeys() {
+		assertEquals(WIDTH, STRING_KEYS.length);
+		assertEquals("public_id", STRING_KEYS[PUBLIC_ID]);
+		assertEquals("url", STRING_KEYS[URL]);
+		assertEquals("secure_url", STRING_KEYS[SECURE_URL]);
+		assertEquals("thumbnail_url", STRING_KEYS[THUMBNAIL_URL]);
+		assertEquals("type", STRING_KEYS[TYPE]);
+		assertEquals("version", STRING_KEYS[VERSION]);
+		assertEquals("format", STRING_KEYS[FORMAT]);
+		assertEquals("resource_type", STRING_KEYS[RESOURCE_TYPE]);
+		assertEquals("signature", STRING_KEYS[SIGNATURE]);
+		assertEquals("etag", STRING_KEYS[ETAG]);
+		assertEquals("original_filename", STRING_KEYS[ORIGINAL_FILENAME]);
+		assertEquals("path", STRING_KEYS[PATH]);
+		assertEquals("created_at", STRING_KEYS[CREATED_AT]);
+	}
+
+	@Test
+	public void testFieldsAreContiguous() {
+		assertEquals("width", NUMBER_KEYS[WIDTH - WIDTH]);
+		assertEquals("height", NUMBER_KEYS[HEIGHT - WIDTH]);
+		assertEquals("bytes", NUMBER_KEYS[BYTES - WIDTH]);
+		assertEquals(FLAGS, WIDTH + NUMBER_KEYS.length);
+		assertEquals(TAGS, FLAGS + 1);
+		assertEquals(RECTS, TAGS + 2);
+		assertEquals(STRIDE, RECTS + 2 * CloudinaryCoordinatesKind.values().length);
+		assertEquals(23, STRIDE);
+	}
+
+	@Test
+	public void testWorkerSourceUsesTheLayout() {
+		String source = CloudinaryUploadResultPacker.WORKER_SOURCE;
+		assertTrue(source, source.contains("var STRING_FIELDS = ['public_id', 'url', 'secure_url', "));
+		assertTrue(source, source.contains("var NUMBER_FIELDS = ['width', 'height', 'bytes'];\n"));
+		assertTrue(source, source.contains("var KINDS = [['custom'], ['faces', 'face']];\n"));
+		assertTrue(source, source.contains("var VERSION = 5, WIDTH = 13, FLAGS = 16, TAGS = 17, RECTS = 19, STRIDE = 23;\n"));
+		assertTrue(source, source.contains(CloudinaryCoordinatesParser.PACK_RECTS_SOURCE));
+		assertTrue(source, source.contains("masks.push(" + CloudinaryRectArray.INVALID + ");"));
+	}
+}
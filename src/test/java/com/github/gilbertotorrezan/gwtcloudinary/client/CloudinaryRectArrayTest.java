@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryRectArrayTest {
+
+	@Test
+	public void testAllocatesMasksOnlyWhenNeeded() {
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder(1);
+		for (int i = 0; i < 5; i++) {
+			builder.onRect(i, i + 1, i + 2, i + 3);
+		}
+		CloudinaryRectArray rects = builder.build();
+		assertEquals(5, rects.length());
+		assertNull(rects.getMasks());
+		assertTrue(rects.isValid(4));
+		assertEquals(7, rects.height(4));
+	}
+
+	@Test
+	public void testKeepsInvalidEntriesAndNullValues() {
+		CloudinaryRectArray.Builder builder = new CloudinaryRectArray.Builder(1);
+		builder.onRect(1, 2, 3, 4);
+		builder.onRect(5, 6, 7, 8);
+		builder.addInvalid();
+		builder.add(9, 0, 11, 0, 1 << CloudinaryRectArray.Y | 1 << CloudinaryRectArray.HEIGHT);
+		builder.onRect(13, 14, 15, 16);
+		CloudinaryRectArray rects = builder.build();
+		
+		assertEquals(5, rects.length());
+		assertArrayEquals(new int[] {0, 0, CloudinaryRectArray.INVALID, 10, 0}, rects.getMasks());
+		assertFalse(rects.isValid(2));
+		assertTrue(rects.isNull(3, CloudinaryRectArray.Y));
+		assertFalse(rects.isNull(3, CloudinaryRectArray.X));
+		
+		CloudinaryCoordinates[] coordinates = rects.toCoordinates();
+		assertEquals(5, coordinates.length);
+		assertNull(coordinates[2]);
+		assertEquals(Integer.valueOf(9), coordinates[3].getX());
+		assertNull(coordinates[3].getY());
+		assertEquals(Integer.valueOf(11), coordinates[3].getWidth());
+		assertNull(coordinates[3].getHeight());
+		
+		final StringBuilder visited = new StringBuilder();
+		assertEquals(4, rects.visit(new CloudinaryRectVisitor() {
+			@Override
+			public void onRect(int x, int y, int width, int height) {
+				visited.append(x).append(' ');
+			}
+		}));
+		assertEquals("1 5 9 13 ", visited.toString());
+	}
+
+	@Test
+	public void testConvertsCoordinatesBothWays() {
+		CloudinaryCoordinates c = new CloudinaryCoordinates();
+		c.setX(1);
+		c.setWidth(3);
+		c.setHeight(4);
+		CloudinaryRectArray rects = CloudinaryRectArray.fromCoordinates(new CloudinaryCoordinates[] {null, c});
+		assertArrayEquals(new int[] {0, 0, 0, 0, 1, 0, 3, 4}, rects.getValues());
+		assertArrayEquals(new int[] {CloudinaryRectArray.INVALID, 1 << CloudinaryRectArray.Y}, rects.getMasks());
+		
+		CloudinaryCoordinates[] coordinates = rects.toCoordinates();
+		assertNull(coordinates[0]);
+		assertEquals(Integer.valueOf(1), coordinates[1].getX());
+		assertNull(coordinates[1].getY());
+		assertNull(CloudinaryRectArray.fromCoordinates(null));
+	}
+
+	@Test
+	public void testStoresThePackedFormInTheUploadInfo() {
+		CloudinaryRectArray rects = new CloudinaryRectArray(new int[] {1, 2, 3, 4});
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setFaceRects(rects);
+		assertSame(rects, info.getFaceRects());
+		CloudinaryCoordinates[] faces = info.getFaceCoordinates();
+		assertSame(faces, info.getFaceCoordinates());
+		assertEquals(Integer.valueOf(4), faces[0].getHeight());
+		
+		CloudinaryCoordinates[] custom = rects.toCoordinates();
+		info.setCustomCoordinates(custom);
+		assertSame(custom, info.getCustomCoordinates());
+		assertArrayEquals(new int[] {1, 2, 3, 4}, info.getCustomRects().getValues());
+		info.setCustomRects(null);
+		assertNull(info.getCustomCoordinates());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsMasksOfAnotherLength() {
+		new CloudinaryRectArray(new int[] {1, 2, 3, 4}, new int[2]);
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.google.gwt.dev.About;
+
+/**
+ * Compiles the <code>splitcheck</code> application with the compile report enabled, and checks that the code of the 
+ * {@link CloudinaryUploadWidget} and the result decoding is left out of the initial fragment when the {@link CloudinaryUploadButton}
+ * is used with a {@link CloudinaryWidgetConfig.Builder}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadButtonSplitTest {
+	
+	private static final String MODULE = "com.github.gilbertotorrezan.gwtcloudinary.splitcheck.SplitCheck";
+	
+	private static final String[] DEFERRED_TYPES = {
+		CloudinaryUploadWidget.class.getName(),
+		CloudinaryUploadResultJso.class.getName(),
+	};
+
+	@Test
+	public void testWidgetIsNotInTheInitialFragment() throws Exception {
+		int[] version = About.getGwtVersionArray();
+		boolean legacyJava = System.getProperty("java.specification.version").startsWith("1.");
+		assumeTrue("GWT " + About.getGwtVersionNum() + " runs only on Java 8 or older, see the modern-jdk-tests profile", 
+				legacyJava || version[0] > 2 || version[1] >= 8);
+		
+		File dir = Files.createTempDirectory("splitcheck").toFile();
+		final Set<String> initial = new TreeSet<>();
+		final Set<String> deferred = new TreeSet<>();
+		try {
+			File extra = new File(dir, "extra");
+			compile(dir, extra);
+			
+			File stories = new File(extra, "splitcheck/soycReport/stories0.xml.gz");
+			assertTrue("Compile report not found: " + stories, stories.isFile());
+			readReport(stories, initial, deferred);
+		}
+		finally {
+			delete(dir);
+		}
+		
+		assertFalse("The widget code was not found in the compile report", deferred.isEmpty());
+		assertTrue("Code in the initial fragment: " + initial, initial.isEmpty());
+	}
+	
+	/**
+	 * Splits the references to the deferred types by fragment.
+	 */
+	private static void readReport(File stories, final Set<String> initial, final Set<String> deferred) throws Exception {
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(stories.toPath()))) {
+			SAXParserFactory.newInstance().newSAXParser().parse(in, new DefaultHandler() {
+				private boolean initialFragment;
+				
+				@Override
+				public void startElement(String uri, String localName, String qName, Attributes attributes) {
+					if ("sizemap".equals(qName)) {
+						initialFragment = "0".equals(attributes.getValue("fragment"));
+					}
+					else if ("size".equals(qName)) {
+						String ref = attributes.getValue("ref");
+						if (isDeferred(ref)) {
+							(initialFragment ? initial : deferred).add(ref);
+						}
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the reference is one of the deferred types, or a method, a field or an inner class of them.
+	 */
+	private static boolean isDeferred(String ref) {
+		if (ref == null) {
+			return false;
+		}
+		for (String type : DEFERRED_TYPES) {
+			if (ref.equals(type) || ref.startsWith(type + "::") || ref.startsWith(type + "$")) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Runs the GWT compiler in a new JVM, with the classpath of the tests.
+	 */
+	private static void compile(File dir, File extra) throws IOException, InterruptedException {
+		String classPath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		
+		List<String> command = new ArrayList<>();
+		command.add(java);
+		command.add("-Xmx1g");
+		command.add("-cp");
+		command.add(classPath);
+		command.add("com.google.gwt.dev.Compiler");
+		command.add("-war");
+		command.add(new File(dir, "war").getPath());
+		command.add("-extra");
+		command.add(extra.getPath());
+		command.add("-workDir");
+		command.add(new File(dir, "work").getPath());
+		command.add("-compileReport");
+		command.add("-draftCompile");
+		command.add("-logLevel");
+		command.add("WARN");
+		command.add(MODULE);
+		
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		StringBuilder output = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				output.append(line).append('\n');
+			}
+		}
+		assertTrue("GWT compilation failed:\n" + output, process.waitFor() == 0);
+	}
+}
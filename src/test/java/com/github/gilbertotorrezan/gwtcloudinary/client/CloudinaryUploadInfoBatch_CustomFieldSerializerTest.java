@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import static com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo_CustomFieldSerializerTest.assertInfoEquals;
+import static com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo_CustomFieldSerializerTest.info;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadInfoBatch_CustomFieldSerializerTest {
+
+	@Test
+	public void testWritesEachPrefixOnce() throws SerializationException {
+		CloudinaryUploadInfo other = info();
+		other.setPublicId("other");
+		other.setUrl("http://res.cloudinary.com/demo/image/upload/v1312461204/other.jpg");
+		other.setSecureUrl(null);
+		other.setThumbnailUrl(null);
+		CloudinaryUploadInfo fetched = info();
+		fetched.setUrl("http://res.cloudinary.com/demo/image/fetch/sample.jpg");
+		CloudinaryUploadInfo video = info();
+		video.setUrl("http://res.cloudinary.com/demo/video/upload/v1312461204/folder/sample.jpg");
+		
+		TestSerializationStream stream = roundTrip(Arrays.asList(info(), null, other, fetched, video, new CloudinaryUploadInfo()));
+		
+		List<Object> values = stream.getValues();
+		assertEquals(2, values.get(0));
+		List<String> strings = stream.getStrings();
+		assertEquals(Arrays.asList("http://res.cloudinary.com/demo/image/upload/", "http://res.cloudinary.com/demo/video/upload/"), 
+				strings.subList(0, 2));
+		assertEquals(1, Collections.frequency(strings, "http://res.cloudinary.com/demo/image/upload/"));
+		assertEquals(6, values.get(3));
+	}
+
+	@Test
+	public void testKeepsEmptyBatches() throws SerializationException {
+		TestSerializationStream stream = roundTrip(Collections.<CloudinaryUploadInfo> emptyList());
+		assertEquals(Arrays.asList((Object) 0, 0), stream.getValues());
+		
+		stream = roundTrip(Collections.<CloudinaryUploadInfo> singletonList(null));
+		assertEquals(Arrays.asList((Object) 0, 1, false), stream.getValues());
+	}
+
+	private static TestSerializationStream roundTrip(List<CloudinaryUploadInfo> infos) throws SerializationException {
+		TestSerializationStream stream = new TestSerializationStream();
+		new CloudinaryUploadInfoBatch_CustomFieldSerializer().serializeInstance(stream, new CloudinaryUploadInfoBatch(infos));
+		CloudinaryUploadInfoBatch copy = new CloudinaryUploadInfoBatch();
+		new CloudinaryUploadInfoBatch_CustomFieldSerializer().deserializeInstance(stream, copy);
+		assertEquals(0, stream.remaining());
+		assertEquals(infos.size(), copy.size());
+		for (int i = 0; i < infos.size(); i++) {
+			assertInfoEquals(infos.get(i), copy.get(i));
+		}
+		return stream;
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadInfo_CustomFieldSerializerTest {
+	
+	private static final int HAS_WIDTH = 1;
+	private static final int HAS_HEIGHT = 1 << 1;
+	private static final int HAS_BYTES = 1 << 2;
+	private static final int HAS_TAGS = 1 << 3;
+	private static final int HAS_CUSTOM_COORDINATES = 1 << 4;
+	private static final int HAS_FACE_COORDINATES = 1 << 5;
+	private static final int URL_DERIVED = 1 << 6;
+	private static final int SECURE_URL_DERIVED = 1 << 7;
+	private static final int THUMBNAIL_URL_DERIVED = 1 << 8;
+	
+	private static final String PREFIX = "http://res.cloudinary.com/demo/image/upload/";
+	private static final String SUFFIX = "v1312461204/folder/sample.jpg";
+
+	@Test
+	public void testDerivesUrls() throws SerializationException {
+		CloudinaryUploadInfo info = info();
+		TestSerializationStream stream = roundTrip(info);
+		
+		assertEquals(HAS_WIDTH | HAS_HEIGHT | HAS_BYTES | HAS_TAGS | HAS_CUSTOM_COORDINATES | HAS_FACE_COORDINATES 
+				| URL_DERIVED | SECURE_URL_DERIVED | THUMBNAIL_URL_DERIVED, stream.getValues().get(0));
+		List<String> strings = stream.getStrings();
+		assertTrue(strings.contains(PREFIX));
+		assertTrue(strings.contains("c_limit,h_60,w_90/"));
+		// the path is the only string with the version and public id
+		assertEquals(1, Collections.frequency(strings, SUFFIX));
+		for (String string : strings) {
+			assertFalse(string, string != null && string.startsWith("http") && string.endsWith(SUFFIX));
+		}
+	}
+
+	@Test
+	public void testKeepsNullFields() throws SerializationException {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		TestSerializationStream stream = roundTrip(info);
+		assertEquals(0, stream.getValues().get(0));
+		
+		info.setPublicId("sample");
+		info.setWidth(0);
+		info.setTags(new String[] {null, ""});
+		info.setCustomCoordinates(new CloudinaryCoordinates[0]);
+		stream = roundTrip(info);
+		assertEquals(HAS_WIDTH | HAS_TAGS | HAS_CUSTOM_COORDINATES, stream.getValues().get(0));
+	}
+
+	@Test
+	public void testKeepsUrlsNotFollowingThePattern() throws SerializationException {
+		CloudinaryUploadInfo info = info();
+		info.setUrl("http://res.cloudinary.com/demo/image/upload/v1/other.png");
+		info.setSecureUrl("https://cdn.example.com/sample.jpg");
+		info.setThumbnailUrl("http://example.com/thumb.jpg");
+		assertFlags(0, roundTrip(info));
+		
+		info = info();
+		info.setVersion(null);
+		assertFlags(0, roundTrip(info));
+		
+		info = info();
+		info.setFormat(null);
+		assertFlags(0, roundTrip(info));
+		
+		info = info();
+		info.setUrl("https://res.cloudinary.com/demo/image/upload/" + SUFFIX);
+		info.setSecureUrl(info.getUrl());
+		info.setThumbnailUrl("https://res.cloudinary.com/demo/image/upload/c_limit,h_60,w_90/" + SUFFIX);
+		assertFlags(URL_DERIVED | THUMBNAIL_URL_DERIVED, roundTrip(info));
+		
+		info = info();
+		info.setSecureUrl("https://secure.example.com/demo/image/upload/" + SUFFIX);
+		info.setThumbnailUrl(null);
+		assertFlags(URL_DERIVED, roundTrip(info));
+		
+		info = info();
+		info.setSecureUrl("https://res.cloudinary.com/demo/image/upload/" + SUFFIX + "x");
+		info.setThumbnailUrl(PREFIX + "c_limit/v1/other.jpg");
+		assertFlags(URL_DERIVED, roundTrip(info));
+	}
+
+	@Test
+	public void testDerivesUrlsWithoutFormat() throws SerializationException {
+		CloudinaryUploadInfo info = info();
+		info.setFormat(null);
+		info.setUrl(PREFIX + "v1312461204/folder/sample");
+		info.setSecureUrl(null);
+		info.setThumbnailUrl(info.getUrl());
+		assertFlags(URL_DERIVED | THUMBNAIL_URL_DERIVED, roundTrip(info));
+	}
+
+	@Test
+	public void testKeepsNullCoordinates() throws SerializationException {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setCustomCoordinates(new CloudinaryCoordinates[] {
+				coordinates(1, 2, 3, 4), null, coordinates(null, 6, null, 8), coordinates(null, null, null, null)});
+		info.setFaceCoordinates(new CloudinaryCoordinates[] {null});
+		TestSerializationStream stream = roundTrip(info);
+		
+		// flags, strings, the lengths and masks, and only the non-null values
+		assertEquals(Arrays.asList((Object) 4, 0, 1, 2, 3, 4, 1 << 4, 1 | 1 << 2, 6, 8, 15, 1, 1 << 4), 
+				stream.getValues().subList(stream.getValues().size() - 13, stream.getValues().size()));
+	}
+
+	private static void assertFlags(int expected, TestSerializationStream stream) {
+		int flags = (Integer) stream.getValues().get(0);
+		assertEquals(expected, flags & (URL_DERIVED | SECURE_URL_DERIVED | THUMBNAIL_URL_DERIVED));
+	}
+
+	/**
+	 * Serializes and deserializes the info, checking that all the fields are kept.
+	 * 
+	 * @return The stream with the serialized values.
+	 */
+	private static TestSerializationStream roundTrip(CloudinaryUploadInfo info) throws SerializationException {
+		TestSerializationStream stream = new TestSerializationStream();
+		new CloudinaryUploadInfo_CustomFieldSerializer().serializeInstance(stream, info);
+		CloudinaryUploadInfo copy = new CloudinaryUploadInfo();
+		new CloudinaryUploadInfo_CustomFieldSerializer().deserializeInstance(stream, copy);
+		assertEquals(0, stream.remaining());
+		assertInfoEquals(info, copy);
+		return stream;
+	}
+
+	static void assertInfoEquals(CloudinaryUploadInfo expected, CloudinaryUploadInfo actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertEquals(expected.getPublicId(), actual.getPublicId());
+		assertEquals(expected.getVersion(), actual.getVersion());
+		assertEquals(expected.getFormat(), actual.getFormat());
+		assertEquals(expected.getType(), actual.getType());
+		assertEquals(expected.getResourceType(), actual.getResourceType());
+		assertEquals(expected.getSignature(), actual.getSignature());
+		assertEquals(expected.getEtag(), actual.getEtag());
+		assertEquals(expected.getOriginalFilename(), actual.getOriginalFilename());
+		assertEquals(expected.getPath(), actual.getPath());
+		assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+		assertEquals(expected.getUrl(), actual.getUrl());
+		assertEquals(expected.getSecureUrl(), actual.getSecureUrl());
+		assertEquals(expected.getThumbnailUrl(), actual.getThumbnailUrl());
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertEquals(expected.getBytes(), actual.getBytes());
+		assertArrayEquals(expected.getTags(), actual.getTags());
+		assertCoordinatesEquals(expected.getCustomCoordinates(), actual.getCustomCoordinates());
+		assertCoordinatesEquals(expected.getFaceCoordinates(), actual.getFaceCoordinates());
+	}
+
+	private static void assertCoordinatesEquals(CloudinaryCoordinates[] expected, CloudinaryCoordinates[] actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			if (expected[i] == null) {
+				assertNull(actual[i]);
+				continue;
+			}
+			assertEquals(expected[i].getX(), actual[i].getX());
+			assertEquals(expected[i].getY(), actual[i].getY());
+			assertEquals(expected[i].getWidth(), actual[i].getWidth());
+			assertEquals(expected[i].getHeight(), actual[i].getHeight());
+		}
+	}
+
+	static CloudinaryCoordinates coordinates(Integer x, Integer y, Integer width, Integer height) {
+		CloudinaryCoordinates c = new CloudinaryCoordinates();
+		c.setX(x);
+		c.setY(y);
+		c.setWidth(width);
+		c.setHeight(height);
+		return c;
+	}
+
+	static CloudinaryUploadInfo info() {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setPublicId("folder/sample");
+		info.setVersion("1312461204");
+		info.setFormat("jpg");
+		info.setType("upload");
+		info.setResourceType("image");
+		info.setSignature("abcdef");
+		info.setEtag("etag");
+		info.setOriginalFilename("sample");
+		info.setPath(SUFFIX);
+		info.setCreatedAt("2011-08-04T12:33:24Z");
+		info.setUrl(PREFIX + SUFFIX);
+		info.setSecureUrl("https://res.cloudinary.com/demo/image/upload/" + SUFFIX);
+		info.setThumbnailUrl(PREFIX + "c_limit,h_60,w_90/" + SUFFIX);
+		info.setWidth(864);
+		info.setHeight(576);
+		info.setBytes(120253);
+		info.setTags(new String[] {"a", "b"});
+		info.setCustomCoordinates(new CloudinaryCoordinates[] {coordinates(1, 2, 3, 4)});
+		info.setFaceCoordinates(new CloudinaryCoordinates[] {coordinates(5, 6, 7, 8), coordinates(-1, 0, 10, 20)});
+		return info;
+	}
+}
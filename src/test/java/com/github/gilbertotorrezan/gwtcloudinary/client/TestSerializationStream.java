@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * Stream that records the written values in order, and reads them back in the same order, so custom field serializers can
+ * be tested on the JVM. Reading a value of another type than the one written fails with a {@link ClassCastException}.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class TestSerializationStream implements SerializationStreamWriter, SerializationStreamReader {
+	
+	private final List<Object> values = new ArrayList<>();
+	private int position;
+	
+	/**
+	 * @return The values written so far, in order.
+	 */
+	public List<Object> getValues() {
+		return values;
+	}
+	
+	/**
+	 * @return The strings written so far, in order.
+	 */
+	public List<String> getStrings() {
+		List<String> strings = new ArrayList<>();
+		for (Object value : values) {
+			if (value instanceof StringValue) {
+				strings.add(((StringValue) value).value);
+			}
+		}
+		return strings;
+	}
+	
+	/**
+	 * @return The number of values not read yet.
+	 */
+	public int remaining() {
+		return values.size() - position;
+	}
+	
+	private <T> T next(Class<T> type) throws SerializationException {
+		if (position >= values.size()) {
+			throw new SerializationException("Too many values read: " + position);
+		}
+		return type.cast(values.get(position++));
+	}
+
+	@Override
+	public void writeBoolean(boolean value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeByte(byte value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeChar(char value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeDouble(double value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeFloat(float value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeInt(int value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeLong(long value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeObject(Object value) {
+		values.add(value);
+	}
+
+	@Override
+	public void writeShort(short value) {
+		values.add(value);
+	}
+
+	/**
+	 * Strings are wrapped, so <code>null</code> strings can't be read as objects of other types.
+	 */
+	@Override
+	public void writeString(String value) {
+		values.add(new StringValue(value));
+	}
+
+	@Override
+	public boolean readBoolean() throws SerializationException {
+		return next(Boolean.class);
+	}
+
+	@Override
+	public byte readByte() throws SerializationException {
+		return next(Byte.class);
+	}
+
+	@Override
+	public char readChar() throws SerializationException {
+		return next(Character.class);
+	}
+
+	@Override
+	public double readDouble() throws SerializationException {
+		return next(Double.class);
+	}
+
+	@Override
+	public float readFloat() throws SerializationException {
+		return next(Float.class);
+	}
+
+	@Override
+	public int readInt() throws SerializationException {
+		return next(Integer.class);
+	}
+
+	@Override
+	public long readLong() throws SerializationException {
+		return next(Long.class);
+	}
+
+	@Override
+	public Object readObject() throws SerializationException {
+		return next(Object.class);
+	}
+
+	@Override
+	public short readShort() throws SerializationException {
+		return next(Short.class);
+	}
+
+	@Override
+	public String readString() throws SerializationException {
+		return next(StringValue.class).value;
+	}
+	
+	@Override
+	public String toString() {
+		return values.toString();
+	}
+	
+	/**
+	 * A written string, which may be <code>null</code>.
+	 */
+	private static class StringValue {
+		
+		private final String value;
+		
+		private StringValue(String value) {
+			this.value = value;
+		}
+
+		
+		@Override
+		public String toString() {
+			return value == null ? "null" : '"' + value + '"';
+		}
+	}
+}
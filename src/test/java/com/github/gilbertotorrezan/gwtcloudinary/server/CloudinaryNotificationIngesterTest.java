@@ -0,0 +1,193 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryNotificationIngesterTest {
+	
+	private final TestNotificationSink sink = new TestNotificationSink(true);
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private CloudinaryNotificationIngester ingester;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		sink.open();
+		executor.shutdownNow();
+		if (ingester != null) {
+			ingester.shutdown(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testDeliversInBatches() throws Exception {
+		sink.open();
+		ingester = new CloudinaryNotificationIngester(sink)
+				.setWorkerThreads(1)
+				.setBatchSize(2)
+				.setMaxBatchDelayMillis(1000);
+		ingester.start();
+		
+		assertTrue(ingester.offer(infos("a", "b", "c")));
+		assertEquals(2, sink.entered.take().size());
+		assertEquals(1, sink.entered.take().size());
+		assertTrue(ingester.shutdown(5, TimeUnit.SECONDS));
+		assertEquals(3, ingester.getDeliveredCount());
+		assertEquals(3, ingester.getAcceptedCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testOfferWaitsForRoom() throws Exception {
+		startHeldIngester(1000);
+		
+		final List<CloudinaryUploadInfo> waiting = infos("c");
+		Future<Boolean> offered = executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return ingester.offer(waiting);
+			}
+		});
+		Thread.sleep(100);
+		assertFalse(offered.isDone());
+		
+		sink.open();
+		assertTrue(offered.get());
+		assertTrue(ingester.shutdown(5, TimeUnit.SECONDS));
+		assertEquals(3, ingester.getDeliveredCount());
+		assertEquals(0, ingester.getRejectedCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testOfferWaitingDuringShutdownIsRejected() throws Exception {
+		startHeldIngester(5000);
+		
+		final List<CloudinaryUploadInfo> waiting = infos("c");
+		Future<Boolean> offered = executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return ingester.offer(waiting);
+			}
+		});
+		Thread.sleep(100);
+		assertFalse(offered.isDone());
+		
+		Future<Boolean> stopped = executor.submit(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return ingester.shutdown(5, TimeUnit.SECONDS);
+			}
+		});
+		while (ingester.isRunning()) {
+			Thread.sleep(10);
+		}
+		
+		// the worker takes "b", so the waiting offer gets room after the shutdown
+		sink.open();
+		assertFalse(offered.get());
+		assertTrue(stopped.get());
+		assertEquals(2, ingester.getAcceptedCount());
+		assertEquals(1, ingester.getRejectedCount());
+		assertEquals(2, ingester.getDeliveredCount());
+		assertEquals(0, ingester.getQueueSize());
+	}
+
+	@Test(timeout = 10000)
+	public void testOfferRejectsWhenFull() throws Exception {
+		startHeldIngester(50);
+		
+		long start = System.nanoTime();
+		assertFalse(ingester.offer(infos("c")));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		assertEquals(1, ingester.getRejectedCount());
+		assertEquals(1, ingester.getQueueSize());
+	}
+
+	@Test
+	public void testOfferRejectsMoreThanTheCapacity() throws Exception {
+		ingester = new CloudinaryNotificationIngester(sink).setQueueCapacity(2).setOfferTimeoutMillis(5000);
+		ingester.start();
+		
+		long start = System.nanoTime();
+		assertFalse(ingester.offer(infos("a", "b", "c")));
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+		assertEquals(3, ingester.getRejectedCount());
+	}
+
+	@Test
+	public void testOfferRejectsWhenNotRunning() throws Exception {
+		ingester = new CloudinaryNotificationIngester(sink);
+		assertFalse(ingester.offer(infos("a")));
+		assertEquals(1, ingester.getRejectedCount());
+	}
+
+	/**
+	 * Starts an ingester with room for a single notification, and fills it: the only worker is held by the sink with "a",
+	 * and "b" waits in the queue.
+	 */
+	private void startHeldIngester(long offerTimeoutMillis) throws InterruptedException {
+		ingester = new CloudinaryNotificationIngester(sink)
+				.setWorkerThreads(1)
+				.setQueueCapacity(1)
+				.setBatchSize(1)
+				.setMaxBatchDelayMillis(0)
+				.setOfferTimeoutMillis(offerTimeoutMillis);
+		ingester.start();
+		
+		assertTrue(ingester.offer(infos("a")));
+		assertNotNull(sink.entered.poll(5, TimeUnit.SECONDS));
+		assertTrue(ingester.offer(infos("b")));
+	}
+
+	static List<CloudinaryUploadInfo> infos(String... publicIds) {
+		List<CloudinaryUploadInfo> infos = new ArrayList<>();
+		for (String publicId : publicIds) {
+			CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+			info.setPublicId(publicId);
+			infos.add(info);
+		}
+		return infos;
+	}
+}
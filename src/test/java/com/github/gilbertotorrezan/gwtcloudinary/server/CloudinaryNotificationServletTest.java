@@ -0,0 +1,382 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Posts notifications to the {@link CloudinaryNotificationServlet} running in the HTTP server embedded in the JDK.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryNotificationServletTest {
+	
+	private static final String API_SECRET = "abcd";
+	private static final String BODY = "{\"notification_type\": \"upload\", \"public_id\": \"sample\", \"version\": 1312461204, "
+			+ "\"signature\": \"" + sha1Hex("public_id=sample&version=1312461204" + API_SECRET) + "\"}";
+	
+	private HttpServer server;
+	private CloudinaryNotificationIngester ingester;
+	private TestNotificationSink sink;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (server != null) {
+			server.stop(0);
+		}
+		if (sink != null) {
+			sink.open();
+		}
+		if (ingester != null) {
+			ingester.shutdown(5, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testAcceptsValidSignature() throws Exception {
+		CloudinaryNotificationServlet servlet = startServlet(new TestNotificationSink(false), 10);
+		
+		Response response = post(BODY, now(), sign(BODY, now()));
+		assertEquals(200, response.status);
+		CloudinaryUploadInfo info = sink.delivered.poll(5, TimeUnit.SECONDS);
+		assertNotNull(info);
+		assertEquals("sample", info.getPublicId());
+		assertEquals("1312461204", info.getVersion());
+		assertEquals(1, servlet.getIngester().getAcceptedCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testRejectsBadSignature() throws Exception {
+		startServlet(new TestNotificationSink(false), 10);
+		
+		String timestamp = now();
+		assertEquals(401, post(BODY, timestamp, sign(BODY + " ", timestamp)).status);
+		assertEquals(401, post(BODY, timestamp, sha1Hex(BODY + timestamp + "other secret")).status);
+		assertEquals(401, post(BODY, String.valueOf(Long.parseLong(timestamp) - 1), sign(BODY, timestamp)).status);
+		assertEquals(401, post(BODY, null, sign(BODY, timestamp)).status);
+		assertEquals(0, ingester.getAcceptedCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testRejectsExpiredTimestamp() throws Exception {
+		startServlet(new TestNotificationSink(false), 10);
+		
+		String old = String.valueOf(Long.parseLong(now()) - 3600);
+		assertEquals(401, post(BODY, old, sign(BODY, old)).status);
+		assertEquals(0, ingester.getAcceptedCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testRejectsMissingSignature() throws Exception {
+		CloudinaryNotificationServlet servlet = startServlet(new TestNotificationSink(false), 10);
+		
+		// the signature of the result alone is not enough by default
+		assertEquals(401, post(BODY, null, null).status);
+		assertEquals(0, ingester.getAcceptedCount());
+		
+		servlet.setAllowResultSignatures(true);
+		assertEquals(401, post(BODY.replace("\"sample\"", "\"other\""), null, null).status);
+		assertEquals(200, post(BODY, null, null).status);
+		assertEquals(1, ingester.getAcceptedCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testRejectsMalformedNotification() throws Exception {
+		startServlet(new TestNotificationSink(false), 10);
+		
+		String body = "{\"public_id\": \"sample\"} <script>";
+		Response response = post(body, now(), sign(body, now()));
+		assertEquals(400, response.status);
+		assertEquals("Malformed notification", response.message);
+	}
+
+	@Test(timeout = 10000)
+	public void testFullQueue() throws Exception {
+		startServlet(new TestNotificationSink(true), 1);
+		
+		// the worker is held by the sink with the first notification, and the second one fills the queue
+		assertEquals(200, post(BODY, now(), sign(BODY, now())).status);
+		assertNotNull(sink.entered.poll(5, TimeUnit.SECONDS));
+		assertEquals(200, post(BODY, now(), sign(BODY, now())).status);
+		
+		Response response = post(BODY, now(), sign(BODY, now()));
+		assertEquals(503, response.status);
+		assertEquals("5", response.retryAfter);
+		assertEquals(1, ingester.getRejectedCount());
+		
+		sink.open();
+		assertTrue(ingester.shutdown(5, TimeUnit.SECONDS));
+		assertEquals(2, ingester.getDeliveredCount());
+	}
+
+	@Test(timeout = 10000)
+	public void testCreatesSinkFromInitParameters() throws Exception {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put("apiSecret", API_SECRET);
+		parameters.put("maxAgeSeconds", "60");
+		parameters.put("sinkClass", TestNotificationSink.class.getName());
+		CloudinaryNotificationServlet servlet = new CloudinaryNotificationServlet();
+		servlet.init(config(parameters));
+		ingester = servlet.getIngester();
+		sink = TestNotificationSink.lastCreated;
+		startServer(servlet);
+		
+		assertEquals(200, post(BODY, now(), sign(BODY, now())).status);
+		assertEquals("sample", sink.delivered.poll(5, TimeUnit.SECONDS).getPublicId());
+		assertEquals(401, post(BODY, null, null).status);
+		servlet.destroy();
+		ingester = null;
+	}
+
+	private CloudinaryNotificationServlet startServlet(TestNotificationSink sink, int queueCapacity) throws Exception {
+		this.sink = sink;
+		ingester = new CloudinaryNotificationIngester(sink)
+				.setWorkerThreads(1)
+				.setQueueCapacity(queueCapacity)
+				.setBatchSize(1)
+				.setMaxBatchDelayMillis(0)
+				.setOfferTimeoutMillis(50);
+		ingester.start();
+		CloudinaryNotificationServlet servlet = new CloudinaryNotificationServlet(ingester, 
+				new CloudinarySignatureVerifier(API_SECRET).setMaxAgeSeconds(60));
+		servlet.init(config(new HashMap<String, String>()));
+		startServer(servlet);
+		return servlet;
+	}
+
+	private void startServer(HttpServlet servlet) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/notifications", new ServletHandler(servlet));
+		server.start();
+	}
+
+	private Response post(String body, String timestamp, String signature) throws IOException {
+		URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/notifications");
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+		if (timestamp != null) {
+			connection.setRequestProperty(CloudinaryNotificationServlet.TIMESTAMP_HEADER, timestamp);
+		}
+		if (signature != null) {
+			connection.setRequestProperty(CloudinaryNotificationServlet.SIGNATURE_HEADER, signature);
+		}
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		Response response = new Response();
+		response.status = connection.getResponseCode();
+		response.retryAfter = connection.getHeaderField("Retry-After");
+		InputStream in = response.status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+		response.message = in == null ? null : new String(readAll(in), StandardCharsets.UTF_8);
+		connection.disconnect();
+		return response;
+	}
+
+	private static String now() {
+		return String.valueOf(System.currentTimeMillis() / 1000);
+	}
+
+	private static String sign(String body, String timestamp) {
+		return sha1Hex(body + timestamp + API_SECRET);
+	}
+
+	private static String sha1Hex(String value) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for (byte b : hash) {
+				hex.append(String.format("%02x", b & 0xff));
+			}
+			return hex.toString();
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		try {
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+		}
+		finally {
+			in.close();
+		}
+		return out.toByteArray();
+	}
+
+	private static ServletConfig config(final Map<String, String> parameters) {
+		return proxy(ServletConfig.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				switch (method.getName()) {
+				case "getInitParameter":
+					return parameters.get(args[0]);
+				case "getServletName":
+					return "notifications";
+				default:
+					throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		});
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+	}
+
+	private static class Response {
+		private int status;
+		private String message;
+		private String retryAfter;
+	}
+
+	/**
+	 * Runs a servlet in the embedded HTTP server, with requests and responses that implement only what the servlet uses.
+	 */
+	private static class ServletHandler implements HttpHandler {
+		
+		private final HttpServlet servlet;
+		
+		private ServletHandler(HttpServlet servlet) {
+			this.servlet = servlet;
+		}
+
+		@Override
+		public void handle(final HttpExchange exchange) throws IOException {
+			final InputStream body = exchange.getRequestBody();
+			final ServletInputStream input = new ServletInputStream() {
+				@Override
+				public int read() throws IOException {
+					return body.read();
+				}
+				
+				@Override
+				public int read(byte[] buffer, int offset, int length) throws IOException {
+					return body.read(buffer, offset, length);
+				}
+			};
+			HttpServletRequest request = proxy(HttpServletRequest.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					switch (method.getName()) {
+					case "getMethod":
+						return exchange.getRequestMethod();
+					case "getProtocol":
+						return exchange.getProtocol();
+					case "getHeader":
+						return exchange.getRequestHeaders().getFirst((String) args[0]);
+					case "getContentLength":
+						String length = exchange.getRequestHeaders().getFirst("Content-Length");
+						return length == null ? -1 : Integer.parseInt(length);
+					case "getCharacterEncoding":
+						return null;
+					case "getInputStream":
+						return input;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				}
+			});
+			
+			final int[] status = {HttpServletResponse.SC_OK};
+			final String[] message = {null};
+			HttpServletResponse response = proxy(HttpServletResponse.class, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					switch (method.getName()) {
+					case "setStatus":
+						status[0] = (Integer) args[0];
+						return null;
+					case "sendError":
+						status[0] = (Integer) args[0];
+						message[0] = args.length > 1 ? (String) args[1] : null;
+						return null;
+					case "setHeader":
+						exchange.getResponseHeaders().set((String) args[0], (String) args[1]);
+						return null;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				}
+			});
+			
+			try {
+				servlet.service(request, response);
+			}
+			catch (ServletException | RuntimeException e) {
+				status[0] = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+				message[0] = String.valueOf(e);
+			}
+			byte[] bytes = message[0] == null ? new byte[0] : message[0].getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status[0], bytes.length == 0 ? -1 : bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.server;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * Sink used by the tests: it records the delivered notifications, and can hold the workers until it is opened.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class TestNotificationSink implements CloudinaryNotificationSink {
+	
+	/**
+	 * The last instance created by its no-args constructor, as done by the servlet with the <code>sinkClass</code> parameter.
+	 */
+	static volatile TestNotificationSink lastCreated;
+	
+	final BlockingQueue<CloudinaryUploadInfo> delivered = new LinkedBlockingQueue<>();
+	final BlockingQueue<List<CloudinaryUploadInfo>> entered = new LinkedBlockingQueue<>();
+	private final CountDownLatch gate;
+	
+	public TestNotificationSink() {
+		this(false);
+		lastCreated = this;
+	}
+	
+	/**
+	 * @param closed Whether the workers are held in the sink until {@link #open()} is called.
+	 */
+	TestNotificationSink(boolean closed) {
+		gate = new CountDownLatch(closed ? 1 : 0);
+	}
+	
+	void open() {
+		gate.countDown();
+	}
+
+	@Override
+	public void accept(List<CloudinaryUploadInfo> batch) throws Exception {
+		entered.add(batch);
+		gate.await();
+		delivered.addAll(batch);
+	}
+}
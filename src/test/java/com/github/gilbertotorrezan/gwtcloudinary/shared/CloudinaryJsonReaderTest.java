@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.github.gilbertotorrezan.gwtcloudinary.shared.CloudinaryJsonReader.Token;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryJsonReaderTest {
+
+	@Test
+	public void testReadsNestedValues() {
+		CloudinaryJsonReader reader = new CloudinaryJsonReader(" {\"a\": [1, -2.5e1, \"x\\u0041\\n\"], \"b\": {\"c\": true, \"d\": null}} ");
+		reader.beginObject();
+		assertEquals("a", reader.nextName());
+		reader.beginArray();
+		assertEquals(1, reader.nextInt());
+		assertEquals(-25.0, reader.nextDouble(), 0);
+		assertEquals("xA\n", reader.nextString());
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		assertEquals("b", reader.nextName());
+		reader.beginObject();
+		assertEquals("c", reader.nextName());
+		assertTrue(reader.nextBoolean());
+		assertEquals("d", reader.nextName());
+		reader.nextNull();
+		reader.endObject();
+		reader.endObject();
+		assertEquals(Token.END_DOCUMENT, reader.peek());
+		reader.endDocument();
+	}
+
+	@Test
+	public void testNumbersOutOfIntRange() {
+		assertEquals("1e400", new CloudinaryJsonReader("1e400").nextNumberString());
+		
+		CloudinaryJsonReader reader = new CloudinaryJsonReader("[1e400, -1e400, 3000000000, 2.9]");
+		reader.beginArray();
+		assertEquals(Integer.MAX_VALUE, reader.nextInt());
+		assertEquals(Integer.MIN_VALUE, reader.nextInt());
+		assertEquals(Integer.MAX_VALUE, reader.nextInt());
+		assertEquals(2, reader.nextInt());
+		reader.endArray();
+		reader.endDocument();
+	}
+
+	@Test
+	public void testSkipValue() {
+		CloudinaryJsonReader reader = new CloudinaryJsonReader("[{\"a\": [[1], {\"b\": []}]}, 2]");
+		reader.beginArray();
+		reader.skipValue();
+		assertEquals(2, reader.nextInt());
+		reader.endArray();
+		reader.endDocument();
+	}
+
+	@Test
+	public void testRejectsDataAfterTheRootValue() {
+		assertEndDocumentFails("{} garbage");
+		assertEndDocumentFails("[] ]]]");
+		assertEndDocumentFails("{} {}");
+		assertEndDocumentFails("1 2");
+	}
+
+	@Test
+	public void testRejectsMalformedDocuments() {
+		assertSkipFails("{\"a\" 1}");
+		assertSkipFails("{\"a\": 1 \"b\": 2}");
+		assertSkipFails("{a: 1}");
+		assertSkipFails("[1, 2");
+		assertSkipFails("[1 2]");
+		assertSkipFails("[\"abc]");
+		assertSkipFails("[\"\\u00zz\"]");
+		assertSkipFails("[tru]");
+		assertSkipFails("");
+	}
+
+	@Test
+	public void testRejectsDeepNesting() {
+		StringBuilder json = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			json.append('[');
+		}
+		assertSkipFails(json.toString());
+	}
+
+	private static void assertEndDocumentFails(String json) {
+		CloudinaryJsonReader reader = new CloudinaryJsonReader(json);
+		reader.skipValue();
+		try {
+			reader.endDocument();
+			fail("Expected a syntax error: " + json);
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static void assertSkipFails(String json) {
+		try {
+			CloudinaryJsonReader reader = new CloudinaryJsonReader(json);
+			reader.skipValue();
+			reader.endDocument();
+			fail("Expected a syntax error: " + json);
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinarySrcsetBuilderTest {
+	
+	private static final String PREFIX = "https://res.cloudinary.com/demo/image/upload/c_limit,f_auto,q_auto";
+	
+	private final CloudinarySrcsetBuilder builder = new CloudinarySrcsetBuilder(new CloudinaryUrlBuilder("demo"))
+			.setBreakpoints(640, 320, 1280).setFallbackWidth(600);
+
+	@Test
+	public void testUsesBreakpointsUpToTheOriginalWidth() {
+		assertEquals(PREFIX + ",w_320/v1/sample.jpg 320w, " 
+				+ PREFIX + ",w_640/v1/sample.jpg 640w, " 
+				+ PREFIX + "/v1/sample.jpg 1000w", builder.buildSrcset(info(1000)));
+		assertEquals(PREFIX + ",w_640/v1/sample.jpg", builder.buildSrc(info(1000)));
+	}
+
+	@Test
+	public void testDoesNotRepeatAnOriginalWidthEqualToABreakpoint() {
+		assertEquals(PREFIX + ",w_320/v1/sample.jpg 320w, " 
+				+ PREFIX + ",w_640/v1/sample.jpg 640w", builder.buildSrcset(info(640)));
+	}
+
+	@Test
+	public void testUsesTheOriginalWhenSmallerThanAllBreakpoints() {
+		assertEquals(PREFIX + "/v1/sample.jpg 100w", builder.buildSrcset(info(100)));
+		assertEquals(PREFIX + "/v1/sample.jpg", builder.buildSrc(info(100)));
+	}
+
+	@Test
+	public void testUsesAllBreakpointsWithoutAPositiveWidth() {
+		String expected = PREFIX + ",w_320/v1/sample.jpg 320w, " 
+				+ PREFIX + ",w_640/v1/sample.jpg 640w, " 
+				+ PREFIX + ",w_1280/v1/sample.jpg 1280w";
+		assertEquals(expected, builder.buildSrcset(info(null)));
+		assertEquals(expected, builder.buildSrcset(info(0)));
+		assertEquals(expected, builder.buildSrcset(info(-1)));
+		assertEquals(PREFIX + ",w_640/v1/sample.jpg", builder.buildSrc(info(0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsNonPositiveBreakpoints() {
+		builder.setBreakpoints(0, 320);
+	}
+
+	private static CloudinaryUploadInfo info(Integer width) {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setPublicId("sample");
+		info.setVersion("1");
+		info.setFormat("jpg");
+		info.setWidth(width);
+		return info;
+	}
+}
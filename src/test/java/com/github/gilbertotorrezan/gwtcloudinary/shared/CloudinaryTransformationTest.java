@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryTransformationTest {
+
+	@Test
+	public void testWritesParametersInAlphabeticalOrder() {
+		CloudinaryTransformation t = new CloudinaryTransformation().setWidth(300).setQuality("auto:low").setHeight(200)
+				.setGravity("faces").setAutoFormat(true).setEffect("blur:1000").setDpr(2).setCrop("fill");
+		assertEquals("c_fill,dpr_2.0,e_blur:1000,f_auto,g_faces,h_200,q_auto:low,w_300", t.toString());
+		assertEquals("dpr_1.5", new CloudinaryTransformation().setDpr(1.5).toString());
+	}
+
+	@Test
+	public void testRemovesParameters() {
+		CloudinaryTransformation t = new CloudinaryTransformation().setWidth(300).setCrop("fill").setAutoQuality(true);
+		assertTrue(t.isAutoQuality());
+		assertEquals("c_fill,q_auto,w_300", t.toString());
+		t.setWidth(0).setCrop(null).setAutoQuality(false);
+		assertFalse(t.isAutoQuality());
+		assertEquals("", t.toString());
+		assertTrue(t.isEmpty());
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		CloudinaryTransformation t = new CloudinaryTransformation().setWidth(300).setCrop("fill");
+		CloudinaryTransformation copy = t.copy();
+		assertEquals(t, copy);
+		assertEquals(t.hashCode(), copy.hashCode());
+		
+		t.setWidth(100);
+		assertEquals("c_fill,w_100", t.toString());
+		assertEquals("c_fill,w_300", copy.toString());
+		assertNotEquals(t, copy);
+		
+		copy.setHeight(50);
+		assertEquals("c_fill,w_100", t.toString());
+		assertEquals("c_fill,h_50,w_300", copy.toString());
+	}
+
+	@Test
+	public void testEqualsFollowsTheParameters() {
+		CloudinaryTransformation a = new CloudinaryTransformation().setCrop("fill").setWidth(300);
+		CloudinaryTransformation b = new CloudinaryTransformation().setWidth(300).setCrop("fill");
+		assertEquals(a, b);
+		assertEquals(a.hashCode(), b.hashCode());
+		b.setHeight(10);
+		assertNotEquals(a, b);
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryCoordinates;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryRectArray;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUploadInfoDecoderTest {
+	
+	private final CloudinaryUploadInfoDecoder decoder = new CloudinaryUploadInfoDecoder();
+
+	@Test
+	public void testDecodesFields() {
+		CloudinaryUploadInfo info = decoder.decode("{\"public_id\": \"folder/sample\", \"version\": 1312461204, \"width\": 864, "
+				+ "\"height\": 576, \"bytes\": 120253, \"format\": \"jpg\", \"resource_type\": \"image\", \"type\": \"upload\", "
+				+ "\"url\": \"http://res.cloudinary.com/demo/image/upload/v1312461204/folder/sample.jpg\", "
+				+ "\"tags\": [\"a\", 1, null], \"unknown\": {\"nested\": [1, {\"x\": []}]}, \"signature\": \"abc\"}");
+		assertEquals("folder/sample", info.getPublicId());
+		assertEquals("1312461204", info.getVersion());
+		assertEquals(Integer.valueOf(864), info.getWidth());
+		assertEquals(Integer.valueOf(576), info.getHeight());
+		assertEquals(Integer.valueOf(120253), info.getBytes());
+		assertEquals("jpg", info.getFormat());
+		assertEquals("image", info.getResourceType());
+		assertEquals("upload", info.getType());
+		assertEquals("http://res.cloudinary.com/demo/image/upload/v1312461204/folder/sample.jpg", info.getUrl());
+		assertArrayEquals(new String[] {"a", "1", null}, info.getTags());
+		assertEquals("abc", info.getSignature());
+		assertNull(info.getCustomCoordinates());
+		assertNull(info.getFaceCoordinates());
+	}
+
+	@Test
+	public void testIgnoresFieldsWithUnexpectedTypes() {
+		CloudinaryUploadInfo info = decoder.decode("{\"public_id\": {\"a\": 1}, \"width\": \"wide\", \"tags\": \"a\", "
+				+ "\"coordinates\": [1, 2]}");
+		assertNull(info.getPublicId());
+		assertNull(info.getWidth());
+		assertNull(info.getTags());
+		assertNull(info.getCustomCoordinates());
+	}
+
+	@Test
+	public void testDecodesNestedCoordinates() {
+		CloudinaryUploadInfo info = decoder.decode("{\"coordinates\": {\"custom\": [[1, 2, 3, 4], \"bad\", [5, 6], "
+				+ "[7, \"x\", 9.7, 10, 11], [[1], 2, 3, 4]], \"face\": [[0, 0, 1, 1]], \"faces\": [[10, 20, 30, 40]]}}");
+		
+		CloudinaryCoordinates[] custom = info.getCustomCoordinates();
+		assertEquals(5, custom.length);
+		assertCoordinates(custom[0], 1, 2, 3, 4);
+		assertNull(custom[1]);
+		assertNull(custom[2]);
+		assertCoordinates(custom[3], 7, null, 9, 10);
+		assertCoordinates(custom[4], null, 2, 3, 4);
+		
+		// "faces" is preferred over "face", regardless of the order
+		CloudinaryCoordinates[] faces = info.getFaceCoordinates();
+		assertEquals(1, faces.length);
+		assertCoordinates(faces[0], 10, 20, 30, 40);
+		
+		// the packed form is the stored one: it keeps the invalid entries and the null values as 0, flagged by the masks
+		assertArrayEquals(new int[] {1, 2, 3, 4, 0, 0, 0, 0, 0, 0, 0, 0, 7, 0, 9, 10, 0, 2, 3, 4}, info.getCustomRects().getValues());
+		assertArrayEquals(new int[] {0, CloudinaryRectArray.INVALID, CloudinaryRectArray.INVALID, 1 << CloudinaryRectArray.Y, 
+				1 << CloudinaryRectArray.X}, info.getCustomRects().getMasks());
+		assertArrayEquals(new int[] {10, 20, 30, 40}, info.getFaceRects().getValues());
+		assertNull(info.getFaceRects().getMasks());
+	}
+
+	@Test
+	public void testNumbersOutOfIntRange() {
+		CloudinaryUploadInfo info = decoder.decode("{\"width\": 1e400, \"height\": -1e400, \"bytes\": 3000000000, "
+				+ "\"version\": 1e400, \"coordinates\": {\"custom\": [[1e400, -1e400, 0.5, -0.5]]}}");
+		assertEquals(Integer.valueOf(Integer.MAX_VALUE), info.getWidth());
+		assertEquals(Integer.valueOf(Integer.MIN_VALUE), info.getHeight());
+		assertEquals(Integer.valueOf(Integer.MAX_VALUE), info.getBytes());
+		assertEquals("1e400", info.getVersion());
+		assertCoordinates(info.getCustomCoordinates()[0], Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 0);
+	}
+
+	@Test
+	public void testDecodesLists() {
+		List<CloudinaryUploadInfo> infos = decoder.decodeList("[{\"public_id\": \"a\"}, 1, null, {\"public_id\": \"b\"}]");
+		assertEquals(2, infos.size());
+		assertEquals("a", infos.get(0).getPublicId());
+		assertEquals("b", infos.get(1).getPublicId());
+		
+		infos = decoder.decodeList(" {\"public_id\": \"c\"} ");
+		assertEquals(1, infos.size());
+		assertEquals("c", infos.get(0).getPublicId());
+		
+		assertEquals(0, decoder.decodeList("[]").size());
+	}
+
+	@Test
+	public void testRejectsTrailingInput() {
+		assertDecodeFails("{\"public_id\": \"x\"} garbage");
+		assertDecodeFails("{\"public_id\": \"x\"} {}");
+		assertDecodeListFails("[{\"public_id\": \"x\"}] ]]]");
+		assertDecodeListFails("{\"public_id\": \"x\"}]");
+		assertDecodeListFails("[] []");
+	}
+
+	@Test
+	public void testRejectsMalformedInput() {
+		assertDecodeFails("");
+		assertDecodeFails("[]");
+		assertDecodeFails("{\"public_id\": \"x\"");
+		assertDecodeFails("{\"public_id\" \"x\"}");
+		assertDecodeFails("{\"width\": 1,}");
+		assertDecodeFails("{\"coordinates\": {\"custom\": [[1, 2, 3, 4]}}");
+		assertDecodeListFails("[{\"public_id\": \"x\"},");
+		assertDecodeListFails("\"x\"");
+	}
+
+	private void assertDecodeFails(String json) {
+		try {
+			decoder.decode(json);
+			fail("Expected a syntax error: " + json);
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private void assertDecodeListFails(String json) {
+		try {
+			decoder.decodeList(json);
+			fail("Expected a syntax error: " + json);
+		}
+		catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static void assertCoordinates(CloudinaryCoordinates c, Integer x, Integer y, Integer width, Integer height) {
+		assertEquals(x, c.getX());
+		assertEquals(y, c.getY());
+		assertEquals(width, c.getWidth());
+		assertEquals(height, c.getHeight());
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadInfo;
+
+/**
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class CloudinaryUrlBuilderTest {
+	
+	private final CloudinaryUrlBuilder builder = new CloudinaryUrlBuilder("demo");
+
+	@Test
+	public void testBuildsUrls() {
+		CloudinaryTransformation t = new CloudinaryTransformation().setWidth(200).setCrop("fill");
+		assertEquals("https://res.cloudinary.com/demo/image/upload/c_fill,w_200/v1312461204/folder/sample.jpg", 
+				builder.build("folder/sample", "1312461204", "jpg", t));
+		assertEquals("https://res.cloudinary.com/demo/image/upload/sample", builder.build("sample", null, null, null));
+		assertEquals("https://res.cloudinary.com/demo/image/upload/sample", 
+				builder.build("sample", null, null, new CloudinaryTransformation()));
+		assertEquals("https://res.cloudinary.com/demo/video/private/v1/sample.mp4", 
+				builder.build("sample", "1", "mp4", "video", "private", null));
+	}
+
+	@Test
+	public void testBuildsUrlsOfUploads() {
+		CloudinaryUploadInfo info = new CloudinaryUploadInfo();
+		info.setPublicId("sample");
+		info.setVersion("1");
+		info.setFormat("png");
+		info.setResourceType("raw");
+		info.setType("authenticated");
+		assertEquals("https://res.cloudinary.com/demo/raw/authenticated/v1/sample.png", builder.build(info, null));
+	}
+
+	@Test
+	public void testFollowsChangesOfTheTransformation() {
+		CloudinaryTransformation t = new CloudinaryTransformation().setWidth(200);
+		assertEquals("https://res.cloudinary.com/demo/image/upload/w_200/sample", builder.build("sample", null, null, t));
+		t.setWidth(100);
+		assertEquals("https://res.cloudinary.com/demo/image/upload/w_100/sample", builder.build("sample", null, null, t));
+	}
+
+	@Test
+	public void testFollowsChangesOfTheBuilder() {
+		assertEquals("https://res.cloudinary.com/demo/image/upload/sample", builder.build("sample", null, null, null));
+		builder.setSecure(false).setHost("images.example.com");
+		assertEquals("http://images.example.com/demo/image/upload/sample", builder.build("sample", null, null, null));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testRequiresThePublicId() {
+		builder.build(null, "1", "jpg", null);
+	}
+
+	@Test
+	public void testRepeatedBuildsHitTheCache() {
+		CloudinaryTransformation t = new CloudinaryTransformation().setWidth(200);
+		String url = builder.build("sample", "1", "jpg", t);
+		assertEquals(1, builder.getCacheSize());
+		assertSame(url, builder.build("sample", "1", "jpg", t));
+		assertSame(url, builder.build("sample", "1", "jpg", t.copy()));
+		assertEquals(1, builder.getCacheSize());
+		
+		assertNotSame(url, builder.build("sample", "2", "jpg", t));
+		assertEquals(2, builder.getCacheSize());
+		
+		builder.setSecure(false);
+		assertEquals(0, builder.getCacheSize());
+	}
+
+	@Test
+	public void testEvictsTheLeastRecentlyUsedUrl() {
+		CloudinaryUrlBuilder small = new CloudinaryUrlBuilder("demo", 2);
+		String a = small.build("a", null, null, null);
+		small.build("b", null, null, null);
+		assertSame(a, small.build("a", null, null, null));
+		small.build("c", null, null, null);
+		assertEquals(2, small.getCacheSize());
+		assertSame(a, small.build("a", null, null, null));
+		assertEquals(2, small.getCacheSize());
+	}
+
+	@Test
+	public void testDisablesTheCache() {
+		CloudinaryUrlBuilder uncached = new CloudinaryUrlBuilder("demo", 0);
+		String url = uncached.build("sample", null, null, null);
+		assertEquals(url, uncached.build("sample", null, null, null));
+		assertNotSame(url, uncached.build("sample", null, null, null));
+		assertEquals(0, uncached.getCacheSize());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsNegativeCacheSizes() {
+		new CloudinaryUrlBuilder("demo", -1);
+	}
+}
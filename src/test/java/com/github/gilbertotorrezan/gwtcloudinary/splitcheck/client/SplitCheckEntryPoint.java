@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ * 
+ * Copyright (c) 2015 Gilberto Torrezan Filho
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ * 
+ */
+package com.github.gilbertotorrezan.gwtcloudinary.splitcheck.client;
+
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadButton;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadFinishedEvent;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryUploadFinishedHandler;
+import com.github.gilbertotorrezan.gwtcloudinary.client.CloudinaryWidgetConfig;
+import com.google.gwt.core.client.EntryPoint;
+import com.google.gwt.user.client.Window;
+import com.google.gwt.user.client.ui.RootPanel;
+
+/**
+ * Uses the {@link CloudinaryUploadButton} as documented, so the compile report shows what it adds to the initial fragment.
+ * 
+ * @author Gilberto Torrezan Filho
+ *
+ * @since v.1.0.2
+ */
+public class SplitCheckEntryPoint implements EntryPoint {
+
+	@Override
+	public void onModuleLoad() {
+		CloudinaryWidgetConfig config = CloudinaryWidgetConfig.builder()
+				.setCloudName("demo")
+				.setUploadPreset("a5vxnzbp")
+				.setSources(new String[] {"local", "url"})
+				.setMultiple(true)
+				.setMaxFiles(10)
+				.build();
+		
+		CloudinaryUploadButton upload = new CloudinaryUploadButton("Upload", config);
+		upload.addCloudinaryUploadFinishedHandler(new CloudinaryUploadFinishedHandler() {
+			@Override
+			public void onUploadFinished(CloudinaryUploadFinishedEvent event) {
+				Window.alert(event.getErrorMessage() == null ? "Uploaded" : event.getErrorMessage());
+			}
+		});
+		RootPanel.get().add(upload);
+	}
+}